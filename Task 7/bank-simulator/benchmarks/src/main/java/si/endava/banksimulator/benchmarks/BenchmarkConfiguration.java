@@ -0,0 +1,68 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientInterface;
+import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientMock;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerValidationDTO;
+import si.endava.banksimulator.mappers.BankMapper;
+import si.endava.banksimulator.mappers.CustomerMapper;
+import si.endava.banksimulator.repositories.BankRepository;
+import si.endava.banksimulator.repositories.CustomerRepository;
+
+@Configuration(proxyBeanMethods = false)
+public class BenchmarkConfiguration {
+
+    @Bean
+    public InMemoryKafkaProducerFactory inMemoryKafkaProducerFactory() {
+        return new InMemoryKafkaProducerFactory();
+    }
+
+    @Bean
+    @Primary
+    public KafkaTemplate<String, byte[]> inMemoryKafkaTemplate(
+            InMemoryKafkaProducerFactory producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    @Bean
+    public KafkaAdmin kafkaAdmin() {
+        KafkaAdmin admin = new KafkaAdmin(new HashMap<>());
+        admin.setAutoCreate(false);
+        return admin;
+    }
+
+    /**
+     * Accepts every target, after blocking for {@code benchmark.payment-network.delay-ms} like a
+     * remote call would.
+     */
+    @Bean
+    @Primary
+    public PaymentNetworkFeignClientInterface validatingPaymentNetwork(
+            BankRepository bankRepository,
+            BankMapper bankMapper,
+            CustomerRepository customerRepository,
+            CustomerMapper customerMapper,
+            @Value("${benchmark.payment-network.delay-ms:0}") long delayMs) {
+        return new PaymentNetworkFeignClientMock(
+                bankRepository, bankMapper, customerRepository, customerMapper) {
+            @Override
+            public PaymentNetworkCustomerValidationDTO validateCustomer(String email) {
+                if (delayMs > 0) {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(delayMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new PaymentNetworkCustomerValidationDTO(email, true);
+            }
+        };
+    }
+}
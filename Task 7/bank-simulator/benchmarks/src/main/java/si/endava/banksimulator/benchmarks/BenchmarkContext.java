@@ -0,0 +1,87 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import si.endava.banksimulator.BankSimulatorApplication;
+
+public final class BenchmarkContext implements AutoCloseable {
+
+    public static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1.00");
+    public static final BigDecimal DECLINED_AMOUNT = new BigDecimal("1000000000000.00");
+
+    private final ConfigurableApplicationContext context;
+    private final int customers;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, int customers) {
+        this.context = context;
+        this.customers = customers;
+    }
+
+    /**
+     * Boots the application with the given {@code key=value} properties. They are passed as command
+     * line arguments, since default properties would lose against application.yml.
+     */
+    public static BenchmarkContext start(int customers, String... properties) {
+        return start(WebApplicationType.NONE, customers, properties);
+    }
+
+    /** {@link #start} with the embedded Tomcat listening on a random {@link #port}. */
+    public static BenchmarkContext startServer(int customers, String... properties) {
+        List<String> args = new ArrayList<>(Arrays.asList(properties));
+        args.add("server.port=0");
+        return start(WebApplicationType.SERVLET, customers, args.toArray(new String[0]));
+    }
+
+    private static BenchmarkContext start(
+            WebApplicationType webApplicationType, int customers, String... properties) {
+        List<String> args =
+                new ArrayList<>(
+                        Arrays.asList(
+                                "spring.datasource.url=jdbc:h2:mem:bench-"
+                                        + customers
+                                        + "-"
+                                        + UUID.randomUUID()
+                                        + ";DB_CLOSE_DELAY=-1",
+                                "spring.h2.console.enabled=false",
+                                "spring.kafka.listener.auto-startup=false",
+                                "logging.level.root=WARN"));
+        args.addAll(Arrays.asList(properties));
+        ConfigurableApplicationContext context =
+                new SpringApplicationBuilder(
+                                BankSimulatorApplication.class, BenchmarkConfiguration.class)
+                        .web(webApplicationType)
+                        .profiles("withoutEureka")
+                        .run(args.stream().map(property -> "--" + property).toArray(String[]::new));
+        new DatasetSeeder(context.getBean(JdbcTemplate.class)).seed(customers);
+        return new BenchmarkContext(context, customers);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    public InMemoryKafkaProducerFactory kafka() {
+        return context.getBean(InMemoryKafkaProducerFactory.class);
+    }
+
+    public int customers() {
+        return customers;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,34 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.io.File;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching {@code args[0]} for the customer counts in {@code args[1]} and
+ * writes the JMH JSON report to {@code args[2]}, which {@link BenchmarkComparison} can diff against
+ * an earlier report.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*";
+        String[] customers = args.length > 1 ? args[1].split(",") : new String[] {"1000"};
+        File results = new File(args.length > 2 ? args[2] : "results/latest.json");
+        if (results.getParentFile() != null) {
+            results.getParentFile().mkdirs();
+        }
+
+        Options options =
+                new OptionsBuilder()
+                        .include(include)
+                        .param("customers", customers)
+                        .resultFormat(ResultFormatType.JSON)
+                        .result(results.getPath())
+                        .build();
+        new Runner(options).run();
+    }
+}
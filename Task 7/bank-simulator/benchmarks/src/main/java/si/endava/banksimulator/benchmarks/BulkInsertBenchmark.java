@@ -0,0 +1,100 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.endava.banksimulator.entities.Contact;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.entities.PooledSequenceGenerator;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.enums.TransactionStatus;
+import si.endava.banksimulator.repositories.TransactionRepository;
+import si.endava.banksimulator.services.ContactService;
+import si.endava.banksimulator.services.CustomerService;
+
+/**
+ * Inserts {@value #ROWS} transaction rows per database transaction, once with one sequence call per
+ * row and once with the default block size, to show the cost of id allocation on bulk inserts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xmx4g"})
+public class BulkInsertBenchmark {
+
+    static final int ROWS = 1000;
+
+    @Param({"1", "50"})
+    public int allocationSize;
+
+    private BenchmarkContext context;
+    private TransactionTemplate transactionTemplate;
+    private TransactionRepository transactionRepository;
+    private Customer source;
+    private Contact contact;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context =
+                BenchmarkContext.start(
+                        ROWS, PooledSequenceGenerator.ALLOCATION_SIZE + "=" + allocationSize);
+        transactionTemplate = context.bean(TransactionTemplate.class);
+        transactionRepository = context.bean(TransactionRepository.class);
+        source = context.bean(CustomerService.class).findByUuid(DatasetSeeder.customerUuid(0));
+        contact =
+                context.bean(ContactService.class)
+                        .findByCustomerAndEmail(source, DatasetSeeder.internalTargetEmail(0, ROWS));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Transaction> insertTransactions() {
+        return transactionTemplate.execute(
+                status -> {
+                    List<Transaction> transactions = new ArrayList<>(ROWS);
+                    for (int i = 0; i < ROWS; i++) {
+                        transactions.add(
+                                Transaction.builder()
+                                        .uuid(UUID.randomUUID())
+                                        .customer(source)
+                                        .contact(contact)
+                                        .sourceAmount(BenchmarkContext.TRANSFER_AMOUNT)
+                                        .targetAmount(BenchmarkContext.TRANSFER_AMOUNT)
+                                        .sourceCurrency("EUR")
+                                        .targetCurrency("EUR")
+                                        .exchangeRate(BigDecimal.ONE)
+                                        .transactionStatus(TransactionStatus.COMPLETED)
+                                        .date(LocalDateTime.now())
+                                        .build());
+                    }
+                    return transactionRepository.saveAll(transactions);
+                });
+    }
+}
@@ -0,0 +1,133 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Seeds {@code customers} customers of a single bank with one internal and one external contact
+ * each. Identifiers are derived from the customer index so benchmarks can address any customer
+ * without reading it back first.
+ */
+public class DatasetSeeder {
+
+    static final long ID_OFFSET = 100_000_000L;
+    static final long BANK_ID = 1L;
+    static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static UUID customerUuid(int index) {
+        return new UUID(0xB4_0000_0000L, index);
+    }
+
+    public static String customerEmail(int index) {
+        return "customer-" + index + "@bench.test";
+    }
+
+    public static String externalEmail(int index) {
+        return "external-" + index + "@network.test";
+    }
+
+    public static String internalTargetEmail(int index, int customers) {
+        return customerEmail((index + 1) % customers);
+    }
+
+    public void seed(int customers) {
+        List<Object[]> customerRows = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> contactRows = new ArrayList<>(2 * BATCH_SIZE);
+        for (int i = 0; i < customers; i++) {
+            long customerId = ID_OFFSET + i;
+            customerRows.add(
+                    new Object[] {
+                        customerId,
+                        customerUuid(i),
+                        "Bench",
+                        "Customer" + i,
+                        customerEmail(i),
+                        INITIAL_BALANCE,
+                        BigDecimal.ZERO,
+                        true,
+                        BANK_ID
+                    });
+            contactRows.add(
+                    new Object[] {
+                        ID_OFFSET + 2L * i,
+                        new UUID(0xC0_0000_0000L, 2L * i),
+                        "Internal" + i,
+                        internalTargetEmail(i, customers),
+                        customerId
+                    });
+            contactRows.add(
+                    new Object[] {
+                        ID_OFFSET + 2L * i + 1,
+                        new UUID(0xC0_0000_0000L, 2L * i + 1),
+                        "External" + i,
+                        externalEmail(i),
+                        customerId
+                    });
+            if (customerRows.size() == BATCH_SIZE) {
+                flush(customerRows, contactRows);
+            }
+        }
+        flush(customerRows, contactRows);
+    }
+
+    /**
+     * Seeds {@code transactions} completed transfers, spread round robin over the customers of
+     * {@link #seed} and their internal contacts.
+     */
+    public void seedTransactions(int transactions, int customers) {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        LocalDateTime date = LocalDateTime.of(2022, 1, 1, 0, 0);
+        for (int i = 0; i < transactions; i++) {
+            int customer = i % customers;
+            rows.add(
+                    new Object[] {
+                        ID_OFFSET + i,
+                        new UUID(0x7A_0000_0000L, i),
+                        BigDecimal.ONE,
+                        "EUR",
+                        BigDecimal.ONE,
+                        "EUR",
+                        BigDecimal.ONE,
+                        "COMPLETED",
+                        date.plusSeconds(i),
+                        ID_OFFSET + customer,
+                        ID_OFFSET + 2L * customer
+                    });
+            if (rows.size() == BATCH_SIZE || i == transactions - 1) {
+                jdbcTemplate.batchUpdate(
+                        "insert into transaction (transaction_id, transaction_uuid, source_amount,"
+                                + " source_currency, target_amount, target_currency,"
+                                + " exchange_rate, status, date, customer_id, contact_id) values"
+                                + " (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private void flush(List<Object[]> customerRows, List<Object[]> contactRows) {
+        jdbcTemplate.batchUpdate(
+                "insert into customer (customer_id, customer_uuid, name, surname, email, balance,"
+                        + " suspense_balance, payment_network, bank_id) values (?, ?, ?, ?, ?, ?,"
+                        + " ?, ?, ?)",
+                customerRows);
+        jdbcTemplate.batchUpdate(
+                "insert into contact_list (contact_id, contact_uuid, name, email, customer_id)"
+                        + " values (?, ?, ?, ?, ?)",
+                contactRows);
+        customerRows.clear();
+        contactRows.clear();
+    }
+}
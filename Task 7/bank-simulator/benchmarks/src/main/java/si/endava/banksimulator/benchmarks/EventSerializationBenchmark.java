@@ -0,0 +1,83 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import si.endava.banksimulator.kafka.KafkaTopics;
+import si.endava.banksimulator.kafka.events.NewPaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEventCodec;
+import si.endava.banksimulator.kafka.events.TransactionNotificationEvent;
+
+/**
+ * Serializes and deserializes one payment event per operation, once as the space-delimited text the
+ * topics used to carry and once with {@link PaymentEventCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    private final UUID sourceUuid = UUID.randomUUID();
+    private final UUID transactionUuid = UUID.randomUUID();
+    private final String targetEmail = "max.irving@gmail.com";
+    private final BigDecimal amount = new BigDecimal("1234.56");
+    private final String bankBIC = "LJBASI2X";
+
+    @Benchmark
+    public NewPaymentEvent newPaymentText() {
+        byte[] data =
+                (sourceUuid.toString()
+                                + " "
+                                + targetEmail
+                                + " "
+                                + amount.toString()
+                                + " "
+                                + transactionUuid.toString())
+                        .getBytes(StandardCharsets.UTF_8);
+
+        String[] split = new String(data, StandardCharsets.UTF_8).split(" ");
+        return new NewPaymentEvent(
+                UUID.fromString(split[0]),
+                split[1],
+                new BigDecimal(split[2]),
+                UUID.fromString(split[3]));
+    }
+
+    @Benchmark
+    public PaymentEvent newPaymentBinary() {
+        byte[] data =
+                PaymentEventCodec.encode(
+                        new NewPaymentEvent(sourceUuid, targetEmail, amount, transactionUuid));
+        return PaymentEventCodec.decode(KafkaTopics.PAYMENT_NEW, data);
+    }
+
+    @Benchmark
+    public TransactionNotificationEvent notificationText() {
+        byte[] data = (transactionUuid.toString() + " " + bankBIC).getBytes(StandardCharsets.UTF_8);
+
+        String[] split = new String(data, StandardCharsets.UTF_8).split(" ");
+        return new TransactionNotificationEvent(UUID.fromString(split[0]), split[1]);
+    }
+
+    @Benchmark
+    public PaymentEvent notificationBinary() {
+        byte[] data =
+                PaymentEventCodec.encode(
+                        new TransactionNotificationEvent(transactionUuid, bankBIC));
+        return PaymentEventCodec.decode(KafkaTopics.COMPLETE_TRANSACTION, data);
+    }
+}
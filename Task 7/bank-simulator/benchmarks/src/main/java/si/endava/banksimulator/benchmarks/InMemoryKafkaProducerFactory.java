@@ -0,0 +1,35 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.time.Duration;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.ProducerFactory;
+
+/** Hands out a single auto-completing {@link MockProducer} so sends never touch a broker. */
+public class InMemoryKafkaProducerFactory implements ProducerFactory<String, byte[]> {
+
+    private final MockProducer<String, byte[]> producer =
+            new MockProducer<String, byte[]>(
+                    true, new StringSerializer(), new ByteArraySerializer()) {
+                @Override
+                public void close() {}
+
+                @Override
+                public void close(Duration timeout) {}
+            };
+
+    @Override
+    public Producer<String, byte[]> createProducer() {
+        return producer;
+    }
+
+    public int sent() {
+        return producer.history().size();
+    }
+
+    public void clear() {
+        producer.clear();
+    }
+}
@@ -0,0 +1,213 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import si.endava.banksimulator.threads.VirtualThreads;
+
+/**
+ * Open-loop HTTP load against the REST tier in the {@code platform} and {@code virtual} thread
+ * modes. Every mode gets its own application, which is driven at each rate of {@code args[2]}
+ * requests per second for {@code args[3]} seconds. Latency is measured from the time a request was
+ * due, so a server that falls behind is charged for the queueing as well. A rate is sustained when
+ * no request fails, at least 95% of it is achieved and the p99 latency stays within {@code args[4]}
+ * milliseconds; the highest sustained rate is reported per mode. The first application started in
+ * the JVM falls behind at the first rate whatever its threads, so one application of the first mode
+ * is started and driven at the first rate before any mode is measured, and then closed.
+ *
+ * <p>The mix is three customer lookups to one transfer, every fourth transfer going to an external
+ * bank. The payment network blocks for {@code args[5]} milliseconds per customer validation, which
+ * is what the Feign call of an external transfer costs the request thread. The {@code virtual} mode
+ * is skipped on a JVM without virtual threads.
+ */
+public class RestLoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final double SUSTAINED_FRACTION = 0.95;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final int customers;
+
+    private RestLoadTest(HttpClient client, int port, int customers) {
+        this.client = client;
+        this.baseUrl = "http://localhost:" + port + "/api/v1/";
+        this.customers = customers;
+    }
+
+    public static void main(String[] args) {
+        List<String> modes =
+                Arrays.asList((args.length > 0 ? args[0] : "platform,virtual").split(","));
+        int customers = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int[] rates =
+                Arrays.stream(
+                                (args.length > 2 ? args[2] : "250,500,1000,2000,4000,8000")
+                                        .split(","))
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        long sloMs = args.length > 4 ? Long.parseLong(args[4]) : 100;
+        long delayMs = args.length > 5 ? Long.parseLong(args[5]) : 50;
+
+        warmUp(modes.get(0), customers, rates[0], seconds, delayMs);
+
+        List<String> summary = new ArrayList<>();
+        for (String mode : modes) {
+            if (mode.equals("virtual") && !VirtualThreads.isSupported()) {
+                System.out.printf(
+                        "%nSkipping virtual: Java %s has no virtual threads%n",
+                        System.getProperty("java.version"));
+                continue;
+            }
+            summary.add(run(mode, customers, rates, seconds, sloMs, delayMs));
+        }
+        System.out.printf("%n%-10s %12s %12s%n", "mode", "max rps", "p99 ms");
+        summary.forEach(System.out::println);
+    }
+
+    private static void warmUp(String mode, int customers, int rate, int seconds, long delayMs) {
+        if (mode.equals("virtual") && !VirtualThreads.isSupported()) mode = "platform";
+        try (BenchmarkContext context = start(mode, customers, delayMs)) {
+            HttpClient client =
+                    HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            new RestLoadTest(client, context.port(), customers).step(rate, seconds);
+        }
+    }
+
+    private static BenchmarkContext start(String mode, int customers, long delayMs) {
+        return BenchmarkContext.startServer(
+                customers,
+                "banksimulator.threads.mode=" + mode,
+                "banksimulator.validation-cache.maximum-size=0",
+                "benchmark.payment-network.delay-ms=" + delayMs,
+                "server.tomcat.max-connections=100000",
+                "server.tomcat.accept-count=10000");
+    }
+
+    private static String run(
+            String mode, int customers, int[] rates, int seconds, long sloMs, long delayMs) {
+        System.out.printf("%n%s threads%n", mode);
+        System.out.printf(
+                "%10s %10s %10s %10s %10s %10s%n",
+                "rate", "achieved", "failed", "p50 ms", "p99 ms", "max ms");
+        try (BenchmarkContext context = start(mode, customers, delayMs)) {
+            HttpClient client =
+                    HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            RestLoadTest test = new RestLoadTest(client, context.port(), customers);
+
+            // warms up the JIT and the connection pools, results are discarded
+            test.step(rates[0], seconds);
+
+            int maxRate = 0;
+            double maxP99 = Double.NaN;
+            for (int rate : rates) {
+                Step step = test.step(rate, seconds);
+                System.out.printf(
+                        "%10d %10.0f %10d %10.1f %10.1f %10.1f%n",
+                        rate, step.achieved, step.failed, step.p50Ms, step.p99Ms, step.maxMs);
+                context.kafka().clear();
+                if (step.failed > 0
+                        || step.achieved < rate * SUSTAINED_FRACTION
+                        || step.p99Ms > sloMs) break;
+                maxRate = rate;
+                maxP99 = step.p99Ms;
+            }
+            return String.format("%-10s %12d %12.1f", mode, maxRate, maxP99);
+        }
+    }
+
+    /** Issues {@code rate} requests per second for {@code seconds}, each at the time it is due. */
+    private Step step(int rate, int seconds) {
+        int requests = rate * seconds;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long[] latencies = new long[requests];
+        AtomicLong failed = new AtomicLong();
+        AtomicLong lastDone = new AtomicLong();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long due = start + i * interval;
+            long wait = due - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+
+            int index = i;
+            responses[i] =
+                    client.sendAsync(request(i), HttpResponse.BodyHandlers.discarding())
+                            .handle(
+                                    (response, error) -> {
+                                        long done = System.nanoTime();
+                                        latencies[index] = done - due;
+                                        lastDone.accumulateAndGet(done, Math::max);
+                                        if (error != null || response.statusCode() >= 300)
+                                            failed.incrementAndGet();
+                                        return null;
+                                    });
+        }
+        CompletableFuture.allOf(responses).join();
+
+        Arrays.sort(latencies);
+        double elapsed = (lastDone.get() - start) / 1e9;
+        return new Step(
+                (requests - failed.get()) / elapsed,
+                failed.get(),
+                millis(latencies[requests / 2]),
+                millis(latencies[(int) Math.ceil(requests * 0.99) - 1]),
+                millis(latencies[requests - 1]));
+    }
+
+    private HttpRequest request(int i) {
+        int source = ThreadLocalRandom.current().nextInt(customers);
+        String customer = DatasetSeeder.customerUuid(source).toString();
+        HttpRequest.Builder request = HttpRequest.newBuilder().timeout(REQUEST_TIMEOUT);
+        if (i % 4 != 3) {
+            return request.uri(URI.create(baseUrl + "customers/" + customer)).GET().build();
+        }
+
+        String email =
+                i % 16 == 15
+                        ? DatasetSeeder.externalEmail(source)
+                        : DatasetSeeder.internalTargetEmail(source, customers);
+        String body =
+                "{\"email\":\""
+                        + email
+                        + "\",\"sourceAmount\":"
+                        + BenchmarkContext.TRANSFER_AMOUNT
+                        + "}";
+        return request.uri(
+                        URI.create(baseUrl + "transactions/customer/" + customer + "/transaction"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Step {
+        private final double achieved;
+        private final long failed;
+        private final double p50Ms;
+        private final double p99Ms;
+        private final double maxMs;
+
+        private Step(double achieved, long failed, double p50Ms, double p99Ms, double maxMs) {
+            this.achieved = achieved;
+            this.failed = failed;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+            this.maxMs = maxMs;
+        }
+    }
+}
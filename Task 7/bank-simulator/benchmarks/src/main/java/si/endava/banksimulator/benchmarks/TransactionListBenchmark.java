@@ -0,0 +1,129 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import si.endava.banksimulator.services.TransactionService;
+
+/**
+ * {@code GET /api/v1/transactions} over {@code transactions} seeded transactions, as the flat
+ * {@link TransactionService#getTransactionSummaries} projection and as the expanded entity graph of
+ * {@link TransactionService#getAllTransactions}. Statements and heap allocated per listing are
+ * reported as the {@code statementsPerCall} and {@code bytesPerCall} counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xmx4g"})
+public class TransactionListBenchmark {
+
+    @Param({"1000"})
+    public int customers;
+
+    @Param({"100000"})
+    public int transactions;
+
+    private BenchmarkContext context;
+    private TransactionService transactionService;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context =
+                BenchmarkContext.start(
+                        customers, "spring.jpa.properties.hibernate.generate_statistics=true");
+        new DatasetSeeder(context.bean(JdbcTemplate.class))
+                .seedTransactions(transactions, customers);
+        transactionService = context.bean(TransactionService.class);
+        statistics =
+                context.bean(EntityManagerFactory.class)
+                        .unwrap(SessionFactory.class)
+                        .getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<?> flat(Usage usage) {
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long bytesBefore = Usage.allocatedBytes();
+        List<?> list = transactionService.getTransactionSummaries(null);
+        usage.add(
+                statistics.getPrepareStatementCount() - statementsBefore,
+                Usage.allocatedBytes() - bytesBefore);
+        return list;
+    }
+
+    @Benchmark
+    public List<?> expanded(Usage usage) {
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long bytesBefore = Usage.allocatedBytes();
+        List<?> list = transactionService.getAllTransactions();
+        usage.add(
+                statistics.getPrepareStatementCount() - statementsBefore,
+                Usage.allocatedBytes() - bytesBefore);
+        return list;
+    }
+
+    /** Statements and bytes of one iteration; JMH reports the public fields and methods. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Usage {
+        private static final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        public long statements;
+        public long bytes;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            bytes = 0;
+            calls = 0;
+        }
+
+        static long allocatedBytes() {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        void add(long statementCount, long byteCount) {
+            statements += statementCount;
+            bytes += byteCount;
+            calls++;
+        }
+
+        public double statementsPerCall() {
+            return calls == 0 ? 0 : (double) statements / calls;
+        }
+
+        public double bytesPerCall() {
+            return calls == 0 ? 0 : (double) bytes / calls;
+        }
+    }
+}
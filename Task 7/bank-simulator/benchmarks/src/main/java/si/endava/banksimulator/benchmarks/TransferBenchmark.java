@@ -0,0 +1,80 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.services.TransactionService;
+
+/** End-to-end cost of {@link TransactionService#addNewTransaction} per transfer outcome. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xmx4g"})
+public class TransferBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int customers;
+
+    private BenchmarkContext context;
+    private TransactionService transactionService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(customers);
+        transactionService = context.bean(TransactionService.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearKafka() {
+        context.kafka().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction internalTransfer() {
+        int source = ThreadLocalRandom.current().nextInt(customers);
+        return transactionService.addNewTransaction(
+                DatasetSeeder.customerUuid(source),
+                DatasetSeeder.internalTargetEmail(source, customers),
+                BenchmarkContext.TRANSFER_AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction externalTransfer() {
+        int source = ThreadLocalRandom.current().nextInt(customers);
+        return transactionService.addNewTransaction(
+                DatasetSeeder.customerUuid(source),
+                DatasetSeeder.externalEmail(source),
+                BenchmarkContext.TRANSFER_AMOUNT);
+    }
+
+    @Benchmark
+    public Transaction declinedTransfer() {
+        int source = ThreadLocalRandom.current().nextInt(customers);
+        return transactionService.addNewTransaction(
+                DatasetSeeder.customerUuid(source),
+                DatasetSeeder.internalTargetEmail(source, customers),
+                BenchmarkContext.DECLINED_AMOUNT);
+    }
+}
@@ -0,0 +1,123 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.services.CustomerIdentityCache;
+import si.endava.banksimulator.services.TransactionService;
+
+/**
+ * JDBC statements per {@link TransactionService#addNewTransaction}, reported as the {@code
+ * statementsPerTransfer} counter. An {@code identityCacheSize} of 0 turns {@link
+ * CustomerIdentityCache} into a pass-through, which matches the lookups made before it existed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xmx4g"})
+public class TransferQueriesBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int customers;
+
+    @Param({"0", "100000"})
+    public int identityCacheSize;
+
+    private BenchmarkContext context;
+    private TransactionService transactionService;
+    private Statistics statistics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context =
+                BenchmarkContext.start(
+                        customers,
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "banksimulator.customer-identity-cache.maximum-size=" + identityCacheSize);
+        transactionService = context.bean(TransactionService.class);
+        statistics =
+                context.bean(EntityManagerFactory.class)
+                        .unwrap(SessionFactory.class)
+                        .getStatistics();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearKafka() {
+        context.kafka().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Transaction internalTransfer(Statements statements) {
+        int source = ThreadLocalRandom.current().nextInt(customers);
+        long before = statistics.getPrepareStatementCount();
+        Transaction transaction =
+                transactionService.addNewTransaction(
+                        DatasetSeeder.customerUuid(source),
+                        DatasetSeeder.internalTargetEmail(source, customers),
+                        BenchmarkContext.TRANSFER_AMOUNT);
+        statements.add(statistics.getPrepareStatementCount() - before);
+        return transaction;
+    }
+
+    @Benchmark
+    public Transaction externalTransfer(Statements statements) {
+        int source = ThreadLocalRandom.current().nextInt(customers);
+        long before = statistics.getPrepareStatementCount();
+        Transaction transaction =
+                transactionService.addNewTransaction(
+                        DatasetSeeder.customerUuid(source),
+                        DatasetSeeder.externalEmail(source),
+                        BenchmarkContext.TRANSFER_AMOUNT);
+        statements.add(statistics.getPrepareStatementCount() - before);
+        return transaction;
+    }
+
+    /** Statements and transfers of one iteration; JMH reports the public fields and methods. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Statements {
+        public long statements;
+        public long transfers;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            transfers = 0;
+        }
+
+        void add(long count) {
+            statements += count;
+            transfers++;
+        }
+
+        public double statementsPerTransfer() {
+            return transfers == 0 ? 0 : (double) statements / transfers;
+        }
+    }
+}
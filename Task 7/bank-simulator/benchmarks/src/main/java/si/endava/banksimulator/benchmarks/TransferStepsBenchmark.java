@@ -0,0 +1,136 @@
+package si.endava.banksimulator.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import si.endava.banksimulator.entities.Bank;
+import si.endava.banksimulator.entities.Contact;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.enums.TransactionStatus;
+import si.endava.banksimulator.repositories.BankRepository;
+import si.endava.banksimulator.repositories.CustomerRepository;
+import si.endava.banksimulator.repositories.TransactionRepository;
+import si.endava.banksimulator.services.ContactService;
+import si.endava.banksimulator.services.CustomerService;
+
+/**
+ * Breaks {@code addNewTransaction} down into the lookups and writes it performs, so each step can
+ * be compared against the end-to-end numbers of {@link TransferBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+        value = 1,
+        jvmArgsAppend = {"-Xmx4g"})
+public class TransferStepsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int customers;
+
+    private BenchmarkContext context;
+    private CustomerService customerService;
+    private ContactService contactService;
+    private CustomerRepository customerRepository;
+    private TransactionRepository transactionRepository;
+    private Bank bank;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(customers);
+        customerService = context.bean(CustomerService.class);
+        contactService = context.bean(ContactService.class);
+        customerRepository = context.bean(CustomerRepository.class);
+        transactionRepository = context.bean(TransactionRepository.class);
+        bank = context.bean(BankRepository.class).findById(DatasetSeeder.BANK_ID).get();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Customer findByUuid() {
+        return customerService.findByUuid(DatasetSeeder.customerUuid(randomCustomer()));
+    }
+
+    @Benchmark
+    public Contact findContactByCustomerAndEmail() {
+        int source = randomCustomer();
+        Customer customer =
+                Customer.builder()
+                        .id(DatasetSeeder.ID_OFFSET + source)
+                        .uuid(DatasetSeeder.customerUuid(source))
+                        .build();
+        return contactService.findByCustomerAndEmail(
+                customer, DatasetSeeder.internalTargetEmail(source, customers));
+    }
+
+    @Benchmark
+    public Boolean existsCustomerByEmailAndBank() {
+        return customerService.checkIfExistsCustomerByEmailAndBank(
+                DatasetSeeder.customerEmail(randomCustomer()), bank);
+    }
+
+    @Benchmark
+    public void internalTransactionSaves(LoadedTransfer transfer, Blackhole blackhole) {
+        blackhole.consume(customerRepository.save(transfer.source));
+        blackhole.consume(customerRepository.save(transfer.target));
+        blackhole.consume(transactionRepository.save(transfer.transaction));
+    }
+
+    /** Entities as {@code internalTransaction} receives them, loaded outside the measurement. */
+    @State(Scope.Thread)
+    public static class LoadedTransfer {
+        Customer source;
+        Customer target;
+        Transaction transaction;
+
+        @Setup(Level.Invocation)
+        public void load(TransferStepsBenchmark benchmark) {
+            int index = benchmark.randomCustomer();
+            source = benchmark.customerService.findByUuid(DatasetSeeder.customerUuid(index));
+            target =
+                    benchmark.customerService.findByEmail(
+                            DatasetSeeder.internalTargetEmail(index, benchmark.customers));
+            source.setSuspenseBalance(source.getSuspenseBalance().add(BigDecimal.ONE));
+            target.setBalance(target.getBalance().add(BigDecimal.ONE));
+            transaction =
+                    Transaction.builder()
+                            .uuid(UUID.randomUUID())
+                            .customer(source)
+                            .sourceAmount(BenchmarkContext.TRANSFER_AMOUNT)
+                            .targetAmount(BenchmarkContext.TRANSFER_AMOUNT)
+                            .sourceCurrency(benchmark.bank.getCurrency())
+                            .targetCurrency(benchmark.bank.getCurrency())
+                            .exchangeRate(BigDecimal.ONE)
+                            .transactionStatus(TransactionStatus.COMPLETED)
+                            .date(LocalDateTime.now())
+                            .build();
+        }
+    }
+
+    private int randomCustomer() {
+        return ThreadLocalRandom.current().nextInt(customers);
+    }
+}
@@ -0,0 +1,168 @@
+package si.endava.banksimulator.balances;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.entities.Customer;
+
+/**
+ * In-memory balances keyed by customer id. Accounts are loaded from the customer entity on first
+ * use and every change marks the account dirty until {@link #drainDirty} hands it to the
+ * write-behind. An account is {@link #hold held} while its customer row is changed directly, and
+ * using it fails with a concurrency failure until the change is done.
+ */
+public class BalanceLedger {
+
+    private final Map<Long, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+    private final Map<Long, LedgerAccount> heldAccounts = new ConcurrentHashMap<>();
+    private final Lock writing = new ReentrantLock();
+
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Invalid amount " + amount.toPlainString());
+        }
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public LedgerAccount account(Customer customer) {
+        return accounts.compute(
+                customer.getId(),
+                (id, account) -> {
+                    if (held.contains(id))
+                        throw new ConcurrencyFailureException(
+                                "Balances of customer " + id + " are being updated");
+                    if (account != null) return account;
+                    return new LedgerAccount(
+                            toCents(customer.getBalance()), toCents(customer.getSuspenseBalance()));
+                });
+    }
+
+    public boolean reserve(Customer customer, long amount) {
+        boolean reserved = account(customer).reserve(amount);
+        if (reserved) dirty.add(customer.getId());
+        return reserved;
+    }
+
+    public void apply(Customer customer, long balanceDelta, long suspenseBalanceDelta) {
+        account(customer).apply(balanceDelta, suspenseBalanceDelta);
+        dirty.add(customer.getId());
+    }
+
+    /**
+     * Takes back a change applied before, unless the account was evicted since and is reloaded from
+     * its customer row the next time it is used.
+     */
+    public void revert(long customerId, long balanceDelta, long suspenseBalanceDelta) {
+        LedgerAccount account = accounts.get(customerId);
+        if (account == null) account = heldAccounts.get(customerId);
+        if (account == null) return;
+        account.apply(-balanceDelta, -suspenseBalanceDelta);
+        dirty.add(customerId);
+    }
+
+    public void evict(long customerId) {
+        dirty.remove(customerId);
+        accounts.remove(customerId);
+    }
+
+    /**
+     * Takes the account out of use before its customer row is changed directly. Waits for a write
+     * of drained accounts in progress, so none of them is written over the row afterwards.
+     */
+    public void hold(long customerId) {
+        writing.lock();
+        try {
+            accounts.compute(
+                    customerId,
+                    (id, account) -> {
+                        held.add(id);
+                        dirty.remove(id);
+                        if (account != null) heldAccounts.put(id, account);
+                        return null;
+                    });
+        } finally {
+            writing.unlock();
+        }
+    }
+
+    /** Puts a held account back into use with the balances its row was changed to. */
+    public void reseed(long customerId, BigDecimal balance, BigDecimal suspenseBalance) {
+        accounts.compute(
+                customerId,
+                (id, account) -> {
+                    held.remove(id);
+                    heldAccounts.remove(id);
+                    return new LedgerAccount(toCents(balance), toCents(suspenseBalance));
+                });
+    }
+
+    /** Puts a held account back into use unchanged, after the change of its row failed. */
+    public void restore(long customerId) {
+        accounts.compute(
+                customerId,
+                (id, account) -> {
+                    held.remove(id);
+                    LedgerAccount restored = heldAccounts.remove(id);
+                    if (restored != null) dirty.add(id);
+                    return restored;
+                });
+    }
+
+    public boolean hasDirty() {
+        return !dirty.isEmpty();
+    }
+
+    /**
+     * Removes up to {@code limit} dirty accounts and returns their current snapshots. An account
+     * changed after it was drained is marked dirty again and picked up by the next drain.
+     */
+    public Map<Long, LedgerAccount.Snapshot> drainDirty(int limit) {
+        Map<Long, LedgerAccount.Snapshot> drained = new LinkedHashMap<>();
+        Iterator<Long> iterator = dirty.iterator();
+        while (iterator.hasNext() && drained.size() < limit) {
+            Long customerId = iterator.next();
+            iterator.remove();
+            LedgerAccount account = accounts.get(customerId);
+            if (account != null) drained.put(customerId, account.snapshot());
+        }
+        return drained;
+    }
+
+    /**
+     * {@link #drainDirty} handing the snapshots to {@code write} before any account can be held.
+     * Returns whether anything was drained and written.
+     */
+    public boolean drainDirty(int limit, Predicate<Map<Long, LedgerAccount.Snapshot>> write) {
+        writing.lock();
+        try {
+            Map<Long, LedgerAccount.Snapshot> drained = drainDirty(limit);
+            return !drained.isEmpty() && write.test(drained);
+        } finally {
+            writing.unlock();
+        }
+    }
+
+    public void markDirty(Iterable<Long> customerIds) {
+        for (Long customerId : customerIds) {
+            if (accounts.containsKey(customerId)) dirty.add(customerId);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package si.endava.banksimulator.balances;
+
+import java.math.BigDecimal;
+import si.endava.banksimulator.entities.Customer;
+
+public interface BalanceOperations {
+
+    /** Moves {@code amount} from the balance into the suspense balance if it is covered. */
+    boolean reserve(Customer source, BigDecimal amount);
+
+    /** Reverts a {@link #reserve} whose transfer could not be sent. */
+    void release(Customer source, BigDecimal amount);
+
+    /** Settles an internal transfer: clears the reserved amount and credits the target. */
+    void transfer(
+            Customer source, Customer target, BigDecimal sourceAmount, BigDecimal targetAmount);
+
+    void credit(Customer target, BigDecimal amount);
+
+    /** Clears the reserved amount of a transfer the payment network completed. */
+    void settle(Customer source, BigDecimal amount);
+
+    /**
+     * Called in the database transaction that changes the balances of the customer on its row
+     * directly, before the change. Once the transaction committed, the balances of the row replace
+     * any state held for the customer.
+     */
+    void beforeUpdate(Customer customer);
+
+    /** Drops any state held for the customer after its row was removed. */
+    void forget(Customer customer);
+}
@@ -0,0 +1,64 @@
+package si.endava.banksimulator.balances;
+
+import java.math.BigDecimal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.repositories.CustomerRepository;
+
+@Service
+@ConditionalOnProperty(
+        name = "banksimulator.balances.mode",
+        havingValue = "entity",
+        matchIfMissing = true)
+@RequiredArgsConstructor
+public class EntityBalanceOperations implements BalanceOperations {
+
+    private final CustomerRepository customerRepository;
+
+    @Override
+    public boolean reserve(Customer source, BigDecimal amount) {
+        if (source.getBalance().compareTo(amount) < 0) return false;
+
+        source.setBalance(source.getBalance().subtract(amount));
+        source.setSuspenseBalance(source.getSuspenseBalance().add(amount));
+        return true;
+    }
+
+    @Override
+    public void release(Customer source, BigDecimal amount) {
+        source.setSuspenseBalance(source.getSuspenseBalance().subtract(amount));
+        source.setBalance(source.getBalance().add(amount));
+    }
+
+    @Override
+    public void transfer(
+            Customer source, Customer target, BigDecimal sourceAmount, BigDecimal targetAmount) {
+        source.setSuspenseBalance(source.getSuspenseBalance().subtract(sourceAmount));
+        target.setBalance(target.getBalance().add(targetAmount));
+
+        customerRepository.save(source);
+        customerRepository.save(target);
+    }
+
+    @Override
+    public void credit(Customer target, BigDecimal amount) {
+        target.setBalance(target.getBalance().add(amount));
+
+        customerRepository.save(target);
+    }
+
+    @Override
+    public void settle(Customer source, BigDecimal amount) {
+        source.setSuspenseBalance(source.getSuspenseBalance().subtract(amount));
+
+        customerRepository.save(source);
+    }
+
+    @Override
+    public void beforeUpdate(Customer customer) {}
+
+    @Override
+    public void forget(Customer customer) {}
+}
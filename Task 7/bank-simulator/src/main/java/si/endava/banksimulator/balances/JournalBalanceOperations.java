@@ -0,0 +1,115 @@
+package si.endava.banksimulator.balances;
+
+import static si.endava.banksimulator.balances.PostingJournal.posting;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.enums.PostingAccount;
+
+/**
+ * Appends every balance change to the {@link PostingJournal} instead of updating the customer row,
+ * which {@link JournalSnapshotter} brings up to date. A customer's account is opened with the
+ * balances of its row the first time the journal sees it. Balances changed on the row directly
+ * afterwards are not journaled and are overwritten by the next snapshot of the customer.
+ *
+ * <p>Reserving {@link PostingJournal#lock locks} the account before it checks the balance, so
+ * reservations from the same customer are serialized until their transactions end, on every node
+ * and in the batch path alike, and none of them is checked against balances another one is about to
+ * change.
+ */
+@Service
+@ConditionalOnProperty(name = "banksimulator.balances.mode", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalBalanceOperations implements BalanceOperations {
+
+    private final PostingJournal journal;
+    private final Set<Long> opened = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @Transactional
+    public boolean reserve(Customer source, BigDecimal amount) {
+        open(source);
+        journal.lock(source.getId());
+        if (journal.balances(source.getId()).getBalance().compareTo(amount) < 0) return false;
+
+        journal.post(
+                posting(source.getId(), PostingAccount.BALANCE, amount.negate()),
+                posting(source.getId(), PostingAccount.SUSPENSE, amount));
+        return true;
+    }
+
+    @Override
+    public void release(Customer source, BigDecimal amount) {
+        open(source);
+        journal.post(
+                posting(source.getId(), PostingAccount.SUSPENSE, amount.negate()),
+                posting(source.getId(), PostingAccount.BALANCE, amount));
+    }
+
+    @Override
+    public void transfer(
+            Customer source, Customer target, BigDecimal sourceAmount, BigDecimal targetAmount) {
+        open(source);
+        open(target);
+        journal.post(
+                posting(source.getId(), PostingAccount.SUSPENSE, sourceAmount.negate()),
+                posting(target.getId(), PostingAccount.BALANCE, targetAmount),
+                posting(null, PostingAccount.EXCHANGE, sourceAmount.subtract(targetAmount)));
+    }
+
+    @Override
+    public void credit(Customer target, BigDecimal amount) {
+        open(target);
+        journal.post(
+                posting(null, PostingAccount.NETWORK, amount.negate()),
+                posting(target.getId(), PostingAccount.BALANCE, amount));
+    }
+
+    @Override
+    public void settle(Customer source, BigDecimal amount) {
+        open(source);
+        journal.post(
+                posting(source.getId(), PostingAccount.SUSPENSE, amount.negate()),
+                posting(null, PostingAccount.NETWORK, amount));
+    }
+
+    @Override
+    public void beforeUpdate(Customer customer) {
+        forget(customer);
+    }
+
+    @Override
+    public void forget(Customer customer) {
+        opened.remove(customer.getId());
+    }
+
+    /**
+     * Opens the account of a customer unless it is known to be open, which it is once the
+     * transaction opening it committed; opening an account that is open already does nothing.
+     */
+    private void open(Customer customer) {
+        long id = customer.getId();
+        if (opened.contains(id)) return;
+
+        journal.open(id, customer.getBalance(), customer.getSuspenseBalance());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            opened.add(id);
+                        }
+                    });
+        } else {
+            opened.add(id);
+        }
+    }
+}
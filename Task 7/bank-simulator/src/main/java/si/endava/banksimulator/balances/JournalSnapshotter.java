@@ -0,0 +1,28 @@
+package si.endava.banksimulator.balances;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Takes the periodic {@link PostingJournal} snapshots and copies them to the customer rows. */
+@Component
+@ConditionalOnProperty(name = "banksimulator.balances.mode", havingValue = "journal")
+@RequiredArgsConstructor
+public class JournalSnapshotter {
+
+    private final PostingJournal journal;
+
+    Logger logger = LoggerFactory.getLogger(JournalSnapshotter.class);
+
+    @Scheduled(fixedDelayString = "${banksimulator.journal.snapshot-interval-ms}")
+    public void snapshot() {
+        try {
+            journal.snapshot();
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+        }
+    }
+}
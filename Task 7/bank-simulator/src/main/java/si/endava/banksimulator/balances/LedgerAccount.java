@@ -0,0 +1,48 @@
+package si.endava.banksimulator.balances;
+
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** Balance and suspense balance of one customer in cents, updated by compare-and-set. */
+public class LedgerAccount {
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Snapshot {
+        private final long balance;
+        private final long suspenseBalance;
+    }
+
+    private final AtomicReference<Snapshot> snapshot;
+
+    public LedgerAccount(long balance, long suspenseBalance) {
+        this.snapshot = new AtomicReference<>(new Snapshot(balance, suspenseBalance));
+    }
+
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    public boolean reserve(long amount) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current.balance < amount) return false;
+
+            Snapshot next =
+                    new Snapshot(current.balance - amount, current.suspenseBalance + amount);
+            if (snapshot.compareAndSet(current, next)) return true;
+        }
+    }
+
+    public void apply(long balanceDelta, long suspenseBalanceDelta) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Snapshot next =
+                    new Snapshot(
+                            current.balance + balanceDelta,
+                            current.suspenseBalance + suspenseBalanceDelta);
+            if (snapshot.compareAndSet(current, next)) return;
+        }
+    }
+}
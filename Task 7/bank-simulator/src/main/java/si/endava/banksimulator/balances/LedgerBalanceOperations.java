@@ -0,0 +1,108 @@
+package si.endava.banksimulator.balances;
+
+import static si.endava.banksimulator.balances.BalanceLedger.toCents;
+
+import java.math.BigDecimal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.entities.Customer;
+
+/**
+ * Applies balance changes to the {@link BalanceLedger} only; the customer rows are brought up to
+ * date by {@link LedgerWriteBehind}. The ledger is not part of the database transaction, so a
+ * change made in a transaction that rolls back is reverted once it did; a retried transaction
+ * applies it again.
+ */
+@Service
+@ConditionalOnProperty(name = "banksimulator.balances.mode", havingValue = "ledger")
+public class LedgerBalanceOperations implements BalanceOperations {
+
+    private final BalanceLedger ledger = new BalanceLedger();
+
+    public BalanceLedger ledger() {
+        return ledger;
+    }
+
+    @Override
+    public boolean reserve(Customer source, BigDecimal amount) {
+        long cents = toCents(amount);
+        boolean reserved = ledger.reserve(source, cents);
+        if (reserved) revertOnRollback(source, -cents, cents);
+        return reserved;
+    }
+
+    @Override
+    public void release(Customer source, BigDecimal amount) {
+        long cents = toCents(amount);
+        apply(source, cents, -cents);
+    }
+
+    @Override
+    public void transfer(
+            Customer source, Customer target, BigDecimal sourceAmount, BigDecimal targetAmount) {
+        apply(source, 0, -toCents(sourceAmount));
+        apply(target, toCents(targetAmount), 0);
+    }
+
+    @Override
+    public void credit(Customer target, BigDecimal amount) {
+        apply(target, toCents(amount), 0);
+    }
+
+    @Override
+    public void settle(Customer source, BigDecimal amount) {
+        apply(source, 0, -toCents(amount));
+    }
+
+    /**
+     * Holds the account until the transaction completed, so neither a transfer nor the write-behind
+     * changes it meanwhile. It is then seeded from the balances the row was changed to, or put back
+     * unchanged when the transaction rolled back.
+     */
+    @Override
+    public void beforeUpdate(Customer customer) {
+        long customerId = customer.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledger.evict(customerId);
+            return;
+        }
+        ledger.hold(customerId);
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_COMMITTED)
+                            ledger.reseed(
+                                    customerId,
+                                    customer.getBalance(),
+                                    customer.getSuspenseBalance());
+                        else ledger.restore(customerId);
+                    }
+                });
+    }
+
+    @Override
+    public void forget(Customer customer) {
+        ledger.evict(customer.getId());
+    }
+
+    private void apply(Customer customer, long balanceDelta, long suspenseBalanceDelta) {
+        ledger.apply(customer, balanceDelta, suspenseBalanceDelta);
+        revertOnRollback(customer, balanceDelta, suspenseBalanceDelta);
+    }
+
+    private void revertOnRollback(Customer customer, long balanceDelta, long suspenseBalanceDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        long customerId = customer.getId();
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK)
+                            ledger.revert(customerId, balanceDelta, suspenseBalanceDelta);
+                    }
+                });
+    }
+}
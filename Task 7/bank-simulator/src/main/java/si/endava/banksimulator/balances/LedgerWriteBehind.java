@@ -0,0 +1,71 @@
+package si.endava.banksimulator.balances;
+
+import static si.endava.banksimulator.balances.BalanceLedger.fromCents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Persists dirty ledger accounts to the {@code customer} table in JDBC batches. */
+@Component
+@ConditionalOnProperty(name = "banksimulator.balances.mode", havingValue = "ledger")
+public class LedgerWriteBehind {
+
+    private final BalanceLedger ledger;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    Logger logger = LoggerFactory.getLogger(LedgerWriteBehind.class);
+
+    public LedgerWriteBehind(
+            LedgerBalanceOperations ledgerBalanceOperations,
+            JdbcTemplate jdbcTemplate,
+            @Value("${banksimulator.ledger.batch-size}") int batchSize) {
+        this.ledger = ledgerBalanceOperations.ledger();
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${banksimulator.ledger.flush-interval-ms}")
+    public void flush() {
+        while (ledger.hasDirty()) {
+            if (!ledger.drainDirty(batchSize, this::write)) return;
+        }
+    }
+
+    private boolean write(Map<Long, LedgerAccount.Snapshot> drained) {
+        List<Object[]> rows = new ArrayList<>(drained.size());
+        drained.forEach(
+                (customerId, snapshot) ->
+                        rows.add(
+                                new Object[] {
+                                    fromCents(snapshot.getBalance()),
+                                    fromCents(snapshot.getSuspenseBalance()),
+                                    customerId
+                                }));
+        try {
+            jdbcTemplate.batchUpdate(
+                    "update customer set balance = ?, suspense_balance = ?, version ="
+                            + " version + 1 where customer_id = ?",
+                    rows);
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+            ledger.markDirty(drained.keySet());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
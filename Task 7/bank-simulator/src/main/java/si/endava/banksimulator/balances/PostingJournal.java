@@ -0,0 +1,240 @@
+package si.endava.banksimulator.balances;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.enums.PostingAccount;
+
+/**
+ * The append-only {@code posting} journal and its {@code balance_snapshot}s. Every entry is a set
+ * of postings, one per leg, whose amounts add up to zero. Every posting of a customer is covered by
+ * exactly one snapshot, whose id it is marked with in the transaction that takes the snapshot, and
+ * a customer's balances are its latest snapshot plus the postings not covered yet; the first
+ * snapshot opens the account with the balances of the customer row, so replaying every posting on
+ * top of it rebuilds the current balances. A snapshot also records when the last of the customer's
+ * postings it covers was made, which is what balances at an earlier point in time start from.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostingJournal {
+
+    /** Balances of the latest snapshot of a customer plus the postings not covered yet. */
+    private static final String BALANCES =
+            "select s.balance + coalesce(sum(case when p.account = 'BALANCE' then p.amount end),"
+                    + " 0), s.suspense_balance + coalesce(sum(case when p.account = 'SUSPENSE'"
+                    + " then p.amount end), 0) from balance_snapshot s left join posting p on"
+                    + " p.customer_id = s.customer_id and p.snapshot_id is null where"
+                    + " s.customer_id = ? and s.snapshot_id = (select max(snapshot_id) from"
+                    + " balance_snapshot where customer_id = ?) group by s.balance,"
+                    + " s.suspense_balance";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Posting {
+        /** {@code null} for the accounts of the bank itself. */
+        private final Long customerId;
+
+        private final PostingAccount account;
+        private final BigDecimal amount;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Balances {
+        private final BigDecimal balance;
+        private final BigDecimal suspenseBalance;
+    }
+
+    @AllArgsConstructor
+    private static final class Snapshot {
+        private final long snapshotId;
+        private final BigDecimal balance;
+        private final BigDecimal suspenseBalance;
+    }
+
+    public static Posting posting(Long customerId, PostingAccount account, BigDecimal amount) {
+        return new Posting(customerId, account, amount);
+    }
+
+    /** Opens the account of a customer with the given balances, unless it is open already. */
+    @Transactional
+    public void open(long customerId, BigDecimal balance, BigDecimal suspenseBalance) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.update(
+                    "insert into balance_snapshot (customer_id, snapshot_id, balance,"
+                            + " suspense_balance, taken_at, posted_until) select ?, 0, ?, ?, ?, ?"
+                            + " where not exists (select 1 from balance_snapshot where customer_id"
+                            + " = ?)",
+                    customerId,
+                    balance,
+                    suspenseBalance,
+                    now,
+                    now,
+                    customerId);
+        } catch (DuplicateKeyException e) {
+            // opened concurrently
+        }
+    }
+
+    /**
+     * Locks the account of a customer until the transaction ends. The lock is taken on the opening
+     * snapshot, the one snapshot of the customer no later snapshot replaces, so everyone locking
+     * the account waits for the same row whatever snapshots are taken meanwhile. Does nothing if
+     * the account is not open.
+     */
+    @Transactional
+    public void lock(long customerId) {
+        jdbcTemplate.queryForList(
+                "select snapshot_id from balance_snapshot where customer_id = ? and snapshot_id = 0"
+                        + " for update",
+                Long.class,
+                customerId);
+    }
+
+    /** Appends one entry; its postings must add up to zero. */
+    @Transactional
+    public void post(Posting... postings) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Posting posting : postings) total = total.add(posting.amount);
+        if (total.signum() != 0)
+            throw new IllegalArgumentException("Entry postings add up to " + total.toPlainString());
+
+        UUID entryId = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(postings.length);
+        for (Posting posting : postings) {
+            if (posting.amount.signum() == 0) continue;
+            rows.add(
+                    new Object[] {
+                        entryId, posting.customerId, posting.account.name(), posting.amount, now
+                    });
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into posting (entry_id, customer_id, account, amount, posted_at) values"
+                        + " (?, ?, ?, ?, ?)",
+                rows);
+    }
+
+    /** The current balances of a customer, or {@code null} if its account is not open. */
+    @Transactional
+    public Balances balances(long customerId) {
+        List<Balances> balances =
+                jdbcTemplate.query(
+                        BALANCES,
+                        (rs, rowNum) -> new Balances(rs.getBigDecimal(1), rs.getBigDecimal(2)),
+                        customerId,
+                        customerId);
+        return balances.isEmpty() ? null : balances.get(0);
+    }
+
+    /** {@link #balances} replayed from the opening snapshot, ignoring the later snapshots. */
+    @Transactional
+    public Balances rebuild(long customerId) {
+        List<Balances> balances =
+                jdbcTemplate.query(
+                        "select s.balance + coalesce(sum(case when p.account = 'BALANCE' then"
+                                + " p.amount end), 0), s.suspense_balance + coalesce(sum(case"
+                                + " when p.account = 'SUSPENSE' then p.amount end), 0) from"
+                                + " balance_snapshot s left join posting p on p.customer_id ="
+                                + " s.customer_id where s.customer_id = ? and s.snapshot_id = 0"
+                                + " group by s.balance, s.suspense_balance",
+                        (rs, rowNum) -> new Balances(rs.getBigDecimal(1), rs.getBigDecimal(2)),
+                        customerId);
+        return balances.isEmpty() ? null : balances.get(0);
+    }
+
+    /**
+     * The balances of a customer as of {@code asOf}: its latest snapshot covering no posting made
+     * after {@code asOf}, plus the customer's postings made by then that it does not cover, which
+     * are the ones not covered by it or an earlier snapshot. {@code null} if the account was opened
+     * after {@code asOf} or not at all.
+     */
+    @Transactional
+    public Balances balancesAsOf(long customerId, LocalDateTime asOf) {
+        List<Snapshot> snapshots =
+                jdbcTemplate.query(
+                        "select snapshot_id, balance, suspense_balance from balance_snapshot where"
+                                + " customer_id = ? and posted_until <= ? order by posted_until"
+                                + " desc, snapshot_id desc limit 1",
+                        (rs, rowNum) ->
+                                new Snapshot(
+                                        rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3)),
+                        customerId,
+                        Timestamp.valueOf(asOf));
+        if (snapshots.isEmpty()) return null;
+        Snapshot snapshot = snapshots.get(0);
+
+        return jdbcTemplate.queryForObject(
+                "select coalesce(sum(case when account = 'BALANCE' then amount end), 0),"
+                        + " coalesce(sum(case when account = 'SUSPENSE' then amount end), 0) from"
+                        + " posting where customer_id = ? and (snapshot_id > ? or snapshot_id is"
+                        + " null) and posted_at <= ?",
+                (rs, rowNum) ->
+                        new Balances(
+                                snapshot.balance.add(rs.getBigDecimal(1)),
+                                snapshot.suspenseBalance.add(rs.getBigDecimal(2))),
+                customerId,
+                snapshot.snapshotId,
+                Timestamp.valueOf(asOf));
+    }
+
+    /**
+     * Snapshots every customer with postings not covered by a snapshot yet and copies the snapshots
+     * to the customer rows. The postings are marked with the new snapshot before they are summed,
+     * in the same transaction, so a posting committed while a snapshot is taken is covered by the
+     * next one instead of being missed. Returns the number of customers snapshotted.
+     */
+    @Transactional
+    public int snapshot() {
+        long snapshotId =
+                jdbcTemplate.queryForObject(
+                        "select coalesce(max(snapshot_id), 0) + 1 from balance_snapshot",
+                        Long.class);
+        int covered =
+                jdbcTemplate.update(
+                        "update posting set snapshot_id = ? where snapshot_id is null and"
+                                + " customer_id is not null",
+                        snapshotId);
+        if (covered == 0) return 0;
+
+        int snapshots =
+                jdbcTemplate.update(
+                        "insert into balance_snapshot (customer_id, snapshot_id, balance,"
+                                + " suspense_balance, taken_at, posted_until) select"
+                                + " s.customer_id, ?, s.balance + d.balance, s.suspense_balance +"
+                                + " d.suspense_balance, ?, greatest(s.posted_until,"
+                                + " d.posted_until) from (select customer_id, coalesce(sum(case"
+                                + " when account = 'BALANCE' then amount end), 0) balance,"
+                                + " coalesce(sum(case when account = 'SUSPENSE' then amount end),"
+                                + " 0) suspense_balance, max(posted_at) posted_until from posting"
+                                + " where snapshot_id = ? group by customer_id) d join"
+                                + " balance_snapshot s on s.customer_id = d.customer_id and"
+                                + " s.snapshot_id = (select max(snapshot_id) from balance_snapshot"
+                                + " where customer_id = d.customer_id)",
+                        snapshotId,
+                        Timestamp.valueOf(LocalDateTime.now()),
+                        snapshotId);
+        jdbcTemplate.update(
+                "update customer c set (balance, suspense_balance) = (select s.balance,"
+                        + " s.suspense_balance from balance_snapshot s where s.customer_id ="
+                        + " c.customer_id and s.snapshot_id = ?), version = version + 1 where"
+                        + " c.customer_id in (select customer_id from balance_snapshot where"
+                        + " snapshot_id = ?)",
+                snapshotId,
+                snapshotId);
+        return snapshots;
+    }
+}
@@ -7,10 +7,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,6 +25,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import si.endava.banksimulator.dtos.CustomerBalanceDTO;
 import si.endava.banksimulator.dtos.CustomerDTO;
 import si.endava.banksimulator.entities.Customer;
 import si.endava.banksimulator.services.CustomerService;
@@ -89,6 +92,38 @@ public class CustomerController {
         return customerService.findByUuidDTO(uuid);
     }
 
+    @Operation(
+            summary =
+                    "Returns the balances of a customer as of a point in time, by default now;"
+                            + " only available in the journal balance mode")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Balances found",
+                        content = {
+                            @Content(
+                                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = CustomerBalanceDTO.class))
+                        }),
+                @ApiResponse(
+                        responseCode = "404",
+                        description = "Customer or its balance history not found",
+                        content = @Content),
+                @ApiResponse(
+                        responseCode = "501",
+                        description = "Balances are not kept in the journal balance mode",
+                        content = @Content)
+            })
+    @GetMapping("/{customerUuid}/balance")
+    public CustomerBalanceDTO getBalance(
+            @PathVariable("customerUuid") UUID uuid,
+            @RequestParam(name = "asOf", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime asOf) {
+        return customerService.getBalanceAsOf(uuid, asOf);
+    }
+
     @Operation(summary = "Add a new customer to the database")
     @ApiResponse(
             responseCode = "201",
@@ -0,0 +1,80 @@
+package si.endava.banksimulator.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import si.endava.banksimulator.dtos.BalanceReportDTO;
+import si.endava.banksimulator.dtos.TransactionVolumeDTO;
+import si.endava.banksimulator.enums.ReportBucket;
+import si.endava.banksimulator.enums.ReportDimension;
+import si.endava.banksimulator.enums.TransactionStatus;
+import si.endava.banksimulator.services.ReportService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "api/v1/reports")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @Operation(
+            summary =
+                    "Returns transaction count and amounts grouped by bank, customer, currency"
+                            + " and status, optionally per day, month or year and filtered by"
+                            + " status and date range")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Transaction volumes returned",
+            content = {
+                @Content(
+                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                        array =
+                                @ArraySchema(
+                                        schema =
+                                                @Schema(
+                                                        implementation =
+                                                                TransactionVolumeDTO.class)))
+            })
+    @GetMapping(path = "transactions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<TransactionVolumeDTO> getTransactionVolumes(
+            @RequestParam(name = "groupBy", required = false) List<ReportDimension> groupBy,
+            @RequestParam(name = "bucket", required = false) ReportBucket bucket,
+            @RequestParam(name = "from", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate from,
+            @RequestParam(name = "to", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                    LocalDate to,
+            @RequestParam(name = "transactionStatus", required = false)
+                    TransactionStatus transactionStatus) {
+        return reportService.getTransactionVolumes(groupBy, bucket, from, to, transactionStatus);
+    }
+
+    @Operation(summary = "Returns customer count and balances grouped by bank and currency")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Balances returned",
+            content = {
+                @Content(
+                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                        array =
+                                @ArraySchema(
+                                        schema = @Schema(implementation = BalanceReportDTO.class)))
+            })
+    @GetMapping(path = "balances", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<BalanceReportDTO> getBalances(
+            @RequestParam(name = "groupBy", required = false) List<ReportDimension> groupBy) {
+        return reportService.getBalances(groupBy);
+    }
+}
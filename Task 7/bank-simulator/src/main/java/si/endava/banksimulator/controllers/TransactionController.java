@@ -1,15 +1,28 @@
 package si.endava.banksimulator.controllers;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,11 +33,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import si.endava.banksimulator.dtos.BatchTransactionDTO;
+import si.endava.banksimulator.dtos.BatchTransactionResultDTO;
 import si.endava.banksimulator.dtos.NewTransactionDTO;
 import si.endava.banksimulator.dtos.TransactionDTO;
+import si.endava.banksimulator.dtos.TransactionPageDTO;
+import si.endava.banksimulator.dtos.TransactionSummaryDTO;
 import si.endava.banksimulator.entities.Transaction;
 import si.endava.banksimulator.enums.TransactionStatus;
+import si.endava.banksimulator.repositories.TransactionFilter;
+import si.endava.banksimulator.services.TransactionBatchService;
 import si.endava.banksimulator.services.TransactionService;
 
 @RestController
@@ -33,20 +54,49 @@ import si.endava.banksimulator.services.TransactionService;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionBatchService transactionBatchService;
+    private final ObjectMapper objectMapper;
 
-    @Operation(summary = "Returns a list of all transactions or query by status")
+    @Operation(
+            summary =
+                    "Returns a list of all transactions or query by status. Customer and contact"
+                            + " are reduced to uuid and email unless expand is true")
     @ApiResponse(
             responseCode = "200",
-            description = "Transaction entities returned",
+            description =
+                    "Transaction summaries returned, or full transactions when expand is true",
             content = {
                 @Content(
                         mediaType = MediaType.APPLICATION_JSON_VALUE,
                         array =
                                 @ArraySchema(
-                                        schema = @Schema(implementation = TransactionDTO.class)))
+                                        schema =
+                                                @Schema(
+                                                        type = "object",
+                                                        oneOf = {
+                                                            TransactionSummaryDTO.class,
+                                                            TransactionDTO.class
+                                                        })))
             })
+    @Parameter(
+            name = "expand",
+            in = ParameterIn.QUERY,
+            description = "Returns full transactions instead of summaries",
+            schema = @Schema(type = "boolean", defaultValue = "false"))
     @GetMapping
-    public List<TransactionDTO> getAllTransactions(
+    public List<TransactionSummaryDTO> getAllTransactions(
+            @RequestParam(name = "transactionStatus", required = false)
+                    TransactionStatus transactionStatus) {
+        return transactionService.getTransactionSummaries(transactionStatus);
+    }
+
+    /**
+     * {@link #getAllTransactions} with {@code expand=true}; left out of the API docs, where that
+     * operation documents both responses.
+     */
+    @Hidden
+    @GetMapping(params = "expand=true")
+    public List<TransactionDTO> getAllTransactionsExpanded(
             @RequestParam(name = "transactionStatus", required = false)
                     TransactionStatus transactionStatus) {
         return transactionStatus == null
@@ -54,6 +104,83 @@ public class TransactionController {
                 : transactionService.getTransactionByStatus(transactionStatus);
     }
 
+    @Operation(
+            summary =
+                    "Returns a page of transactions ordered by date, optionally filtered by"
+                            + " status, customer and date range. Pass nextCursor of a page as"
+                            + " cursor to get the following page")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Transaction page returned",
+            content = {
+                @Content(
+                        mediaType = MediaType.APPLICATION_JSON_VALUE,
+                        schema = @Schema(implementation = TransactionPageDTO.class))
+            })
+    @GetMapping(path = "page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public TransactionPageDTO getTransactionPage(
+            @RequestParam(name = "transactionStatus", required = false)
+                    TransactionStatus transactionStatus,
+            @RequestParam(name = "customerUuid", required = false) UUID customerUuid,
+            @RequestParam(name = "from", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime from,
+            @RequestParam(name = "to", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime to,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "100") int size) {
+        return transactionService.getTransactionPage(
+                filter(transactionStatus, customerUuid, from, to), cursor, size);
+    }
+
+    @Operation(
+            summary =
+                    "Streams all transactions ordered by date as newline delimited JSON,"
+                            + " optionally filtered by status, customer and date range")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Transactions streamed",
+            content = {
+                @Content(
+                        mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                        schema = @Schema(implementation = TransactionDTO.class))
+            })
+    @GetMapping(path = "stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTransactions(
+            @RequestParam(name = "transactionStatus", required = false)
+                    TransactionStatus transactionStatus,
+            @RequestParam(name = "customerUuid", required = false) UUID customerUuid,
+            @RequestParam(name = "from", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime from,
+            @RequestParam(name = "to", required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    LocalDateTime to) {
+        TransactionFilter filter = filter(transactionStatus, customerUuid, from, to);
+        ObjectWriter writer = objectMapper.writerFor(TransactionDTO.class);
+
+        StreamingResponseBody stream =
+                outputStream ->
+                        transactionService.streamTransactions(
+                                filter,
+                                transaction -> writeLine(writer, outputStream, transaction));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+
+    private static TransactionFilter filter(
+            TransactionStatus transactionStatus,
+            UUID customerUuid,
+            LocalDateTime from,
+            LocalDateTime to) {
+        return TransactionFilter.builder()
+                .transactionStatus(transactionStatus)
+                .customerUuid(customerUuid)
+                .from(from)
+                .to(to)
+                .build();
+    }
+
     @Operation(summary = "Returns an entity of transaction")
     @ApiResponses(
             value = {
@@ -110,6 +237,67 @@ public class TransactionController {
         return ResponseEntity.created(location).body(savedTransaction);
     }
 
+    @Operation(
+            summary =
+                    "Add many transactions at once, as a JSON array or newline delimited JSON."
+                            + " Returns one result per transaction as newline delimited JSON")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Transactions are processed",
+            content = {
+                @Content(
+                        mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                        schema = @Schema(implementation = BatchTransactionResultDTO.class))
+            })
+    @PostMapping(
+            path = "batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> addNewTransactions(InputStream body) {
+        MappingIterator<BatchTransactionDTO> transactions = readTransactions(body);
+        ObjectWriter writer = objectMapper.writerFor(BatchTransactionResultDTO.class);
+
+        StreamingResponseBody stream =
+                outputStream -> {
+                    try (transactions) {
+                        transactionBatchService.addNewTransactions(
+                                transactions,
+                                results -> writeResults(writer, outputStream, results));
+                    }
+                };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(stream);
+    }
+
+    /** Reads the transactions one by one while they are applied, never the whole body at once. */
+    private MappingIterator<BatchTransactionDTO> readTransactions(InputStream body) {
+        try {
+            return objectMapper.readerFor(BatchTransactionDTO.class).readValues(body);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid transactions", e);
+        }
+    }
+
+    private static void writeResults(
+            ObjectWriter writer,
+            OutputStream outputStream,
+            List<BatchTransactionResultDTO> results) {
+        for (BatchTransactionResultDTO result : results) writeLine(writer, outputStream, result);
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(ObjectWriter writer, OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(writer.writeValueAsBytes(value));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Operation(summary = "Update a transaction by its uuid")
     @ApiResponses(
             value = {
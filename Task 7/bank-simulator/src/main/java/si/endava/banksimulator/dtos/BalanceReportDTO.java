@@ -0,0 +1,23 @@
+package si.endava.banksimulator.dtos;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Totals of one group of a balance report; dimensions the report is not grouped by are null. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceReportDTO {
+    private UUID bankUuid;
+    private String currency;
+    private long customerCount;
+    private BigDecimal balance;
+    private BigDecimal suspenseBalance;
+}
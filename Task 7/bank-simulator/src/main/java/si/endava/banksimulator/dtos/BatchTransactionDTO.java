@@ -0,0 +1,20 @@
+package si.endava.banksimulator.dtos;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchTransactionDTO {
+    private UUID customerUuid;
+    private String email;
+    private BigDecimal sourceAmount;
+}
@@ -0,0 +1,24 @@
+package si.endava.banksimulator.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchTransactionResultDTO {
+    private int index;
+    private UUID customerUuid;
+    private UUID transactionUuid;
+    private TransactionStatus transactionStatus;
+    private String error;
+}
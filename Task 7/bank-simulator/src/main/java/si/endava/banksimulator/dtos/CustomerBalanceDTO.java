@@ -0,0 +1,23 @@
+package si.endava.banksimulator.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** The balances of a customer at a point in time. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerBalanceDTO {
+    private UUID customerUuid;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+    private BigDecimal suspenseBalance;
+}
@@ -0,0 +1,35 @@
+package si.endava.banksimulator.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/**
+ * A transaction with its customer and contact reduced to uuid and email, read as a JPQL constructor
+ * projection in one statement.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionSummaryDTO {
+    private UUID uuid;
+    private BigDecimal sourceAmount;
+    private String sourceCurrency;
+    private BigDecimal targetAmount;
+    private String targetCurrency;
+    private BigDecimal exchangeRate;
+    private TransactionStatus transactionStatus;
+    private LocalDateTime date;
+    private UUID customerUuid;
+    private String customerEmail;
+    private UUID contactUuid;
+    private String contactEmail;
+}
@@ -0,0 +1,28 @@
+package si.endava.banksimulator.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/** Totals of one group of a volume report; dimensions the report is not grouped by are null. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionVolumeDTO {
+    private UUID bankUuid;
+    private UUID customerUuid;
+    private String currency;
+    private TransactionStatus transactionStatus;
+    private LocalDate period;
+    private long transactionCount;
+    private BigDecimal sourceAmount;
+    private BigDecimal targetAmount;
+}
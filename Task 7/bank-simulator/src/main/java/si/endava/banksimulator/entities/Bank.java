@@ -1,7 +1,9 @@
 package si.endava.banksimulator.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.Set;
 import java.util.UUID;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -9,7 +11,6 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToMany;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -17,9 +18,15 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Entity
 @Table(name = "bank")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "bank")
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -27,10 +34,10 @@ import lombok.Setter;
 @Builder
 public class Bank {
     @Id
-    @SequenceGenerator(
+    @GenericGenerator(
             name = "BANK_ID_SEQUENCE",
-            sequenceName = "BANK_ID_SEQUENCE",
-            allocationSize = 1)
+            strategy = "si.endava.banksimulator.entities.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "BANK_ID_SEQUENCE"))
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "BANK_ID_SEQUENCE")
     @Column(name = "bank_id", nullable = false, updatable = false)
     @Setter(AccessLevel.PRIVATE)
@@ -54,6 +61,7 @@ public class Bank {
     @Column(name = "payment_network", nullable = false)
     private Boolean paymentNetwork;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "bank", cascade = CascadeType.REMOVE)
     private Set<Customer> customers;
 }
@@ -1,5 +1,6 @@
 package si.endava.banksimulator.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.Set;
 import java.util.UUID;
 import javax.persistence.CascadeType;
@@ -10,8 +11,10 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -19,9 +22,15 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Entity
 @Table(name = "contact_list")
+@NamedEntityGraph(
+        name = Contact.WITH_CUSTOMER,
+        attributeNodes = @NamedAttributeNode(value = "customer", subgraph = "customer"),
+        subgraphs = @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("bank")))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -29,11 +38,13 @@ import lombok.Setter;
 @Builder
 public class Contact {
 
+    public static final String WITH_CUSTOMER = "Contact.withCustomer";
+
     @Id
-    @SequenceGenerator(
+    @GenericGenerator(
             name = "CONTACT_LIST_ID_SEQUENCE",
-            sequenceName = "CONTACT_LIST_ID_SEQUENCE",
-            allocationSize = 1)
+            strategy = "si.endava.banksimulator.entities.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "CONTACT_LIST_ID_SEQUENCE"))
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "CONTACT_LIST_ID_SEQUENCE")
     @Column(name = "contact_id", nullable = false, updatable = false)
     @Setter(AccessLevel.PRIVATE)
@@ -52,6 +63,7 @@ public class Contact {
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "contact", cascade = CascadeType.REMOVE)
     private Set<Transaction> transaction;
 }
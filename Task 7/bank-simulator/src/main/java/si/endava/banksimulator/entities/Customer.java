@@ -1,5 +1,6 @@
 package si.endava.banksimulator.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.util.Set;
 import java.util.UUID;
@@ -11,18 +12,23 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
-import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 @Entity
 @Table(name = "customer")
+@NamedEntityGraph(name = Customer.WITH_BANK, attributeNodes = @NamedAttributeNode("bank"))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -30,16 +36,24 @@ import lombok.Setter;
 @Builder
 public class Customer {
 
+    public static final String WITH_BANK = "Customer.withBank";
+
     @Id
-    @SequenceGenerator(
+    @GenericGenerator(
             name = "CUSTOMER_ID_SEQUENCE",
-            sequenceName = "CUSTOMER_ID_SEQUENCE",
-            allocationSize = 1)
+            strategy = "si.endava.banksimulator.entities.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "CUSTOMER_ID_SEQUENCE"))
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "CUSTOMER_ID_SEQUENCE")
     @Column(name = "customer_id", nullable = false, updatable = false)
     @Setter(AccessLevel.PRIVATE)
     private long id;
 
+    /** Checked and incremented by every update, so concurrent balance changes cannot be lost. */
+    @Version
+    @Column(name = "version", nullable = false)
+    @Setter(AccessLevel.PRIVATE)
+    private long version;
+
     @Column(name = "customer_uuid", nullable = false, updatable = false, unique = true)
     private UUID uuid;
 
@@ -65,9 +79,11 @@ public class Customer {
     @JoinColumn(name = "bank_id", columnDefinition = "bank")
     private Bank bank;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "customer", cascade = CascadeType.REMOVE)
     private Set<Transaction> transactions;
 
+    @JsonIgnore
     @OneToMany(mappedBy = "customer", cascade = CascadeType.REMOVE)
     private Set<Contact> contact;
 }
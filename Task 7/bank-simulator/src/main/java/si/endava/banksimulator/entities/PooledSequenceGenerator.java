@@ -0,0 +1,33 @@
+package si.endava.banksimulator.entities;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator that reserves blocks of {@code banksimulator.ids.allocation-size} ids with the
+ * pooled-lo optimizer. Pooled-lo treats the sequence value as the first id of a block, so switching
+ * an existing sequence to a larger increment never hands out ids issued before.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE = "banksimulator.ids.allocation-size";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry)
+            throws MappingException {
+        int allocationSize =
+                ConfigurationHelper.getInt(
+                        ALLOCATION_SIZE,
+                        serviceRegistry.getService(ConfigurationService.class).getSettings(),
+                        50);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
@@ -12,18 +12,35 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
-import javax.persistence.SequenceGenerator;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import si.endava.banksimulator.enums.TransactionStatus;
 
 @Entity
 @Table(name = "transaction")
+@NamedEntityGraph(
+        name = Transaction.DETAILS,
+        attributeNodes = {
+            @NamedAttributeNode(value = "customer", subgraph = "customer"),
+            @NamedAttributeNode(value = "contact", subgraph = "contact")
+        },
+        subgraphs = {
+            @NamedSubgraph(name = "customer", attributeNodes = @NamedAttributeNode("bank")),
+            @NamedSubgraph(
+                    name = "contact",
+                    attributeNodes = @NamedAttributeNode(value = "customer", subgraph = "customer"))
+        })
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -31,16 +48,24 @@ import si.endava.banksimulator.enums.TransactionStatus;
 @Builder
 public class Transaction {
 
+    /** Everything a {@code TransactionDTO} reads: customer, contact and their customers' banks. */
+    public static final String DETAILS = "Transaction.details";
+
     @Id
-    @SequenceGenerator(
+    @GenericGenerator(
             name = "TRANSACTION_ID_SEQUENCE",
-            sequenceName = "TRANSACTION_ID_SEQUENCE",
-            allocationSize = 1)
+            strategy = "si.endava.banksimulator.entities.PooledSequenceGenerator",
+            parameters = @Parameter(name = "sequence_name", value = "TRANSACTION_ID_SEQUENCE"))
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "TRANSACTION_ID_SEQUENCE")
     @Column(name = "transaction_id", nullable = false, updatable = false)
     @Setter(AccessLevel.PRIVATE)
     private long id;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @Setter(AccessLevel.PRIVATE)
+    private long version;
+
     @Column(name = "transaction_uuid", nullable = false, updatable = false, unique = true)
     private UUID uuid;
 
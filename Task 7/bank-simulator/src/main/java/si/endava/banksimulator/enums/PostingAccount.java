@@ -0,0 +1,8 @@
+package si.endava.banksimulator.enums;
+
+public enum PostingAccount {
+    BALANCE,
+    SUSPENSE,
+    NETWORK,
+    EXCHANGE
+}
@@ -0,0 +1,7 @@
+package si.endava.banksimulator.enums;
+
+public enum ReportBucket {
+    DAY,
+    MONTH,
+    YEAR
+}
@@ -0,0 +1,8 @@
+package si.endava.banksimulator.enums;
+
+public enum ReportDimension {
+    BANK,
+    CUSTOMER,
+    CURRENCY,
+    STATUS
+}
@@ -0,0 +1,6 @@
+package si.endava.banksimulator.enums;
+
+public enum SyncEntityType {
+    BANK,
+    CUSTOMER
+}
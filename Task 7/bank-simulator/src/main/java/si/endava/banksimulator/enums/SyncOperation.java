@@ -0,0 +1,16 @@
+package si.endava.banksimulator.enums;
+
+public enum SyncOperation {
+    REGISTER,
+    UPDATE,
+    UNREGISTER;
+
+    /**
+     * The single operation that has the effect of this one followed by {@code next}; {@code null}
+     * when they cancel out, as a registration followed by an unregistration.
+     */
+    public SyncOperation then(SyncOperation next) {
+        if (this == REGISTER && next == UNREGISTER) return null;
+        return this == REGISTER && next == UPDATE ? REGISTER : next;
+    }
+}
@@ -3,5 +3,7 @@ package si.endava.banksimulator.enums;
 public enum TransactionStatus {
     COMPLETED,
     PENDING,
+    /** The target is credited, the source is settled once the transaction is finalized. */
+    CREDITED,
     DECLINED
 }
@@ -0,0 +1,25 @@
+package si.endava.banksimulator.feignClient;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
+
+/**
+ * Non-blocking variant of the bulk and directory calls of {@link
+ * PaymentNetworkFeignClientInterface}. Calls return immediately and their futures complete once the
+ * payment network answered.
+ */
+public interface PaymentNetworkAsyncClient {
+
+    CompletableFuture<List<PaymentNetworkSyncResultDTO>> syncBanks(
+            List<PaymentNetworkBankOperationDTO> operations);
+
+    CompletableFuture<List<PaymentNetworkCustomerDTO>> getCustomersAfter(UUID after, int limit);
+
+    CompletableFuture<List<PaymentNetworkSyncResultDTO>> syncCustomers(
+            List<PaymentNetworkCustomerOperationDTO> operations);
+}
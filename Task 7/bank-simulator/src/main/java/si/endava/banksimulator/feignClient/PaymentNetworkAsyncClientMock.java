@@ -0,0 +1,42 @@
+package si.endava.banksimulator.feignClient;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
+
+/** Completes every call with the answer of the blocking {@link PaymentNetworkFeignClientMock}. */
+@Profile("withoutEureka")
+@Service
+@RequiredArgsConstructor
+public class PaymentNetworkAsyncClientMock implements PaymentNetworkAsyncClient {
+
+    private final PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface;
+
+    @Override
+    public CompletableFuture<List<PaymentNetworkSyncResultDTO>> syncBanks(
+            List<PaymentNetworkBankOperationDTO> operations) {
+        return CompletableFuture.completedFuture(
+                paymentNetworkFeignClientInterface.syncBanks(operations));
+    }
+
+    @Override
+    public CompletableFuture<List<PaymentNetworkCustomerDTO>> getCustomersAfter(
+            UUID after, int limit) {
+        return CompletableFuture.completedFuture(
+                paymentNetworkFeignClientInterface.getCustomersAfter(after, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<PaymentNetworkSyncResultDTO>> syncCustomers(
+            List<PaymentNetworkCustomerOperationDTO> operations) {
+        return CompletableFuture.completedFuture(
+                paymentNetworkFeignClientInterface.syncCustomers(operations));
+    }
+}
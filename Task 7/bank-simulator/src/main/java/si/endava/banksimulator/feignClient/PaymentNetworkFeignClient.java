@@ -13,9 +13,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerValidationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkPaymentDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentRequestDTO;
 
 @FeignClient("payment-network")
@@ -32,10 +35,18 @@ public interface PaymentNetworkFeignClient extends PaymentNetworkFeignClientInte
     PaymentNetworkBankDTO updateBank(
             @PathVariable("bankUuid") UUID uuid, @RequestBody PaymentNetworkBankDTO newBankEntity);
 
+    @PostMapping("api/v1/banks/bulk")
+    List<PaymentNetworkSyncResultDTO> syncBanks(
+            @RequestBody List<PaymentNetworkBankOperationDTO> operations);
+
     @GetMapping("api/v1/customers")
     List<PaymentNetworkCustomerDTO> getAllCustomers(
             @RequestParam(name = "customerEmail", required = false) String email);
 
+    @GetMapping("api/v1/customers/directory")
+    List<PaymentNetworkCustomerDTO> getCustomersAfter(
+            @RequestParam(name = "after") UUID after, @RequestParam(name = "limit") int limit);
+
     @PostMapping("api/v1/customers")
     ResponseEntity<PaymentNetworkCustomerDTO> registerNewCustomer(
             @RequestBody PaymentNetworkCustomerDTO customer);
@@ -48,6 +59,10 @@ public interface PaymentNetworkFeignClient extends PaymentNetworkFeignClientInte
             @PathVariable("customerUuid") UUID uuid,
             @RequestBody PaymentNetworkCustomerDTO newCustomerEntity);
 
+    @PostMapping("api/v1/customers/bulk")
+    List<PaymentNetworkSyncResultDTO> syncCustomers(
+            @RequestBody List<PaymentNetworkCustomerOperationDTO> operations);
+
     @PostMapping("api/v1/payments/customer/{customerUuid}/payment")
     ResponseEntity<PaymentNetworkPaymentDTO> addNewPayment(
             @PathVariable("customerUuid") UUID customerUuid,
@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.UUID;
 import org.springframework.http.ResponseEntity;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerValidationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkPaymentDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentRequestDTO;
 
 public interface PaymentNetworkFeignClientInterface {
@@ -17,8 +20,17 @@ public interface PaymentNetworkFeignClientInterface {
 
     PaymentNetworkBankDTO updateBank(UUID uuid, PaymentNetworkBankDTO newBankEntity);
 
+    /** Applies the operations in one call, answering with one result per operation. */
+    List<PaymentNetworkSyncResultDTO> syncBanks(List<PaymentNetworkBankOperationDTO> operations);
+
     List<PaymentNetworkCustomerDTO> getAllCustomers(String email);
 
+    /**
+     * Up to {@code limit} registered customers with a uuid above {@code after}, ordered by uuid as
+     * unsigned 128-bit numbers, which is also the order of their string form.
+     */
+    List<PaymentNetworkCustomerDTO> getCustomersAfter(UUID after, int limit);
+
     ResponseEntity<PaymentNetworkCustomerDTO> registerNewCustomer(
             PaymentNetworkCustomerDTO customer);
 
@@ -27,6 +39,10 @@ public interface PaymentNetworkFeignClientInterface {
     PaymentNetworkCustomerDTO updateCustomer(
             UUID uuid, PaymentNetworkCustomerDTO newCustomerEntity);
 
+    /** Applies the operations in one call, answering with one result per operation. */
+    List<PaymentNetworkSyncResultDTO> syncCustomers(
+            List<PaymentNetworkCustomerOperationDTO> operations);
+
     ResponseEntity<PaymentNetworkPaymentDTO> addNewPayment(
             UUID customerUuid, PaymentRequestDTO paymentRequestDTO);
 
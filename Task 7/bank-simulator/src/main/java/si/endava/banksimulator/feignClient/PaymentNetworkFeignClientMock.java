@@ -6,12 +6,16 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerValidationDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentNetworkPaymentDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
 import si.endava.banksimulator.feignClient.samples.PaymentRequestDTO;
 import si.endava.banksimulator.mappers.BankMapper;
 import si.endava.banksimulator.mappers.CustomerMapper;
@@ -46,6 +50,28 @@ public class PaymentNetworkFeignClientMock implements PaymentNetworkFeignClientI
         return updatedBank;
     }
 
+    @Override
+    public List<PaymentNetworkSyncResultDTO> syncBanks(
+            List<PaymentNetworkBankOperationDTO> operations) {
+        return operations.stream()
+                .map(
+                        operation -> {
+                            switch (operation.getOperation()) {
+                                case REGISTER:
+                                    registerNewBank(operation.getBank());
+                                    break;
+                                case UPDATE:
+                                    updateBank(operation.getUuid(), operation.getBank());
+                                    break;
+                                case UNREGISTER:
+                                    unregisterBank(operation.getUuid());
+                                    break;
+                            }
+                            return new PaymentNetworkSyncResultDTO(operation.getUuid(), true, null);
+                        })
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<PaymentNetworkCustomerDTO> getAllCustomers(String email) {
         return customerRepository.findAll().stream()
@@ -53,6 +79,16 @@ public class PaymentNetworkFeignClientMock implements PaymentNetworkFeignClientI
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<PaymentNetworkCustomerDTO> getCustomersAfter(UUID after, int limit) {
+        return customerRepository
+                .findByPaymentNetworkTrueAndUuidGreaterThanOrderByUuid(
+                        after, PageRequest.of(0, limit))
+                .stream()
+                .map(customerMapper::customerToPaymentNetworkCustomerDTO)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public ResponseEntity<PaymentNetworkCustomerDTO> registerNewCustomer(
             PaymentNetworkCustomerDTO customer) {
@@ -70,6 +106,28 @@ public class PaymentNetworkFeignClientMock implements PaymentNetworkFeignClientI
         return newCustomerEntity;
     }
 
+    @Override
+    public List<PaymentNetworkSyncResultDTO> syncCustomers(
+            List<PaymentNetworkCustomerOperationDTO> operations) {
+        return operations.stream()
+                .map(
+                        operation -> {
+                            switch (operation.getOperation()) {
+                                case REGISTER:
+                                    registerNewCustomer(operation.getCustomer());
+                                    break;
+                                case UPDATE:
+                                    updateCustomer(operation.getUuid(), operation.getCustomer());
+                                    break;
+                                case UNREGISTER:
+                                    unregisterCustomer(operation.getUuid());
+                                    break;
+                            }
+                            return new PaymentNetworkSyncResultDTO(operation.getUuid(), true, null);
+                        })
+                .collect(Collectors.toList());
+    }
+
     @Override
     public ResponseEntity<PaymentNetworkPaymentDTO> addNewPayment(
             UUID customerUuid, PaymentRequestDTO paymentRequestDTO) {
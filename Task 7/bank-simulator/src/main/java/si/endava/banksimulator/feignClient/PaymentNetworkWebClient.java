@@ -0,0 +1,70 @@
+package si.endava.banksimulator.feignClient;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
+
+/** {@link PaymentNetworkAsyncClient} over {@link WebClient}. */
+@Service
+@Profile("withEureka")
+public class PaymentNetworkWebClient implements PaymentNetworkAsyncClient {
+
+    private final WebClient webClient;
+
+    public PaymentNetworkWebClient(
+            WebClient.Builder paymentNetworkWebClientBuilder,
+            @Value("${banksimulator.payment-network.base-url}") String baseUrl) {
+        this.webClient = paymentNetworkWebClientBuilder.baseUrl(baseUrl).build();
+    }
+
+    @Override
+    public CompletableFuture<List<PaymentNetworkSyncResultDTO>> syncBanks(
+            List<PaymentNetworkBankOperationDTO> operations) {
+        return webClient
+                .post()
+                .uri("/api/v1/banks/bulk")
+                .bodyValue(operations)
+                .retrieve()
+                .bodyToFlux(PaymentNetworkSyncResultDTO.class)
+                .collectList()
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<PaymentNetworkCustomerDTO>> getCustomersAfter(
+            UUID after, int limit) {
+        return webClient
+                .get()
+                .uri(
+                        builder ->
+                                builder.path("/api/v1/customers/directory")
+                                        .queryParam("after", after)
+                                        .queryParam("limit", limit)
+                                        .build())
+                .retrieve()
+                .bodyToFlux(PaymentNetworkCustomerDTO.class)
+                .collectList()
+                .toFuture();
+    }
+
+    @Override
+    public CompletableFuture<List<PaymentNetworkSyncResultDTO>> syncCustomers(
+            List<PaymentNetworkCustomerOperationDTO> operations) {
+        return webClient
+                .post()
+                .uri("/api/v1/customers/bulk")
+                .bodyValue(operations)
+                .retrieve()
+                .bodyToFlux(PaymentNetworkSyncResultDTO.class)
+                .collectList()
+                .toFuture();
+    }
+}
@@ -0,0 +1,54 @@
+package si.endava.banksimulator.feignClient;
+
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Pooled reactor-netty connections to the payment network. The builder is load balanced, so {@code
+ * banksimulator.payment-network.base-url} names the service as registered in Eureka.
+ */
+@Configuration
+@Profile("withEureka")
+public class PaymentNetworkWebClientConfig {
+
+    @Value("${banksimulator.payment-network.max-connections}")
+    private int maxConnections;
+
+    @Value("${banksimulator.payment-network.pending-acquire-timeout-ms}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${banksimulator.payment-network.connect-timeout-ms}")
+    private int connectTimeoutMs;
+
+    @Value("${banksimulator.payment-network.response-timeout-ms}")
+    private long responseTimeoutMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider paymentNetworkConnectionProvider() {
+        return ConnectionProvider.builder("payment-network")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder paymentNetworkWebClientBuilder(
+            ConnectionProvider paymentNetworkConnectionProvider) {
+        HttpClient httpClient =
+                HttpClient.create(paymentNetworkConnectionProvider)
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                        .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+}
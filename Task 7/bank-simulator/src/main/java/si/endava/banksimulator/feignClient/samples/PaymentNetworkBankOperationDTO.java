@@ -0,0 +1,20 @@
+package si.endava.banksimulator.feignClient.samples;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import si.endava.banksimulator.enums.SyncOperation;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentNetworkBankOperationDTO {
+    private SyncOperation operation;
+    private UUID uuid;
+    private PaymentNetworkBankDTO bank;
+}
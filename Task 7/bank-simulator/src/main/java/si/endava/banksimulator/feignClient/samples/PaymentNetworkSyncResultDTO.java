@@ -0,0 +1,19 @@
+package si.endava.banksimulator.feignClient.samples;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentNetworkSyncResultDTO {
+    private UUID uuid;
+    private Boolean accepted;
+    private String message;
+}
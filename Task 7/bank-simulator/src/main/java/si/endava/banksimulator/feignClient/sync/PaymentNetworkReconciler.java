@@ -0,0 +1,284 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.enums.SyncOperation;
+import si.endava.banksimulator.feignClient.PaymentNetworkAsyncClient;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.mappers.CustomerMapper;
+import si.endava.banksimulator.repositories.CustomerRepository;
+import si.endava.banksimulator.services.PaymentNetworkSync;
+
+/**
+ * Compares the local customers with the payment network directory and queues the operations that
+ * make the network match {@link Customer#getPaymentNetwork()}. Both sides are read in pages of
+ * {@code banksimulator.payment-network.reconciliation.page-size} ordered by uuid and merge-joined,
+ * so memory stays bounded by one page of each regardless of the number of customers. Customers with
+ * a change already waiting in the {@link PaymentNetworkSyncQueue} are left to that change.
+ *
+ * <p>The scheduled runs do not start from the first uuid every time. Each compares at most {@code
+ * banksimulator.payment-network.reconciliation.pages-per-run} pages after the uuid the previous run
+ * stopped at, and starts over once both sides are exhausted, so every customer is still compared
+ * once per pass while a run takes bounded time.
+ */
+@Component
+public class PaymentNetworkReconciler {
+
+    /**
+     * Uuids as unsigned 128-bit numbers: the order of H2 uuid columns and of the uuid strings. It
+     * differs from {@link UUID#compareTo}, which compares the halves as signed longs.
+     */
+    static final Comparator<UUID> UUID_ORDER =
+            Comparator.comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+                    .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final CustomerRepository customerRepository;
+    private final CustomerMapper customerMapper;
+    private final PaymentNetworkAsyncClient paymentNetworkAsyncClient;
+    private final PaymentNetworkSyncQueue queue;
+    private final PaymentNetworkSync paymentNetworkSync;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+    private final int pagesPerRun;
+    private UUID watermark = FIRST;
+
+    Logger logger = LoggerFactory.getLogger(PaymentNetworkReconciler.class);
+
+    public PaymentNetworkReconciler(
+            CustomerRepository customerRepository,
+            CustomerMapper customerMapper,
+            PaymentNetworkAsyncClient paymentNetworkAsyncClient,
+            PaymentNetworkSyncQueue queue,
+            PaymentNetworkSync paymentNetworkSync,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.payment-network.reconciliation.page-size}") int pageSize,
+            @Value("${banksimulator.payment-network.reconciliation.pages-per-run}")
+                    int pagesPerRun) {
+        this.customerRepository = customerRepository;
+        this.customerMapper = customerMapper;
+        this.paymentNetworkAsyncClient = paymentNetworkAsyncClient;
+        this.queue = queue;
+        this.paymentNetworkSync = paymentNetworkSync;
+        this.meterRegistry = meterRegistry;
+        this.pageSize = pageSize;
+        this.pagesPerRun = pagesPerRun;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${banksimulator.payment-network.reconciliation.interval-ms}",
+            initialDelayString = "${banksimulator.payment-network.reconciliation.interval-ms}")
+    public void scheduledReconcile() {
+        try {
+            reconcileNext();
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+        }
+    }
+
+    /** Compares every customer. */
+    public Reconciliation reconcile() {
+        return reconcile(FIRST, Long.MAX_VALUE).result();
+    }
+
+    /**
+     * Compares the next {@code pagesPerRun} pages of uuids after the watermark and moves the
+     * watermark to the last uuid compared, or back to the first uuid once both sides are exhausted.
+     */
+    public Reconciliation reconcileNext() {
+        long limit = (long) pagesPerRun * pageSize;
+        Repairs repairs = reconcile(watermark, limit);
+        watermark = repairs.compared < limit ? FIRST : repairs.last;
+        return repairs.result();
+    }
+
+    private Repairs reconcile(UUID after, long limit) {
+        Cursor<Customer> local =
+                new Cursor<>(
+                        last ->
+                                customerRepository.findByUuidGreaterThanOrderByUuid(
+                                        last, PageRequest.of(0, pageSize)),
+                        Customer::getUuid,
+                        after);
+        Cursor<PaymentNetworkCustomerDTO> network =
+                new Cursor<>(this::directoryPage, PaymentNetworkCustomerDTO::getUuid, after);
+        Repairs repairs = new Repairs();
+
+        while (repairs.compared < limit && (local.hasNext() || network.hasNext())) {
+            int order =
+                    !local.hasNext()
+                            ? 1
+                            : !network.hasNext()
+                                    ? -1
+                                    : UUID_ORDER.compare(local.peekUuid(), network.peekUuid());
+            repairs.last = order > 0 ? network.peekUuid() : local.peekUuid();
+            if (order < 0) {
+                Customer customer = local.next();
+                if (customer.getPaymentNetwork())
+                    repairs.add(SyncOperation.REGISTER, toNetwork(customer));
+            } else if (order > 0) {
+                repairs.add(SyncOperation.UNREGISTER, network.next());
+            } else {
+                Customer customer = local.next();
+                PaymentNetworkCustomerDTO registered = network.next();
+                if (!customer.getPaymentNetwork()) {
+                    repairs.add(SyncOperation.UNREGISTER, registered);
+                } else {
+                    PaymentNetworkCustomerDTO expected = toNetwork(customer);
+                    if (!Objects.equals(expected.getEmail(), registered.getEmail())
+                            || !Objects.equals(expected.getBankBIC(), registered.getBankBIC()))
+                        repairs.add(SyncOperation.UPDATE, expected);
+                }
+            }
+            repairs.compared++;
+            if (repairs.buffered() >= pageSize) repairs.flush();
+        }
+        repairs.flush();
+        return repairs;
+    }
+
+    private List<PaymentNetworkCustomerDTO> directoryPage(UUID after) {
+        try {
+            return paymentNetworkAsyncClient.getCustomersAfter(after, pageSize).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException(
+                    "Payment network directory after " + after + " unavailable", e.getCause());
+        }
+    }
+
+    private PaymentNetworkCustomerDTO toNetwork(Customer customer) {
+        return customerMapper.customerToPaymentNetworkCustomerDTO(customer);
+    }
+
+    /** Walks one side page by page, fetching the page after the last uuid once it is consumed. */
+    private class Cursor<T> {
+
+        private final Function<UUID, List<T>> pageAfter;
+        private final Function<T, UUID> uuid;
+        private List<T> page = Collections.emptyList();
+        private int position;
+        private UUID last;
+        private boolean exhausted;
+
+        Cursor(Function<UUID, List<T>> pageAfter, Function<T, UUID> uuid, UUID after) {
+            this.pageAfter = pageAfter;
+            this.uuid = uuid;
+            this.last = after;
+        }
+
+        boolean hasNext() {
+            if (position < page.size()) return true;
+            if (exhausted) return false;
+            page = pageAfter.apply(last);
+            position = 0;
+            exhausted = page.size() < pageSize;
+            if (!page.isEmpty()) last = uuid.apply(page.get(page.size() - 1));
+            return !page.isEmpty();
+        }
+
+        UUID peekUuid() {
+            return uuid.apply(page.get(position));
+        }
+
+        T next() {
+            return page.get(position++);
+        }
+    }
+
+    /** Differences waiting to be queued, in batches of at most one page. */
+    private class Repairs {
+
+        private final List<SyncOperation> operations = new ArrayList<>();
+        private final List<PaymentNetworkCustomerDTO> customers = new ArrayList<>();
+        private long compared;
+        private UUID last;
+        private long registered;
+        private long updated;
+        private long unregistered;
+        private long skipped;
+
+        void add(SyncOperation operation, PaymentNetworkCustomerDTO customer) {
+            operations.add(operation);
+            customers.add(customer);
+        }
+
+        int buffered() {
+            return operations.size();
+        }
+
+        void flush() {
+            Set<UUID> pending =
+                    queue.pending(
+                            customers.stream()
+                                    .map(PaymentNetworkCustomerDTO::getUuid)
+                                    .collect(Collectors.toList()));
+            for (int i = 0; i < operations.size(); i++) {
+                PaymentNetworkCustomerDTO customer = customers.get(i);
+                if (pending.contains(customer.getUuid())) {
+                    skipped++;
+                    continue;
+                }
+                switch (operations.get(i)) {
+                    case REGISTER:
+                        paymentNetworkSync.registerCustomer(customer);
+                        registered++;
+                        break;
+                    case UPDATE:
+                        paymentNetworkSync.updateCustomer(customer);
+                        updated++;
+                        break;
+                    case UNREGISTER:
+                        paymentNetworkSync.unregisterCustomer(customer);
+                        unregistered++;
+                        break;
+                }
+                meterRegistry
+                        .counter(
+                                "banksimulator.payment-network.reconciliation.repairs",
+                                "operation",
+                                operations.get(i).name())
+                        .increment();
+            }
+            operations.clear();
+            customers.clear();
+        }
+
+        Reconciliation result() {
+            return new Reconciliation(compared, registered, updated, unregistered, skipped);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Reconciliation {
+
+        /** Distinct uuids seen on either side. */
+        private final long compared;
+
+        private final long registered;
+        private final long updated;
+        private final long unregistered;
+
+        /** Differences left alone because a change of the customer was already queued. */
+        private final long skipped;
+    }
+}
@@ -0,0 +1,202 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.enums.SyncEntityType;
+import si.endava.banksimulator.enums.SyncOperation;
+
+/**
+ * The {@code payment_network_sync} table, holding at most one pending operation per entity. A new
+ * change is merged into the pending one with {@link SyncOperation#then}, so an entity changed many
+ * times before {@link PaymentNetworkSyncRelay} ran is sent once, with its latest state. Every merge
+ * bumps the row version; a relay answer only applies to the version that was sent.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentNetworkSyncQueue {
+
+    private static final LocalDateTime PARKED = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the change in the current transaction. The pending row is locked while the change is
+     * merged into it; a first change of the entity racing another one for the insert is merged into
+     * the one that won. A registration that never reached the network and is followed by an
+     * unregistration leaves nothing to send; after a failed attempt, which the network may have
+     * seen, the unregistration is sent.
+     */
+    public void enqueue(
+            UUID uuid, SyncEntityType entityType, SyncOperation operation, String payload) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map<String, Object>> pending =
+                jdbcTemplate.queryForList(
+                        "select operation, attempts from payment_network_sync where entity_uuid ="
+                                + " ? for update",
+                        uuid);
+        if (pending.isEmpty()) {
+            try {
+                jdbcTemplate.update(
+                        "insert into payment_network_sync (entity_uuid, entity_type, operation,"
+                                + " payload, version, attempts, next_attempt_at, created_at)"
+                                + " values (?, ?, ?, ?, 1, 0, ?, ?)",
+                        uuid,
+                        entityType.name(),
+                        operation.name(),
+                        payload,
+                        now,
+                        now);
+            } catch (DuplicateKeyException e) {
+                // enqueued concurrently, there was no row to lock yet; merge into that change
+                enqueue(uuid, entityType, operation, payload);
+            }
+        } else {
+            SyncOperation merged =
+                    SyncOperation.valueOf((String) pending.get(0).get("operation")).then(operation);
+            if (merged == null && ((Number) pending.get(0).get("attempts")).intValue() == 0) {
+                jdbcTemplate.update("delete from payment_network_sync where entity_uuid = ?", uuid);
+                return;
+            }
+            jdbcTemplate.update(
+                    "update payment_network_sync set operation = ?, payload = ?, version ="
+                            + " version + 1, attempts = 0, next_attempt_at = ? where entity_uuid"
+                            + " = ?",
+                    (merged == null ? operation : merged).name(),
+                    payload,
+                    now,
+                    uuid);
+        }
+    }
+
+    /** Up to {@code limit} operations whose next attempt is due, longest waiting first. */
+    public List<SyncRecord> due(int limit) {
+        return jdbcTemplate.query(
+                "select entity_uuid, entity_type, operation, payload, version, attempts from"
+                        + " payment_network_sync where next_attempt_at <= ? order by"
+                        + " next_attempt_at limit ?",
+                (rs, rowNum) ->
+                        new SyncRecord(
+                                rs.getObject("entity_uuid", UUID.class),
+                                SyncEntityType.valueOf(rs.getString("entity_type")),
+                                SyncOperation.valueOf(rs.getString("operation")),
+                                rs.getString("payload"),
+                                rs.getLong("version"),
+                                rs.getInt("attempts")),
+                Timestamp.valueOf(LocalDateTime.now()),
+                limit);
+    }
+
+    /**
+     * Removes the answered operations, unless the entity changed meanwhile, and returns those that
+     * were not removed.
+     */
+    public List<SyncRecord> remove(List<SyncRecord> records) {
+        if (records.isEmpty()) return Collections.emptyList();
+
+        int[] removed =
+                jdbcTemplate.batchUpdate(
+                        "delete from payment_network_sync where entity_uuid = ? and version = ?",
+                        rows(
+                                records,
+                                record -> new Object[] {record.getUuid(), record.getVersion()}));
+        List<SyncRecord> kept = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (removed[i] == 0) kept.add(records.get(i));
+        }
+        return kept;
+    }
+
+    /**
+     * Turns registrations queued while these entities were being registered into updates, as the
+     * network knows the entities now.
+     */
+    public void registered(List<SyncRecord> records) {
+        if (records.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(
+                "update payment_network_sync set operation = 'UPDATE' where entity_uuid = ? and"
+                        + " operation = 'REGISTER'",
+                rows(records, record -> new Object[] {record.getUuid()}));
+    }
+
+    /** Postpones the operations to their next attempt, unless the entity changed meanwhile. */
+    public void postpone(
+            List<SyncRecord> records, Function<SyncRecord, LocalDateTime> nextAttempt) {
+        if (records.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(
+                "update payment_network_sync set attempts = attempts + 1, next_attempt_at = ?"
+                        + " where entity_uuid = ? and version = ?",
+                rows(
+                        records,
+                        record ->
+                                new Object[] {
+                                    Timestamp.valueOf(nextAttempt.apply(record)),
+                                    record.getUuid(),
+                                    record.getVersion()
+                                }));
+    }
+
+    /**
+     * Parks the operations until the entity changes again, unless it changed meanwhile. They stay
+     * in the backlog, so the sync lag keeps growing while they are parked.
+     */
+    public void park(List<SyncRecord> records) {
+        postpone(records, record -> PARKED);
+    }
+
+    /** Those of the given entities that have an operation pending. */
+    public Set<UUID> pending(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) return Collections.emptySet();
+
+        return new HashSet<>(
+                new NamedParameterJdbcTemplate(jdbcTemplate)
+                        .queryForList(
+                                "select entity_uuid from payment_network_sync where entity_uuid"
+                                        + " in (:uuids)",
+                                Collections.singletonMap("uuids", uuids),
+                                UUID.class));
+    }
+
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(
+                "select count(*), min(created_at) from payment_network_sync",
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp(2);
+                    return new Backlog(
+                            rs.getLong(1), oldest == null ? null : oldest.toLocalDateTime());
+                });
+    }
+
+    private static List<Object[]> rows(
+            List<SyncRecord> records, Function<SyncRecord, Object[]> row) {
+        return records.stream().map(row).collect(Collectors.toList());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Backlog {
+
+        private final long pending;
+
+        /** When the oldest pending change was made, {@code null} when nothing is pending. */
+        private final LocalDateTime oldest;
+    }
+}
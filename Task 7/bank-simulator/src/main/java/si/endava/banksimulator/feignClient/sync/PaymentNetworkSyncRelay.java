@@ -0,0 +1,310 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.enums.SyncEntityType;
+import si.endava.banksimulator.enums.SyncOperation;
+import si.endava.banksimulator.feignClient.PaymentNetworkAsyncClient;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
+import si.endava.banksimulator.services.CustomerValidationCache;
+
+/**
+ * Sends the due operations of the {@link PaymentNetworkSyncQueue} with one bulk call per entity
+ * type and batch. Operations the network answered are removed, rejected ones are logged; the rest
+ * are postponed with exponential backoff and picked up again, also after a restart. An operation
+ * whose payload cannot be read is parked until the entity changes again, so it does not hold up the
+ * operations behind it.
+ */
+@Component
+public class PaymentNetworkSyncRelay {
+
+    private final PaymentNetworkSyncQueue queue;
+    private final PaymentNetworkAsyncClient paymentNetworkAsyncClient;
+    private final CustomerValidationCache customerValidationCache;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+
+    private final Counter synced;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter parked;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+
+    Logger logger = LoggerFactory.getLogger(PaymentNetworkSyncRelay.class);
+
+    public PaymentNetworkSyncRelay(
+            PaymentNetworkSyncQueue queue,
+            PaymentNetworkAsyncClient paymentNetworkAsyncClient,
+            CustomerValidationCache customerValidationCache,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.payment-network.sync.batch-size}") int batchSize,
+            @Value("${banksimulator.payment-network.sync.send-timeout-ms}") long sendTimeoutMs,
+            @Value("${banksimulator.payment-network.sync.backoff-ms}") long backoffMs,
+            @Value("${banksimulator.payment-network.sync.max-backoff-ms}") long maxBackoffMs) {
+        this.queue = queue;
+        this.paymentNetworkAsyncClient = paymentNetworkAsyncClient;
+        this.customerValidationCache = customerValidationCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+
+        synced =
+                Counter.builder("banksimulator.payment-network.sync.synced")
+                        .description("Bank and customer changes accepted by the payment network")
+                        .register(meterRegistry);
+        rejected =
+                Counter.builder("banksimulator.payment-network.sync.rejected")
+                        .description("Bank and customer changes refused by the payment network")
+                        .register(meterRegistry);
+        failed =
+                Counter.builder("banksimulator.payment-network.sync.failed")
+                        .description("Bank and customer changes postponed after a failed call")
+                        .register(meterRegistry);
+        parked =
+                Counter.builder("banksimulator.payment-network.sync.parked")
+                        .description("Bank and customer changes parked with an unreadable payload")
+                        .register(meterRegistry);
+        Gauge.builder("banksimulator.payment-network.sync.pending", pending, AtomicLong::get)
+                .description("Banks and customers with changes waiting for the payment network")
+                .register(meterRegistry);
+        TimeGauge.builder(
+                        "banksimulator.payment-network.sync.lag",
+                        lagMs,
+                        TimeUnit.MILLISECONDS,
+                        AtomicLong::get)
+                .description("Age of the oldest change waiting for the payment network")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            fixedDelayString = "${banksimulator.payment-network.sync.interval-ms}",
+            initialDelayString = "${banksimulator.payment-network.sync.interval-ms}")
+    public void sync() {
+        try {
+            List<SyncRecord> batch;
+            do {
+                batch = queue.due(batchSize);
+                if (batch.isEmpty() || !send(batch)) break;
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+        } finally {
+            updateBacklog();
+        }
+    }
+
+    /** Sends the batch and returns whether the network answered every operation. */
+    private boolean send(List<SyncRecord> batch) {
+        Map<SyncEntityType, List<SyncRecord>> byType =
+                batch.stream().collect(Collectors.groupingBy(SyncRecord::getEntityType));
+        List<SyncRecord> unreadable = new ArrayList<>();
+
+        Map<UUID, String> emails = new HashMap<>();
+        List<SyncRecord> customers = new ArrayList<>();
+        List<PaymentNetworkCustomerOperationDTO> customerOperations = new ArrayList<>();
+        for (SyncRecord record :
+                byType.getOrDefault(SyncEntityType.CUSTOMER, Collections.emptyList())) {
+            PaymentNetworkCustomerDTO customer =
+                    read(record, PaymentNetworkCustomerDTO.class, unreadable);
+            if (customer == null) continue;
+            customer.setUuid(record.getUuid());
+            emails.put(record.getUuid(), customer.getEmail());
+            customers.add(record);
+            customerOperations.add(
+                    new PaymentNetworkCustomerOperationDTO(
+                            record.getOperation(), record.getUuid(), customer));
+        }
+        List<SyncRecord> banks = new ArrayList<>();
+        List<PaymentNetworkBankOperationDTO> bankOperations = new ArrayList<>();
+        for (SyncRecord record :
+                byType.getOrDefault(SyncEntityType.BANK, Collections.emptyList())) {
+            PaymentNetworkBankDTO bank = read(record, PaymentNetworkBankDTO.class, unreadable);
+            if (bank == null) continue;
+            bank.setUuid(record.getUuid());
+            banks.add(record);
+            bankOperations.add(
+                    new PaymentNetworkBankOperationDTO(
+                            record.getOperation(), record.getUuid(), bank));
+        }
+        if (!unreadable.isEmpty()) {
+            parked.increment(unreadable.size());
+            queue.park(unreadable);
+        }
+
+        CompletableFuture<List<PaymentNetworkSyncResultDTO>> bankResults =
+                call(bankOperations, paymentNetworkAsyncClient::syncBanks);
+        CompletableFuture<List<PaymentNetworkSyncResultDTO>> customerResults =
+                call(customerOperations, paymentNetworkAsyncClient::syncCustomers);
+
+        boolean banksAnswered = apply(banks, bankResults, record -> {});
+        boolean customersAnswered =
+                apply(
+                        customers,
+                        customerResults,
+                        record -> customerValidationCache.invalidate(emails.get(record.getUuid())));
+        return banksAnswered && customersAnswered;
+    }
+
+    private static <T> CompletableFuture<List<PaymentNetworkSyncResultDTO>> call(
+            List<T> operations,
+            Function<List<T>, CompletableFuture<List<PaymentNetworkSyncResultDTO>>> bulk) {
+        if (operations.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyList());
+        try {
+            return bulk.apply(operations);
+        } catch (RuntimeException e) {
+            CompletableFuture<List<PaymentNetworkSyncResultDTO>> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private boolean apply(
+            List<SyncRecord> records,
+            CompletableFuture<List<PaymentNetworkSyncResultDTO>> response,
+            Consumer<SyncRecord> onAccepted) {
+        if (records.isEmpty()) return true;
+
+        List<PaymentNetworkSyncResultDTO> results;
+        try {
+            results = response.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            logger.error("Error: " + e);
+            failed.increment(records.size());
+            queue.postpone(records, this::nextAttempt);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        Map<UUID, PaymentNetworkSyncResultDTO> resultsByUuid = new HashMap<>();
+        for (PaymentNetworkSyncResultDTO result : results) {
+            resultsByUuid.put(result.getUuid(), result);
+        }
+        List<SyncRecord> answered = new ArrayList<>(records.size());
+        List<SyncRecord> registered = new ArrayList<>();
+        List<SyncRecord> unanswered = new ArrayList<>();
+        for (SyncRecord record : records) {
+            PaymentNetworkSyncResultDTO result = resultsByUuid.get(record.getUuid());
+            if (result == null) {
+                unanswered.add(record);
+                continue;
+            }
+            answered.add(record);
+            if (Boolean.TRUE.equals(result.getAccepted())) {
+                synced.increment();
+                if (record.getOperation() == SyncOperation.REGISTER) registered.add(record);
+                onAccepted.accept(record);
+            } else {
+                rejected.increment();
+                logger.error(
+                        "Error: "
+                                + record.getOperation()
+                                + " of "
+                                + record.getUuid()
+                                + " rejected: "
+                                + result.getMessage());
+            }
+        }
+        List<SyncRecord> changed = queue.remove(answered);
+        queue.registered(registered);
+        unregisterCancelled(registered, changed);
+        if (!unanswered.isEmpty()) {
+            failed.increment(unanswered.size());
+            queue.postpone(unanswered, this::nextAttempt);
+        }
+        return unanswered.isEmpty();
+    }
+
+    /**
+     * Queues the unregistration of entities registered by this send whose registration was
+     * cancelled while it was on its way, which removed their operation before it could be answered.
+     */
+    private void unregisterCancelled(List<SyncRecord> registered, List<SyncRecord> changed) {
+        if (registered.isEmpty() || changed.isEmpty()) return;
+
+        Set<UUID> pendingUuids =
+                queue.pending(
+                        changed.stream().map(SyncRecord::getUuid).collect(Collectors.toList()));
+        for (SyncRecord record : registered) {
+            if (changed.contains(record) && !pendingUuids.contains(record.getUuid()))
+                queue.enqueue(
+                        record.getUuid(),
+                        record.getEntityType(),
+                        SyncOperation.UNREGISTER,
+                        record.getPayload());
+        }
+    }
+
+    private LocalDateTime nextAttempt(SyncRecord record) {
+        long delay = backoffMs << Math.min(record.getAttempts(), 20);
+        return LocalDateTime.now()
+                .plusNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(delay, maxBackoffMs)));
+    }
+
+    /** The payload of the record, or {@code null} after adding it to {@code unreadable}. */
+    private <T> T read(SyncRecord record, Class<T> type, List<SyncRecord> unreadable) {
+        try {
+            return objectMapper.readValue(record.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            logger.error(
+                    "Error: Unreadable sync payload of "
+                            + record.getUuid()
+                            + ": "
+                            + e.getMessage());
+            unreadable.add(record);
+            return null;
+        }
+    }
+
+    private void updateBacklog() {
+        try {
+            PaymentNetworkSyncQueue.Backlog backlog = queue.backlog();
+            pending.set(backlog.getPending());
+            lagMs.set(
+                    backlog.getOldest() == null
+                            ? 0
+                            : Duration.between(backlog.getOldest(), LocalDateTime.now())
+                                    .toMillis());
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+        }
+    }
+}
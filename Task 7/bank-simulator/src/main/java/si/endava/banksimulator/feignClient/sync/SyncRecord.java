@@ -0,0 +1,26 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import si.endava.banksimulator.enums.SyncEntityType;
+import si.endava.banksimulator.enums.SyncOperation;
+
+/**
+ * A {@code payment_network_sync} row: the change of one bank or customer the payment network has
+ * not acknowledged yet.
+ */
+@Getter
+@AllArgsConstructor
+public class SyncRecord {
+
+    private final UUID uuid;
+    private final SyncEntityType entityType;
+    private final SyncOperation operation;
+
+    /** The entity as JSON, {@code PaymentNetworkBankDTO} or {@code PaymentNetworkCustomerDTO}. */
+    private final String payload;
+
+    private final long version;
+    private final int attempts;
+}
@@ -3,7 +3,7 @@ package si.endava.banksimulator.kafka;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,31 +12,78 @@ import org.springframework.kafka.config.KafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import si.endava.banksimulator.kafka.events.PaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEventDeserializer;
 
 @Configuration
 public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.kafka.listener.auto-startup:true}")
+    private boolean autoStartup;
+
+    @Value("${banksimulator.kafka.batch.max-poll-records}")
+    private int batchMaxPollRecords;
+
+    @Value("${banksimulator.kafka.concurrency}")
+    private int concurrency;
+
+    /**
+     * Consumers per listener; {@code 0} uses one per available core. Consumers beyond the partition
+     * count of a topic stay idle.
+     */
+    public int concurrency() {
+        return concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+    }
+
     public Map<String, Object> consumerConfig() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(
+                ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, PaymentEventDeserializer.class);
         return props;
     }
 
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public ConsumerFactory<String, PaymentEvent> consumerFactory() {
         return new DefaultKafkaConsumerFactory<>(consumerConfig());
     }
 
     @Bean
-    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, String>>
-            factory(ConsumerFactory<String, String> consumerFactory) {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, PaymentEvent>>
+            factory(ConsumerFactory<String, PaymentEvent> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency());
+        factory.setAutoStartup(autoStartup);
+        return factory;
+    }
+
+    /** Hands every poll to the listener as one list of up to {@code max-poll-records} records. */
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, PaymentEvent>>
+            batchFactory(ConsumerFactory<String, PaymentEvent> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency());
+        factory.setBatchListener(true);
+        factory.setAutoStartup(autoStartup);
+
+        // the factory does not pass its kafkaConsumerProperties on to the containers it creates
+        factory.setContainerCustomizer(
+                container ->
+                        container
+                                .getContainerProperties()
+                                .getKafkaConsumerProperties()
+                                .setProperty(
+                                        ConsumerConfig.MAX_POLL_RECORDS_CONFIG,
+                                        String.valueOf(batchMaxPollRecords)));
         return factory;
     }
 }
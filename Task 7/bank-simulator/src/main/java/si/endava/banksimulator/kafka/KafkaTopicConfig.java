@@ -1,15 +1,73 @@
 package si.endava.banksimulator.kafka;
 
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.kafka.config.TopicBuilder;
 
+/**
+ * Declares every topic the application reads or writes. Each topic gets {@code
+ * banksimulator.kafka.topics.partitions} partitions unless {@code
+ * banksimulator.kafka.topics.<topic>.partitions} overrides it.
+ */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaTopicConfig {
 
+    @Value("${banksimulator.kafka.topics.partitions}")
+    private int partitions;
+
+    @Value("${banksimulator.kafka.topics.replicas}")
+    private int replicas;
+
+    private final Environment environment;
+
     @Bean
     public NewTopic transactionsTopic() {
-        return TopicBuilder.name("transactions").build();
+        return topic(KafkaTopics.TRANSACTIONS);
+    }
+
+    @Bean
+    public NewTopic paymentNewTopic() {
+        return topic(KafkaTopics.PAYMENT_NEW);
+    }
+
+    @Bean
+    public NewTopic completeTransactionTopic() {
+        return topic(KafkaTopics.COMPLETE_TRANSACTION);
+    }
+
+    @Bean
+    public NewTopic notificationFinalizeCompletedTransactionTopic() {
+        return topic(KafkaTopics.NOTIFICATION_FINALIZE_COMPLETED_TRANSACTION);
+    }
+
+    @Bean
+    public NewTopic finalizeCompletedTransactionToBankTopic() {
+        return topic(KafkaTopics.FINALIZE_COMPLETED_TRANSACTION_TO_BANK);
+    }
+
+    @Bean
+    public NewTopic completeTransactionDeadLetterTopic() {
+        return topic(KafkaTopics.deadLetter(KafkaTopics.COMPLETE_TRANSACTION));
+    }
+
+    @Bean
+    public NewTopic finalizeCompletedTransactionToBankDeadLetterTopic() {
+        return topic(KafkaTopics.deadLetter(KafkaTopics.FINALIZE_COMPLETED_TRANSACTION_TO_BANK));
+    }
+
+    private NewTopic topic(String name) {
+        return TopicBuilder.name(name)
+                .partitions(
+                        environment.getProperty(
+                                "banksimulator.kafka.topics." + name + ".partitions",
+                                Integer.class,
+                                partitions))
+                .replicas(replicas)
+                .build();
     }
 }
@@ -0,0 +1,23 @@
+package si.endava.banksimulator.kafka;
+
+/**
+ * Topic names. Payment requests are keyed by the source customer uuid, so the requests of one
+ * customer stay in order on one partition; transaction notifications are keyed by transaction uuid.
+ * Notifications that cannot be processed go to the {@link #deadLetter} topic of their topic.
+ */
+public final class KafkaTopics {
+
+    public static final String TRANSACTIONS = "transactions";
+    public static final String PAYMENT_NEW = "paymentNew";
+    public static final String COMPLETE_TRANSACTION = "completeTransaction";
+    public static final String NOTIFICATION_FINALIZE_COMPLETED_TRANSACTION =
+            "notificationFinalizeCompletedTransaction";
+    public static final String FINALIZE_COMPLETED_TRANSACTION_TO_BANK =
+            "finalizeCompletedTransactionToBank";
+
+    public static String deadLetter(String topic) {
+        return topic + ".DLT";
+    }
+
+    private KafkaTopics() {}
+}
@@ -0,0 +1,22 @@
+package si.endava.banksimulator.kafka.events;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** A transfer sent to the payment network on {@code paymentNew}. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NewPaymentEvent implements PaymentEvent {
+    private UUID sourceCustomerUuid;
+    private String targetEmail;
+    private BigDecimal amount;
+    private UUID transactionUuid;
+}
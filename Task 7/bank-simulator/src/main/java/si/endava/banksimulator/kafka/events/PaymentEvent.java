@@ -0,0 +1,4 @@
+package si.endava.banksimulator.kafka.events;
+
+/** Payload of the payment topics, written with {@link PaymentEventSerializer}. */
+public interface PaymentEvent {}
@@ -0,0 +1,146 @@
+package si.endava.banksimulator.kafka.events;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.apache.kafka.common.errors.SerializationException;
+import si.endava.banksimulator.kafka.KafkaTopics;
+
+/**
+ * Binary encoding of {@link PaymentEvent}s.
+ *
+ * <p>Every record starts with {@link #MAGIC}, the format {@link #VERSION} and the event type. UUIDs
+ * are written as two longs, amounts as their scale and unscaled long value and strings as a
+ * length-prefixed UTF-8 sequence. Records that do not start with {@link #MAGIC} are read as the
+ * space-delimited text the topics carried before, so producers can be upgraded independently. An
+ * encoded event is at most {@link #MAX_SIZE} bytes, the size of the {@code payment_outbox} payload
+ * column it is stored in before it is sent.
+ */
+public final class PaymentEventCodec {
+
+    public static final byte MAGIC = (byte) 0xB5;
+    public static final byte VERSION = 1;
+    public static final int MAX_SIZE = 1024;
+
+    private static final byte NEW_PAYMENT = 1;
+    private static final byte TRANSACTION_NOTIFICATION = 2;
+
+    private static final int HEADER_SIZE = 3;
+    private static final int UUID_SIZE = 2 * Long.BYTES;
+
+    private PaymentEventCodec() {}
+
+    public static byte[] encode(PaymentEvent event) {
+        if (event instanceof NewPaymentEvent) return encode((NewPaymentEvent) event);
+        if (event instanceof TransactionNotificationEvent)
+            return encode((TransactionNotificationEvent) event);
+        throw new SerializationException("Unknown payment event " + event.getClass().getName());
+    }
+
+    public static PaymentEvent decode(String topic, byte[] data) {
+        if (data.length == 0 || data[0] != MAGIC) return decodeText(topic, data);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            buffer.get();
+            byte version = buffer.get();
+            if (version != VERSION)
+                throw new SerializationException("Unsupported payment event version " + version);
+
+            byte type = buffer.get();
+            switch (type) {
+                case NEW_PAYMENT:
+                    return new NewPaymentEvent(
+                            readUuid(buffer),
+                            readString(buffer),
+                            readAmount(buffer),
+                            readUuid(buffer));
+                case TRANSACTION_NOTIFICATION:
+                    return new TransactionNotificationEvent(readUuid(buffer), readString(buffer));
+                default:
+                    throw new SerializationException("Unknown payment event type " + type);
+            }
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            throw new SerializationException("Truncated payment event on " + topic, e);
+        }
+    }
+
+    private static byte[] encode(NewPaymentEvent event) {
+        byte[] targetEmail = event.getTargetEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer =
+                header(
+                        NEW_PAYMENT,
+                        2 * UUID_SIZE + Short.BYTES + targetEmail.length + 1 + Long.BYTES);
+        writeUuid(buffer, event.getSourceCustomerUuid());
+        writeString(buffer, targetEmail);
+        writeAmount(buffer, event.getAmount());
+        writeUuid(buffer, event.getTransactionUuid());
+        return buffer.array();
+    }
+
+    private static byte[] encode(TransactionNotificationEvent event) {
+        byte[] bankBIC = event.getBankBIC().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer =
+                header(TRANSACTION_NOTIFICATION, UUID_SIZE + Short.BYTES + bankBIC.length);
+        writeUuid(buffer, event.getTransactionUuid());
+        writeString(buffer, bankBIC);
+        return buffer.array();
+    }
+
+    private static ByteBuffer header(byte type, int bodySize) {
+        if (HEADER_SIZE + bodySize > MAX_SIZE)
+            throw new SerializationException(
+                    "Payment event of " + (HEADER_SIZE + bodySize) + " bytes is too long");
+        return ByteBuffer.allocate(HEADER_SIZE + bodySize).put(MAGIC).put(VERSION).put(type);
+    }
+
+    private static void writeUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] value) {
+        if (value.length > Short.MAX_VALUE)
+            throw new SerializationException("String of " + value.length + " bytes is too long");
+        buffer.putShort((short) value.length).put(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] value = new byte[buffer.getShort()];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static void writeAmount(ByteBuffer buffer, BigDecimal amount) {
+        BigDecimal stripped = amount.scale() < 0 ? amount.setScale(0) : amount;
+        BigInteger unscaled = stripped.unscaledValue();
+        if (stripped.scale() > Byte.MAX_VALUE || unscaled.bitLength() >= Long.SIZE)
+            throw new SerializationException("Amount " + amount + " does not fit a scaled long");
+        buffer.put((byte) stripped.scale()).putLong(unscaled.longValue());
+    }
+
+    private static BigDecimal readAmount(ByteBuffer buffer) {
+        byte scale = buffer.get();
+        return BigDecimal.valueOf(buffer.getLong(), scale);
+    }
+
+    private static PaymentEvent decodeText(String topic, byte[] data) {
+        String[] split = new String(data, StandardCharsets.UTF_8).split(" ");
+        try {
+            if (KafkaTopics.PAYMENT_NEW.equals(topic))
+                return new NewPaymentEvent(
+                        UUID.fromString(split[0]),
+                        split[1],
+                        new BigDecimal(split[2]),
+                        UUID.fromString(split[3]));
+            return new TransactionNotificationEvent(UUID.fromString(split[0]), split[1]);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Invalid payment event on " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package si.endava.banksimulator.kafka.events;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+public class PaymentEventDeserializer implements Deserializer<PaymentEvent> {
+
+    @Override
+    public PaymentEvent deserialize(String topic, byte[] data) {
+        return data == null ? null : PaymentEventCodec.decode(topic, data);
+    }
+}
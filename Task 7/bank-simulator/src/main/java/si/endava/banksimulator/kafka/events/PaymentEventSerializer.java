@@ -0,0 +1,11 @@
+package si.endava.banksimulator.kafka.events;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class PaymentEventSerializer implements Serializer<PaymentEvent> {
+
+    @Override
+    public byte[] serialize(String topic, PaymentEvent event) {
+        return event == null ? null : PaymentEventCodec.encode(event);
+    }
+}
@@ -0,0 +1,22 @@
+package si.endava.banksimulator.kafka.events;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Completion and finalization of a transaction, exchanged on {@code completeTransaction}, {@code
+ * notificationFinalizeCompletedTransaction} and {@code finalizeCompletedTransactionToBank}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionNotificationEvent implements PaymentEvent {
+    private UUID transactionUuid;
+    private String bankBIC;
+}
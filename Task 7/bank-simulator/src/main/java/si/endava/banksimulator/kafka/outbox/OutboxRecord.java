@@ -0,0 +1,17 @@
+package si.endava.banksimulator.kafka.outbox;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** A {@code payment_outbox} row: an encoded payment event waiting to be sent. */
+@Getter
+@AllArgsConstructor
+public class OutboxRecord {
+
+    private final long id;
+    private final String topic;
+    private final String key;
+    private final byte[] payload;
+    private final LocalDateTime createdAt;
+}
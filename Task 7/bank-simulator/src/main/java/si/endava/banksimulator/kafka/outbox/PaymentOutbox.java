@@ -0,0 +1,93 @@
+package si.endava.banksimulator.kafka.outbox;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.kafka.events.PaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEventCodec;
+
+/**
+ * The {@code payment_outbox} table. Events are appended in the database transaction of the rows
+ * they describe and sent to Kafka later by {@link PaymentOutboxRelay}, so they are published if and
+ * only if that transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentOutbox {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void append(String topic, String key, PaymentEvent event) {
+        appendAll(Collections.singletonList(new ProducerRecord<>(topic, key, event)));
+    }
+
+    /** Inserts the events as one JDBC batch in the current transaction. */
+    public void appendAll(List<ProducerRecord<String, PaymentEvent>> records) {
+        if (records.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(records.size());
+        for (ProducerRecord<String, PaymentEvent> record : records) {
+            rows.add(
+                    new Object[] {
+                        record.topic(), record.key(), PaymentEventCodec.encode(record.value()), now
+                    });
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into payment_outbox (topic, record_key, payload, created_at) values (?, ?,"
+                        + " ?, ?)",
+                rows);
+    }
+
+    /** The oldest {@code limit} events, in the order they were appended. */
+    public List<OutboxRecord> next(int limit) {
+        return jdbcTemplate.query(
+                "select outbox_id, topic, record_key, payload, created_at from payment_outbox"
+                        + " order by outbox_id limit ?",
+                (rs, rowNum) ->
+                        new OutboxRecord(
+                                rs.getLong("outbox_id"),
+                                rs.getString("topic"),
+                                rs.getString("record_key"),
+                                rs.getBytes("payload"),
+                                rs.getTimestamp("created_at").toLocalDateTime()),
+                limit);
+    }
+
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) return;
+
+        jdbcTemplate.batchUpdate(
+                "delete from payment_outbox where outbox_id = ?",
+                ids.stream().map(id -> new Object[] {id}).collect(Collectors.toList()));
+    }
+
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(
+                "select count(*), min(created_at) from payment_outbox",
+                (rs, rowNum) -> {
+                    Timestamp oldest = rs.getTimestamp(2);
+                    return new Backlog(
+                            rs.getLong(1), oldest == null ? null : oldest.toLocalDateTime());
+                });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Backlog {
+
+        private final long pending;
+
+        /** Append time of the oldest pending event, {@code null} when the outbox is empty. */
+        private final LocalDateTime oldest;
+    }
+}
@@ -0,0 +1,139 @@
+package si.endava.banksimulator.kafka.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Drains the {@link PaymentOutbox} to Kafka in batches of {@code banksimulator.outbox.batch-size}.
+ * Rows are deleted once the broker acknowledged them, so delivery is at least once; every event
+ * carries its transaction uuid for consumers to recognise repeats. A row the broker did not
+ * acknowledge keeps the later rows of its topic and key as well, so they are sent again after it
+ * and the order of the events of one key holds on its partition.
+ */
+@Component
+public class PaymentOutboxRelay {
+
+    private final PaymentOutbox outbox;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    private final Counter relayed;
+    private final Counter failed;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+
+    Logger logger = LoggerFactory.getLogger(PaymentOutboxRelay.class);
+
+    public PaymentOutboxRelay(
+            PaymentOutbox outbox,
+            KafkaTemplate<String, byte[]> kafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.outbox.batch-size}") int batchSize,
+            @Value("${banksimulator.outbox.send-timeout-ms}") long sendTimeoutMs) {
+        this.outbox = outbox;
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        relayed =
+                Counter.builder("banksimulator.outbox.relayed")
+                        .description("Payment events sent from the outbox to Kafka")
+                        .register(meterRegistry);
+        failed =
+                Counter.builder("banksimulator.outbox.failed")
+                        .description("Outbox sends the broker did not acknowledge")
+                        .register(meterRegistry);
+        Gauge.builder("banksimulator.outbox.pending", pending, AtomicLong::get)
+                .description("Payment events waiting in the outbox")
+                .register(meterRegistry);
+        TimeGauge.builder("banksimulator.outbox.lag", lagMs, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest payment event waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${banksimulator.outbox.relay-interval-ms}")
+    public void relay() {
+        try {
+            List<OutboxRecord> batch;
+            do {
+                batch = outbox.next(batchSize);
+                if (batch.isEmpty() || send(batch) < batch.size()) break;
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+        } finally {
+            updateBacklog();
+        }
+    }
+
+    /**
+     * Sends the batch and deletes the rows the broker acknowledged up to the first row of their
+     * topic and key it did not. Returns how many rows were deleted.
+     */
+    private int send(List<OutboxRecord> batch) {
+        List<ListenableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
+        for (OutboxRecord record : batch) {
+            futures.add(
+                    kafkaTemplate.send(record.getTopic(), record.getKey(), record.getPayload()));
+        }
+        kafkaTemplate.flush();
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        Set<List<String>> held = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxRecord record = batch.get(i);
+            List<String> topicKey = Arrays.asList(record.getTopic(), record.getKey());
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                if (!held.contains(topicKey)) sent.add(record.getId());
+            } catch (ExecutionException | TimeoutException e) {
+                held.add(topicKey);
+                failed.increment();
+                logger.error("Error: " + e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        outbox.delete(sent);
+        relayed.increment(sent.size());
+        return sent.size();
+    }
+
+    private void updateBacklog() {
+        try {
+            PaymentOutbox.Backlog backlog = outbox.backlog();
+            pending.set(backlog.getPending());
+            lagMs.set(
+                    backlog.getOldest() == null
+                            ? 0
+                            : Duration.between(backlog.getOldest(), LocalDateTime.now())
+                                    .toMillis());
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+        }
+    }
+}
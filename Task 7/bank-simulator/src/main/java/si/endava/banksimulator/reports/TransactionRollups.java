@@ -0,0 +1,196 @@
+package si.endava.banksimulator.reports;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/**
+ * The {@code transaction_rollup} table: count and amounts of transactions per day, bank, customer,
+ * currency and status. It is updated in the database transaction that stores a transaction or
+ * changes its status, so reports never scan the {@code transaction} table. Called outside of one,
+ * it starts its own on the connection of the open entity manager rather than taking a second
+ * connection from the pool.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionRollups {
+
+    private static final String INCREMENT =
+            "update transaction_rollup set transaction_count = transaction_count + ?,"
+                    + " source_amount = source_amount + ?, target_amount = target_amount + ?"
+                    + " where transaction_day = ? and bank_id = ? and customer_id = ?"
+                    + " and currency = ? and status = ?";
+
+    private static final String INSERT =
+            "insert into transaction_rollup (transaction_count, source_amount, target_amount,"
+                    + " transaction_day, bank_id, customer_id, currency, status)"
+                    + " values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts a stored transaction under its current status and, unless {@code previous} is {@code
+     * null}, no longer under {@code previous}.
+     */
+    @Transactional
+    public void record(Transaction transaction, TransactionStatus previous) {
+        recordAll(Collections.singletonMap(transaction, previous));
+    }
+
+    /** {@link #record} for every transaction, keyed to its previous status. */
+    @Transactional
+    public void recordAll(Map<Transaction, TransactionStatus> previousStatuses) {
+        Map<Key, Totals> deltas = new TreeMap<>();
+        previousStatuses.forEach(
+                (transaction, previous) -> {
+                    if (previous == transaction.getTransactionStatus()) return;
+                    if (previous != null) add(deltas, transaction, previous, -1);
+                    add(deltas, transaction, transaction.getTransactionStatus(), 1);
+                });
+        apply(deltas);
+    }
+
+    /** Subtracts the transactions to a contact, before the contact and they are deleted. */
+    @Transactional
+    public void forgetContact(long contactId) {
+        Map<Key, Totals> deltas = new TreeMap<>();
+        jdbcTemplate.query(
+                "select cast(t.date as date), c.bank_id, t.customer_id, t.source_currency,"
+                        + " t.status, count(*), sum(t.source_amount), sum(t.target_amount) from"
+                        + " transaction t join customer c on c.customer_id = t.customer_id where"
+                        + " t.contact_id = ? and c.bank_id is not null group by cast(t.date as"
+                        + " date), c.bank_id, t.customer_id, t.source_currency, t.status",
+                rs -> {
+                    deltas.put(
+                            new Key(
+                                    rs.getDate(1).toLocalDate(),
+                                    rs.getLong(2),
+                                    rs.getLong(3),
+                                    rs.getString(4),
+                                    rs.getString(5)),
+                            new Totals(
+                                    -rs.getLong(6),
+                                    rs.getBigDecimal(7).negate(),
+                                    rs.getBigDecimal(8).negate()));
+                },
+                contactId);
+        apply(deltas);
+    }
+
+    @Transactional
+    public void forgetCustomer(long customerId) {
+        jdbcTemplate.update("delete from transaction_rollup where customer_id = ?", customerId);
+    }
+
+    @Transactional
+    public void forgetBank(long bankId) {
+        jdbcTemplate.update("delete from transaction_rollup where bank_id = ?", bankId);
+    }
+
+    private static void add(
+            Map<Key, Totals> deltas, Transaction transaction, TransactionStatus status, int sign) {
+        Key key =
+                new Key(
+                        transaction.getDate().toLocalDate(),
+                        transaction.getCustomer().getBank().getId(),
+                        transaction.getCustomer().getId(),
+                        transaction.getSourceCurrency(),
+                        status.name());
+        Totals totals =
+                new Totals(
+                        sign,
+                        sign < 0
+                                ? transaction.getSourceAmount().negate()
+                                : transaction.getSourceAmount(),
+                        sign < 0
+                                ? transaction.getTargetAmount().negate()
+                                : transaction.getTargetAmount());
+        deltas.merge(key, totals, Totals::plus);
+    }
+
+    /**
+     * Increments the existing rows and inserts the missing ones, in key order so that concurrent
+     * transactions lock shared rows in the same order. A row inserted concurrently in between is
+     * incremented instead.
+     */
+    private void apply(Map<Key, Totals> deltas) {
+        if (deltas.isEmpty()) return;
+
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, totals) -> rows.add(row(key, totals)));
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT, rows);
+
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[i] != 0) continue;
+            try {
+                jdbcTemplate.update(INSERT, rows.get(i));
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(INCREMENT, rows.get(i));
+            }
+        }
+    }
+
+    private static Object[] row(Key key, Totals totals) {
+        return new Object[] {
+            totals.count,
+            totals.sourceAmount,
+            totals.targetAmount,
+            Date.valueOf(key.day),
+            key.bankId,
+            key.customerId,
+            key.currency,
+            key.status
+        };
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class Key implements Comparable<Key> {
+        private static final Comparator<Key> ORDER =
+                Comparator.<Key, LocalDate>comparing(key -> key.day)
+                        .thenComparingLong(key -> key.bankId)
+                        .thenComparingLong(key -> key.customerId)
+                        .thenComparing(key -> key.currency)
+                        .thenComparing(key -> key.status);
+
+        private final LocalDate day;
+        private final long bankId;
+        private final long customerId;
+        private final String currency;
+        private final String status;
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Totals {
+        private final long count;
+        private final BigDecimal sourceAmount;
+        private final BigDecimal targetAmount;
+
+        Totals plus(Totals other) {
+            return new Totals(
+                    count + other.count,
+                    sourceAmount.add(other.sourceAmount),
+                    targetAmount.add(other.targetAmount));
+        }
+    }
+}
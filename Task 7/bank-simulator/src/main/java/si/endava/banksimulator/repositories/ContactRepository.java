@@ -3,16 +3,34 @@ package si.endava.banksimulator.repositories;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import si.endava.banksimulator.entities.Contact;
 
 @Repository
 public interface ContactRepository extends JpaRepository<Contact, Long> {
 
+    @EntityGraph(Contact.WITH_CUSTOMER)
+    @Query("select c from Contact c")
+    List<Contact> findAllWithCustomer();
+
+    @EntityGraph(Contact.WITH_CUSTOMER)
     Optional<Contact> findContactByUuid(UUID uuid);
 
+    @EntityGraph(Contact.WITH_CUSTOMER)
     List<Contact> findByNameContaining(String name);
 
-    Optional<Contact> findByCustomerUuidAndEmail(UUID customerUuid, String email);
+    /**
+     * Filters on the {@code customer_id} column; the derived query would outer join {@code
+     * customer} first and scan {@code contact_list}.
+     */
+    @Query("select c from Contact c where c.customer.id = :customerId and c.email = :email")
+    Optional<Contact> findByCustomerIdAndEmail(
+            @Param("customerId") long customerId, @Param("email") String email);
+
+    @Query("select c from Contact c where c.customer.id = :customerId")
+    List<Contact> findByCustomerId(@Param("customerId") long customerId);
 }
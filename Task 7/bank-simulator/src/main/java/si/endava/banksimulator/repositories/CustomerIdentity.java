@@ -0,0 +1,15 @@
+package si.endava.banksimulator.repositories;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** The fields of a customer that never change while it exists, without its balances. */
+@Getter
+@AllArgsConstructor
+public class CustomerIdentity {
+    private final long id;
+    private final UUID uuid;
+    private final String email;
+    private final Long bankId;
+}
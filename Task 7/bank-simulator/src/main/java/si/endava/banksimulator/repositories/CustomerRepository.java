@@ -1,8 +1,14 @@
 package si.endava.banksimulator.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import si.endava.banksimulator.entities.Bank;
 import si.endava.banksimulator.entities.Customer;
@@ -10,11 +16,38 @@ import si.endava.banksimulator.entities.Customer;
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    @EntityGraph(Customer.WITH_BANK)
+    @Query("select c from Customer c")
+    List<Customer> findAllWithBank();
+
+    @EntityGraph(Customer.WITH_BANK)
     Optional<Customer> findCustomerByUuid(UUID uuid);
 
     Boolean existsCustomerByEmail(String email);
 
+    @EntityGraph(Customer.WITH_BANK)
     Optional<Customer> findByEmail(String email);
 
+    @EntityGraph(Customer.WITH_BANK)
+    List<Customer> findByEmailIn(Collection<String> emails);
+
     Boolean existsCustomerByEmailAndBank(String email, Bank bank);
+
+    @Query(
+            "select new si.endava.banksimulator.repositories.CustomerIdentity(c.id, c.uuid,"
+                    + " c.email, b.id) from Customer c left join c.bank b where c.email = :email")
+    Optional<CustomerIdentity> findIdentityByEmail(@Param("email") String email);
+
+    @Query(
+            "select new si.endava.banksimulator.repositories.CustomerIdentity(c.id, c.uuid,"
+                    + " c.email, b.id) from Customer c left join c.bank b where c.uuid = :uuid")
+    Optional<CustomerIdentity> findIdentityByUuid(@Param("uuid") UUID uuid);
+
+    /** The next page of customers after {@code uuid}, in the database's uuid order. */
+    @EntityGraph(Customer.WITH_BANK)
+    List<Customer> findByUuidGreaterThanOrderByUuid(UUID uuid, Pageable pageable);
+
+    @EntityGraph(Customer.WITH_BANK)
+    List<Customer> findByPaymentNetworkTrueAndUuidGreaterThanOrderByUuid(
+            UUID uuid, Pageable pageable);
 }
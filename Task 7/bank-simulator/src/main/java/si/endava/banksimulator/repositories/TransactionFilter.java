@@ -0,0 +1,17 @@
+package si.endava.banksimulator.repositories;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Builder;
+import lombok.Getter;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/** Optional restrictions of a transaction listing; {@code null} fields are not applied. */
+@Getter
+@Builder
+public class TransactionFilter {
+    private final TransactionStatus transactionStatus;
+    private final UUID customerUuid;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+}
@@ -0,0 +1,14 @@
+package si.endava.banksimulator.repositories;
+
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** The source customer and the contact of a transaction, without the transaction itself. */
+@Getter
+@AllArgsConstructor
+public class TransactionParties {
+    private final UUID uuid;
+    private final Long customerId;
+    private final String contactEmail;
+}
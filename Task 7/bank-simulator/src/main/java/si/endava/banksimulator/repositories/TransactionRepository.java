@@ -1,17 +1,51 @@
 package si.endava.banksimulator.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import si.endava.banksimulator.dtos.TransactionSummaryDTO;
 import si.endava.banksimulator.entities.Transaction;
 import si.endava.banksimulator.enums.TransactionStatus;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository
+        extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
 
+    @EntityGraph(Transaction.DETAILS)
+    @Query("select t from Transaction t")
+    List<Transaction> findAllWithDetails();
+
+    @EntityGraph(Transaction.DETAILS)
     Optional<Transaction> findTransactionByUuid(UUID uuid);
 
+    @EntityGraph(Transaction.DETAILS)
     List<Transaction> findByTransactionStatus(TransactionStatus transactionStatus);
+
+    @EntityGraph(Transaction.DETAILS)
+    List<Transaction> findByUuidIn(Collection<UUID> uuids);
+
+    @Query(
+            "select new si.endava.banksimulator.repositories.TransactionParties(t.uuid, cu.id,"
+                    + " co.email) from Transaction t left join t.customer cu left join t.contact co"
+                    + " where t.uuid in :uuids")
+    List<TransactionParties> findPartiesByUuidIn(@Param("uuids") Collection<UUID> uuids);
+
+    String SUMMARY =
+            "select new si.endava.banksimulator.dtos.TransactionSummaryDTO(t.uuid, t.sourceAmount,"
+                    + " t.sourceCurrency, t.targetAmount, t.targetCurrency, t.exchangeRate,"
+                    + " t.transactionStatus, t.date, cu.uuid, cu.email, co.uuid, co.email) from"
+                    + " Transaction t left join t.customer cu left join t.contact co";
+
+    @Query(SUMMARY)
+    List<TransactionSummaryDTO> findAllSummaries();
+
+    @Query(SUMMARY + " where t.transactionStatus = :transactionStatus")
+    List<TransactionSummaryDTO> findSummariesByTransactionStatus(
+            @Param("transactionStatus") TransactionStatus transactionStatus);
 }
@@ -0,0 +1,18 @@
+package si.endava.banksimulator.repositories;
+
+import java.util.List;
+import java.util.function.Consumer;
+import si.endava.banksimulator.entities.Transaction;
+
+public interface TransactionRepositoryCustom {
+
+    /** Returns up to {@code size} transactions after {@code after} in {@code (date, id)} order. */
+    List<Transaction> findPage(TransactionFilter filter, TransactionCursor after, int size);
+
+    /**
+     * Scrolls over all matching transactions in {@code (date, id)} order. Must be called within a
+     * transaction; the persistence context is cleared every {@code fetchSize} rows, so the consumer
+     * must not keep the entities it is given.
+     */
+    void forEach(TransactionFilter filter, int fetchSize, Consumer<Transaction> consumer);
+}
@@ -0,0 +1,84 @@
+package si.endava.banksimulator.repositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.annotations.QueryHints;
+import si.endava.banksimulator.entities.Contact;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.entities.Transaction;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext private EntityManager entityManager;
+
+    @Override
+    public List<Transaction> findPage(TransactionFilter filter, TransactionCursor after, int size) {
+        return entityManager.createQuery(query(filter, after)).setMaxResults(size).getResultList();
+    }
+
+    @Override
+    public void forEach(TransactionFilter filter, int fetchSize, Consumer<Transaction> consumer) {
+        try (Stream<Transaction> transactions =
+                entityManager
+                        .createQuery(query(filter, null))
+                        .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                        .setHint(QueryHints.READ_ONLY, true)
+                        .getResultStream()) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++count % fetchSize == 0) entityManager.clear();
+            }
+        }
+    }
+
+    private CriteriaQuery<Transaction> query(TransactionFilter filter, TransactionCursor after) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = builder.createQuery(Transaction.class);
+        Root<Transaction> transaction = query.from(Transaction.class);
+        Fetch<Transaction, Customer> customer = transaction.fetch("customer", JoinType.LEFT);
+        customer.fetch("bank", JoinType.LEFT);
+        Fetch<Transaction, Contact> contact = transaction.fetch("contact", JoinType.LEFT);
+        contact.fetch("customer", JoinType.LEFT).fetch("bank", JoinType.LEFT);
+
+        Path<LocalDateTime> date = transaction.get("date");
+        Path<Long> id = transaction.get("id");
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getTransactionStatus() != null)
+            predicates.add(
+                    builder.equal(
+                            transaction.get("transactionStatus"), filter.getTransactionStatus()));
+        if (filter.getCustomerUuid() != null)
+            predicates.add(
+                    builder.equal(
+                            transaction.get("customer").get("uuid"), filter.getCustomerUuid()));
+        if (filter.getFrom() != null)
+            predicates.add(builder.greaterThanOrEqualTo(date, filter.getFrom()));
+        if (filter.getTo() != null) predicates.add(builder.lessThan(date, filter.getTo()));
+        if (after != null)
+            predicates.add(
+                    builder.or(
+                            builder.greaterThan(date, after.getDate()),
+                            builder.and(
+                                    builder.equal(date, after.getDate()),
+                                    builder.greaterThan(id, after.getId()))));
+
+        return query.select(transaction)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.asc(date), builder.asc(id));
+    }
+}
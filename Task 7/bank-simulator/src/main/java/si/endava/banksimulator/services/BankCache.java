@@ -0,0 +1,95 @@
+package si.endava.banksimulator.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.entities.Bank;
+import si.endava.banksimulator.repositories.BankRepository;
+
+/**
+ * Read-through cache of {@link Bank} by BIC and by uuid. Cached banks are detached and shared, so
+ * callers must not modify them; changes load the bank from {@link BankRepository} and {@link
+ * #evict} it. Hit ratios are published as the {@code banksByBic} and {@code banksByUuid} cache
+ * metrics.
+ */
+@Service
+public class BankCache {
+
+    private final BankRepository bankRepository;
+    private final Cache<String, Bank> byBic;
+    private final Cache<UUID, Bank> byUuid;
+
+    public BankCache(
+            BankRepository bankRepository,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.bank-cache.maximum-size}") long maximumSize,
+            @Value("${banksimulator.bank-cache.ttl-ms}") long ttlMs) {
+        this.bankRepository = bankRepository;
+        this.byBic = build(maximumSize, ttlMs);
+        this.byUuid = build(maximumSize, ttlMs);
+        CaffeineCacheMetrics.monitor(meterRegistry, byBic, "banksByBic");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUuid, "banksByUuid");
+    }
+
+    private static <K> Cache<K, Bank> build(long maximumSize, long ttlMs) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Bank> findByBic(String bic) {
+        return Optional.ofNullable(
+                byBic.get(
+                        bic,
+                        key -> {
+                            Bank bank = bankRepository.findBankByBic(key).orElse(null);
+                            if (bank != null) byUuid.put(bank.getUuid(), bank);
+                            return bank;
+                        }));
+    }
+
+    public Optional<Bank> findByUuid(UUID uuid) {
+        return Optional.ofNullable(
+                byUuid.get(
+                        uuid,
+                        key -> {
+                            Bank bank = bankRepository.findBankByUuid(key).orElse(null);
+                            if (bank != null) byBic.put(bank.getBic(), bank);
+                            return bank;
+                        }));
+    }
+
+    /**
+     * Drops the bank now and again once the current transaction completed, so a lookup racing the
+     * change cannot keep the old state cached.
+     */
+    public void evict(UUID uuid, String... bics) {
+        invalidate(uuid, bics);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            invalidate(uuid, bics);
+                        }
+                    });
+        }
+    }
+
+    private void invalidate(UUID uuid, String... bics) {
+        if (uuid != null) byUuid.invalidate(uuid);
+        for (String bic : bics) {
+            if (bic != null) byBic.invalidate(bic);
+        }
+    }
+}
@@ -12,8 +12,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import si.endava.banksimulator.dtos.BankDTO;
 import si.endava.banksimulator.entities.Bank;
-import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientInterface;
 import si.endava.banksimulator.mappers.BankMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
 import si.endava.banksimulator.repositories.BankRepository;
 
 @Service
@@ -23,7 +23,9 @@ public class BankService {
     private final BankRepository bankRepository;
     private final BankMapper bankMapper;
 
-    private final PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface;
+    private final PaymentNetworkSync paymentNetworkSync;
+    private final BankCache bankCache;
+    private final TransactionRollups transactionRollups;
 
     public List<BankDTO> getAllBanks() {
         return bankRepository.findAll().stream()
@@ -33,8 +35,8 @@ public class BankService {
 
     public BankDTO findByUuid(UUID uuid) {
         return bankMapper.bankToBankDTO(
-                bankRepository
-                        .findBankByUuid(uuid)
+                bankCache
+                        .findByUuid(uuid)
                         .orElseThrow(
                                 () ->
                                         new ElementNotFoundException(
@@ -42,8 +44,8 @@ public class BankService {
     }
 
     public Bank findByBic(String bic) {
-        return bankRepository
-                .findBankByBic(bic)
+        return bankCache
+                .findByBic(bic)
                 .orElseThrow(
                         () ->
                                 new ElementNotFoundException(
@@ -62,6 +64,7 @@ public class BankService {
                                         "Bank with name " + name + " not found."));
     }
 
+    @Transactional
     public Bank addNewBank(BankDTO bank) {
         validate(bank);
         if (bankRepository.existsBankByBic(bank.getBic()))
@@ -71,12 +74,13 @@ public class BankService {
         Bank newBank = bankMapper.bankDTOToBank(bank);
         newBank.setUuid(UUID.randomUUID());
         bankRepository.save(newBank);
-        paymentNetworkFeignClientInterface.registerNewBank(
-                bankMapper.bankToPaymentNetworkBankDTO(newBank));
+        bankCache.evict(newBank.getUuid(), newBank.getBic());
+        paymentNetworkSync.registerBank(bankMapper.bankToPaymentNetworkBankDTO(newBank));
 
         return newBank;
     }
 
+    @Transactional
     public void deleteBank(UUID uuid) {
         Bank bank =
                 bankRepository
@@ -86,8 +90,10 @@ public class BankService {
                                         new ElementNotFoundException(
                                                 String.format(
                                                         "Bank with uuid %s not exists.", uuid)));
-        paymentNetworkFeignClientInterface.unregisterBank(bank.getUuid());
         bankRepository.deleteById(bank.getId());
+        transactionRollups.forgetBank(bank.getId());
+        bankCache.evict(bank.getUuid(), bank.getBic());
+        paymentNetworkSync.unregisterBank(bankMapper.bankToPaymentNetworkBankDTO(bank));
     }
 
     @Transactional
@@ -106,11 +112,12 @@ public class BankService {
                     HttpStatus.CONFLICT,
                     "Bank with bic " + newBankEntity.getBic() + " already exists");
 
+        String oldBic = existingBank.getBic();
         bankMapper.mapToBank(newBankEntity, existingBank);
 
         bankRepository.save(existingBank);
-        paymentNetworkFeignClientInterface.updateBank(
-                uuid, bankMapper.bankToPaymentNetworkBankDTO(existingBank));
+        bankCache.evict(uuid, oldBic, existingBank.getBic());
+        paymentNetworkSync.updateBank(bankMapper.bankToPaymentNetworkBankDTO(existingBank));
 
         return bankMapper.bankToBankDTO(existingBank);
     }
@@ -0,0 +1,98 @@
+package si.endava.banksimulator.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import javax.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionSystemException;
+
+/**
+ * Runs an action again when it loses a race for a row: an optimistic locking failure on a stale
+ * {@code version}, or a lock wait that timed out or deadlocked. A failed rollback after such a
+ * race, as when the lock timeout closed the connection, counts as the race. Up to {@code
+ * max-attempts} attempts are made, separated by a random backoff of up to {@code backoff-ms},
+ * doubling per attempt up to {@code max-backoff-ms}. Every attempt has to run in a database
+ * transaction of its own and load what it changes afresh, since the failed one was rolled back.
+ */
+@Component
+public class ConcurrencyRetry {
+
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+
+    private final Counter retried;
+    private final Counter exhausted;
+
+    public ConcurrencyRetry(
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.retry.max-attempts}") int maxAttempts,
+            @Value("${banksimulator.retry.backoff-ms}") long backoffMs,
+            @Value("${banksimulator.retry.max-backoff-ms}") long maxBackoffMs) {
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+
+        retried =
+                Counter.builder("banksimulator.retry.retried")
+                        .description("Attempts repeated after losing a concurrent update")
+                        .register(meterRegistry);
+        exhausted =
+                Counter.builder("banksimulator.retry.exhausted")
+                        .description("Actions that lost a concurrent update on every attempt")
+                        .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!isConcurrencyFailure(e)) throw e;
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retried.increment();
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        execute(
+                () -> {
+                    action.run();
+                    return null;
+                });
+    }
+
+    static boolean isConcurrencyFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrencyFailureException
+                    || cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException) return true;
+            if (cause instanceof TransactionSystemException
+                    && ((TransactionSystemException) cause).getOriginalException() != null)
+                return isConcurrencyFailure(
+                        ((TransactionSystemException) cause).getOriginalException());
+        }
+        return false;
+    }
+
+    private void backOff(int attempt, RuntimeException failure) {
+        long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 30));
+        if (ceiling <= 0) return;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package si.endava.banksimulator.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.entities.Contact;
+import si.endava.banksimulator.repositories.ContactRepository;
+
+/**
+ * Resolves a customer's contact by email. By default every lookup is one query on the {@code
+ * (customer_id, email)} index. With {@code banksimulator.contact-index.enabled}, all contacts of a
+ * customer are loaded once into a map by email, which is dropped whenever a contact of the customer
+ * changes. Cached contacts are detached and must not be modified.
+ */
+@Service
+public class ContactIndex {
+
+    private final ContactRepository contactRepository;
+    private final boolean enabled;
+    private final Cache<Long, Map<String, Contact>> byCustomer;
+
+    public ContactIndex(
+            ContactRepository contactRepository,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.contact-index.enabled}") boolean enabled,
+            @Value("${banksimulator.contact-index.maximum-size}") long maximumSize) {
+        this.contactRepository = contactRepository;
+        this.enabled = enabled;
+        this.byCustomer = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byCustomer, "contactsByCustomer");
+    }
+
+    public Optional<Contact> find(long customerId, String email) {
+        if (!enabled) return contactRepository.findByCustomerIdAndEmail(customerId, email);
+        return Optional.ofNullable(byCustomer.get(customerId, this::load).get(email));
+    }
+
+    private Map<String, Contact> load(long customerId) {
+        Map<String, Contact> contacts = new HashMap<>();
+        for (Contact contact : contactRepository.findByCustomerId(customerId))
+            contacts.putIfAbsent(contact.getEmail(), contact);
+        return Collections.unmodifiableMap(contacts);
+    }
+
+    /** Drops the customer's contacts now and again once the current transaction completed. */
+    public void evict(long customerId) {
+        byCustomer.invalidate(customerId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            byCustomer.invalidate(customerId);
+                        }
+                    });
+        }
+    }
+}
@@ -14,6 +14,7 @@ import si.endava.banksimulator.dtos.ContactDTO;
 import si.endava.banksimulator.entities.Contact;
 import si.endava.banksimulator.entities.Customer;
 import si.endava.banksimulator.mappers.ContactMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
 import si.endava.banksimulator.repositories.ContactRepository;
 
 @Service
@@ -25,8 +26,12 @@ public class ContactService {
 
     private final CustomerService customerService;
 
+    private final ContactIndex contactIndex;
+
+    private final TransactionRollups transactionRollups;
+
     public List<ContactDTO> getAllContacts() {
-        return contactRepository.findAll().stream()
+        return contactRepository.findAllWithCustomer().stream()
                 .map(contactMapper::contactToContactDTO)
                 .collect(Collectors.toList());
     }
@@ -54,8 +59,8 @@ public class ContactService {
     }
 
     public Contact findByCustomerAndEmail(Customer customer, String email) {
-        return contactRepository
-                .findByCustomerUuidAndEmail(customer.getUuid(), email)
+        return contactIndex
+                .find(customer.getId(), email)
                 .orElseThrow(
                         () ->
                                 new ElementNotFoundException(
@@ -69,10 +74,12 @@ public class ContactService {
         newContact.setCustomer(customerService.findByEmail(contact.getCustomer().getEmail()));
         newContact.setUuid(UUID.randomUUID());
         contactRepository.save(newContact);
+        evictIndex(newContact);
 
         return newContact;
     }
 
+    @Transactional
     public void deleteContact(UUID uuid) {
         Contact contact =
                 contactRepository
@@ -81,7 +88,9 @@ public class ContactService {
                                 () ->
                                         new ElementNotFoundException(
                                                 "Contact with uuid " + uuid + " not exists."));
+        transactionRollups.forgetContact(contact.getId());
         contactRepository.deleteById(contact.getId());
+        evictIndex(contact);
     }
 
     @Transactional
@@ -95,13 +104,19 @@ public class ContactService {
                                         new ElementNotFoundException(
                                                 "Contact with uuid " + uuid + " not exists."));
 
+        evictIndex(existingContact);
         contactMapper.mapToContact(newContactListEntity, existingContact);
 
         contactRepository.save(existingContact);
+        evictIndex(existingContact);
 
         return contactMapper.contactToContactDTO(existingContact);
     }
 
+    private void evictIndex(Contact contact) {
+        if (contact.getCustomer() != null) contactIndex.evict(contact.getCustomer().getId());
+    }
+
     public void validate(ContactDTO contactDTO) {
         if (StringUtils.isBlank(contactDTO.getName()))
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid name");
@@ -0,0 +1,103 @@
+package si.endava.banksimulator.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.repositories.CustomerIdentity;
+import si.endava.banksimulator.repositories.CustomerRepository;
+
+/**
+ * Read-through cache of {@link CustomerIdentity} by uuid and by email, so transfers resolve their
+ * target without querying the customer table. Unknown emails are cached as well, since most
+ * external transfers go to them; {@link CustomerService} evicts the emails and uuids it changes.
+ * Balances are never cached here. An identity loaded by one key is added under the other key once
+ * its load returned: a loader writing to the other cache holds a lock of its own cache meanwhile,
+ * and two lookups doing so in opposite directions would wait for each other forever.
+ */
+@Service
+public class CustomerIdentityCache {
+
+    private final CustomerRepository customerRepository;
+    private final Cache<String, Optional<CustomerIdentity>> byEmail;
+    private final Cache<UUID, CustomerIdentity> byUuid;
+
+    public CustomerIdentityCache(
+            CustomerRepository customerRepository,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.customer-identity-cache.maximum-size}") long maximumSize,
+            @Value("${banksimulator.customer-identity-cache.ttl-ms}") long ttlMs) {
+        this.customerRepository = customerRepository;
+        this.byEmail = build(maximumSize, ttlMs);
+        this.byUuid = build(maximumSize, ttlMs);
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "customerIdentitiesByEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUuid, "customerIdentitiesByUuid");
+    }
+
+    private static <K, V> Cache<K, V> build(long maximumSize, long ttlMs) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<CustomerIdentity> findByEmail(String email) {
+        CustomerIdentity[] loaded = new CustomerIdentity[1];
+        Optional<CustomerIdentity> identity =
+                byEmail.get(
+                        email,
+                        key -> {
+                            Optional<CustomerIdentity> found =
+                                    customerRepository.findIdentityByEmail(key);
+                            loaded[0] = found.orElse(null);
+                            return found;
+                        });
+        if (loaded[0] != null) byUuid.put(loaded[0].getUuid(), loaded[0]);
+        return identity;
+    }
+
+    public Optional<CustomerIdentity> findByUuid(UUID uuid) {
+        CustomerIdentity[] loaded = new CustomerIdentity[1];
+        CustomerIdentity identity =
+                byUuid.get(
+                        uuid,
+                        key -> {
+                            loaded[0] = customerRepository.findIdentityByUuid(key).orElse(null);
+                            return loaded[0];
+                        });
+        if (loaded[0] != null) byEmail.put(loaded[0].getEmail(), Optional.of(loaded[0]));
+        return Optional.ofNullable(identity);
+    }
+
+    /**
+     * Drops the customer now and again once the current transaction completed, so a lookup racing
+     * the change cannot keep the old identity or a stale unknown email cached.
+     */
+    public void evict(UUID uuid, String... emails) {
+        invalidate(uuid, emails);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            invalidate(uuid, emails);
+                        }
+                    });
+        }
+    }
+
+    private void invalidate(UUID uuid, String... emails) {
+        if (uuid != null) byUuid.invalidate(uuid);
+        for (String email : emails) {
+            if (email != null) byEmail.invalidate(email);
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package si.endava.banksimulator.services;
 
 import io.micrometer.core.instrument.util.StringUtils;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.balances.BalanceOperations;
+import si.endava.banksimulator.balances.PostingJournal;
+import si.endava.banksimulator.dtos.CustomerBalanceDTO;
 import si.endava.banksimulator.dtos.CustomerDTO;
 import si.endava.banksimulator.entities.Bank;
 import si.endava.banksimulator.entities.Customer;
-import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientInterface;
 import si.endava.banksimulator.mappers.CustomerMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
 import si.endava.banksimulator.repositories.CustomerRepository;
 
 @Service
@@ -25,10 +34,25 @@ public class CustomerService {
 
     private final BankService bankService;
 
-    private final PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface;
+    private final BalanceOperations balanceOperations;
+
+    private final PaymentNetworkSync paymentNetworkSync;
+
+    private final CustomerValidationCache customerValidationCache;
+
+    private final CustomerIdentityCache customerIdentityCache;
+
+    private final ContactIndex contactIndex;
+
+    private final TransactionRollups transactionRollups;
+
+    private final PostingJournal postingJournal;
+
+    @Value("${banksimulator.balances.mode:entity}")
+    private String balancesMode;
 
     public List<CustomerDTO> getAllCustomers() {
-        return customerRepository.findAll().stream()
+        return customerRepository.findAllWithBank().stream()
                 .map(customerMapper::customerToCustomerDTO)
                 .collect(Collectors.toList());
     }
@@ -52,6 +76,38 @@ public class CustomerService {
                                         "Customer with uuid " + uuid + " not exists."));
     }
 
+    /**
+     * The balances of a customer as of {@code asOf}, or now if it is {@code null}, replayed from
+     * the nearest {@link PostingJournal} snapshot. The journal, and with it the history, is kept in
+     * the journal balance mode from the first transfer of the customer on; the other modes keep no
+     * history at all, so they answer with 501 instead of a missing history.
+     */
+    public CustomerBalanceDTO getBalanceAsOf(UUID uuid, LocalDateTime asOf) {
+        if (!"journal".equals(balancesMode))
+            throw new ResponseStatusException(
+                    HttpStatus.NOT_IMPLEMENTED,
+                    "Balance history is only kept in the journal balance mode, not in "
+                            + balancesMode);
+        Customer customer = findByUuid(uuid);
+        LocalDateTime pointInTime = asOf == null ? LocalDateTime.now() : asOf;
+        PostingJournal.Balances balances =
+                Optional.ofNullable(postingJournal.balancesAsOf(customer.getId(), pointInTime))
+                        .orElseThrow(
+                                () ->
+                                        new ElementNotFoundException(
+                                                "Customer with uuid "
+                                                        + uuid
+                                                        + " has no balance history as of "
+                                                        + pointInTime
+                                                        + "."));
+        return CustomerBalanceDTO.builder()
+                .customerUuid(uuid)
+                .asOf(pointInTime)
+                .balance(balances.getBalance())
+                .suspenseBalance(balances.getSuspenseBalance())
+                .build();
+    }
+
     public CustomerDTO findByEmailDTO(String email) {
         Customer customer =
                 customerRepository
@@ -63,10 +119,12 @@ public class CustomerService {
         return customerMapper.customerToCustomerDTO(customer);
     }
 
+    /** Resolves the email through {@link CustomerIdentityCache} and loads the customer by id. */
     public Customer findByEmail(String email) {
         Customer customer =
-                customerRepository
+                customerIdentityCache
                         .findByEmail(email)
+                        .flatMap(identity -> customerRepository.findById(identity.getId()))
                         .orElseThrow(
                                 () ->
                                         new ElementNotFoundException(
@@ -74,8 +132,20 @@ public class CustomerService {
         return customer;
     }
 
+    /** Loads the customers with the given emails in one query; unknown emails are left out. */
+    public Map<String, Customer> findByEmails(Collection<String> emails) {
+        return customerRepository.findByEmailIn(emails).stream()
+                .collect(Collectors.toMap(Customer::getEmail, Function.identity()));
+    }
+
     public Boolean checkIfExistsCustomerByEmailAndBank(String email, Bank bank) {
-        return customerRepository.existsCustomerByEmailAndBank(email, bank);
+        return customerIdentityCache
+                .findByEmail(email)
+                .map(
+                        identity ->
+                                identity.getBankId() != null
+                                        && identity.getBankId() == bank.getId())
+                .orElse(false);
     }
 
     @Transactional
@@ -90,14 +160,16 @@ public class CustomerService {
         newCustomer.setBank(bankService.findByBic(customer.getBank().getBic()));
         newCustomer.setUuid(UUID.randomUUID());
         customerRepository.save(newCustomer);
+        customerIdentityCache.evict(newCustomer.getUuid(), newCustomer.getEmail());
         if (newCustomer.getPaymentNetwork()) {
-            paymentNetworkFeignClientInterface.registerNewCustomer(
+            paymentNetworkSync.registerCustomer(
                     customerMapper.customerToPaymentNetworkCustomerDTO(newCustomer));
         }
 
         return newCustomer;
     }
 
+    @Transactional
     public void deleteCustomer(UUID uuid) {
         Customer customer =
                 customerRepository
@@ -106,8 +178,13 @@ public class CustomerService {
                                 () ->
                                         new ElementNotFoundException(
                                                 "Customer with uuid " + uuid + " not exists."));
-        paymentNetworkFeignClientInterface.unregisterCustomer(uuid);
+        balanceOperations.forget(customer);
         customerRepository.deleteById(customer.getId());
+        transactionRollups.forgetCustomer(customer.getId());
+        customerIdentityCache.evict(customer.getUuid(), customer.getEmail());
+        contactIndex.evict(customer.getId());
+        paymentNetworkSync.unregisterCustomer(
+                customerMapper.customerToPaymentNetworkCustomerDTO(customer));
     }
 
     @Transactional
@@ -127,22 +204,28 @@ public class CustomerService {
                     "Customer with email " + newCustomerEntity.getEmail() + " already exists");
 
         Boolean existingNetwork = existingCustomer.getPaymentNetwork();
+        String existingEmail = existingCustomer.getEmail();
         customerMapper.mapToCustomer(newCustomerEntity, existingCustomer);
 
+        balanceOperations.beforeUpdate(existingCustomer);
         customerRepository.save(existingCustomer);
+        customerIdentityCache.evict(uuid, existingEmail, existingCustomer.getEmail());
         if (existingNetwork) {
             if (existingCustomer.getPaymentNetwork()) {
-                paymentNetworkFeignClientInterface.updateCustomer(
-                        uuid, customerMapper.customerToPaymentNetworkCustomerDTO(existingCustomer));
+                paymentNetworkSync.updateCustomer(
+                        customerMapper.customerToPaymentNetworkCustomerDTO(existingCustomer));
             } else {
-                paymentNetworkFeignClientInterface.unregisterCustomer(uuid);
+                paymentNetworkSync.unregisterCustomer(
+                        customerMapper.customerToPaymentNetworkCustomerDTO(existingCustomer));
             }
         } else {
             if (existingCustomer.getPaymentNetwork()) {
-                paymentNetworkFeignClientInterface.registerNewCustomer(
+                paymentNetworkSync.registerCustomer(
                         customerMapper.customerToPaymentNetworkCustomerDTO(existingCustomer));
             }
         }
+        if (existingNetwork && !existingEmail.equals(existingCustomer.getEmail()))
+            customerValidationCache.invalidate(existingEmail);
 
         return customerMapper.customerToCustomerDTO(existingCustomer);
     }
@@ -0,0 +1,125 @@
+package si.endava.banksimulator.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientInterface;
+
+/**
+ * Caches {@link PaymentNetworkFeignClientInterface#validateCustomer} per email. Valid and invalid
+ * answers expire after their own TTL, concurrent lookups of one email share a single call, and
+ * failed calls are not cached. Hits, misses and load times are published as the {@code
+ * customerValidation} cache metrics.
+ *
+ * <p>The call runs on the thread that missed, outside any lock of the cache, so a virtual thread
+ * waiting on the payment network does not pin its carrier.
+ */
+@Service
+public class CustomerValidationCache {
+
+    private final PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface;
+    private final AsyncCache<String, Boolean> cache;
+
+    @Autowired
+    public CustomerValidationCache(
+            PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface,
+            MeterRegistry meterRegistry,
+            @Value("${banksimulator.validation-cache.maximum-size}") long maximumSize,
+            @Value("${banksimulator.validation-cache.valid-ttl-ms}") long validTtlMs,
+            @Value("${banksimulator.validation-cache.invalid-ttl-ms}") long invalidTtlMs) {
+        this(
+                paymentNetworkFeignClientInterface,
+                meterRegistry,
+                maximumSize,
+                validTtlMs,
+                invalidTtlMs,
+                Ticker.systemTicker());
+    }
+
+    CustomerValidationCache(
+            PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface,
+            MeterRegistry meterRegistry,
+            long maximumSize,
+            long validTtlMs,
+            long invalidTtlMs,
+            Ticker ticker) {
+        this.paymentNetworkFeignClientInterface = paymentNetworkFeignClientInterface;
+        this.cache =
+                Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfter(
+                                new ValidationExpiry(
+                                        TimeUnit.MILLISECONDS.toNanos(validTtlMs),
+                                        TimeUnit.MILLISECONDS.toNanos(invalidTtlMs)))
+                        .ticker(ticker)
+                        .recordStats()
+                        .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customerValidation");
+    }
+
+    public boolean isValid(String email) {
+        CompletableFuture<Boolean> loading = new CompletableFuture<>();
+        CompletableFuture<Boolean> cached = cache.get(email, (key, executor) -> loading);
+        if (cached == loading) {
+            try {
+                loading.complete(load(email));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /** Drops the cached answer after the customer was registered, changed or removed. */
+    public void invalidate(String email) {
+        cache.synchronous().invalidate(email);
+    }
+
+    private Boolean load(String email) {
+        return Boolean.TRUE.equals(
+                paymentNetworkFeignClientInterface.validateCustomer(email).getValid());
+    }
+
+    private static class ValidationExpiry implements Expiry<String, Boolean> {
+
+        private final long validTtlNanos;
+        private final long invalidTtlNanos;
+
+        ValidationExpiry(long validTtlNanos, long invalidTtlNanos) {
+            this.validTtlNanos = validTtlNanos;
+            this.invalidTtlNanos = invalidTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String email, Boolean valid, long currentTime) {
+            return valid ? validTtlNanos : invalidTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                String email, Boolean valid, long currentTime, long currentDuration) {
+            return expireAfterCreate(email, valid, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                String email, Boolean valid, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
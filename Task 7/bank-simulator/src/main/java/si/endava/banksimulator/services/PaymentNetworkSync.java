@@ -0,0 +1,60 @@
+package si.endava.banksimulator.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import si.endava.banksimulator.enums.SyncEntityType;
+import si.endava.banksimulator.enums.SyncOperation;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.sync.PaymentNetworkSyncQueue;
+import si.endava.banksimulator.feignClient.sync.PaymentNetworkSyncRelay;
+
+/**
+ * Queues bank and customer changes for the payment network in the current transaction. They are
+ * sent by {@link PaymentNetworkSyncRelay} once committed, so request threads never wait for the
+ * network.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentNetworkSync {
+
+    private final PaymentNetworkSyncQueue paymentNetworkSyncQueue;
+    private final ObjectMapper objectMapper;
+
+    public void registerBank(PaymentNetworkBankDTO bank) {
+        enqueue(bank.getUuid(), SyncEntityType.BANK, SyncOperation.REGISTER, bank);
+    }
+
+    public void updateBank(PaymentNetworkBankDTO bank) {
+        enqueue(bank.getUuid(), SyncEntityType.BANK, SyncOperation.UPDATE, bank);
+    }
+
+    public void unregisterBank(PaymentNetworkBankDTO bank) {
+        enqueue(bank.getUuid(), SyncEntityType.BANK, SyncOperation.UNREGISTER, bank);
+    }
+
+    public void registerCustomer(PaymentNetworkCustomerDTO customer) {
+        enqueue(customer.getUuid(), SyncEntityType.CUSTOMER, SyncOperation.REGISTER, customer);
+    }
+
+    public void updateCustomer(PaymentNetworkCustomerDTO customer) {
+        enqueue(customer.getUuid(), SyncEntityType.CUSTOMER, SyncOperation.UPDATE, customer);
+    }
+
+    public void unregisterCustomer(PaymentNetworkCustomerDTO customer) {
+        enqueue(customer.getUuid(), SyncEntityType.CUSTOMER, SyncOperation.UNREGISTER, customer);
+    }
+
+    private void enqueue(
+            UUID uuid, SyncEntityType entityType, SyncOperation operation, Object entity) {
+        try {
+            paymentNetworkSyncQueue.enqueue(
+                    uuid, entityType, operation, objectMapper.writeValueAsString(entity));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unwritable sync payload of " + uuid, e);
+        }
+    }
+}
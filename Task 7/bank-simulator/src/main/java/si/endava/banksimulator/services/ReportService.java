@@ -0,0 +1,166 @@
+package si.endava.banksimulator.services;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.dtos.BalanceReportDTO;
+import si.endava.banksimulator.dtos.TransactionVolumeDTO;
+import si.endava.banksimulator.enums.ReportBucket;
+import si.endava.banksimulator.enums.ReportDimension;
+import si.endava.banksimulator.enums.TransactionStatus;
+import si.endava.banksimulator.reports.TransactionRollups;
+
+/** Aggregates computed by the database, grouped by the requested {@link ReportDimension}s. */
+@Service
+@RequiredArgsConstructor
+public class ReportService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction count and amounts per group, read from the rollups of {@link TransactionRollups}
+     * and bucketed by the day, month or year of the transactions unless {@code bucket} is {@code
+     * null}. {@code from} is inclusive and {@code to} exclusive; {@code null} leaves them open.
+     */
+    public List<TransactionVolumeDTO> getTransactionVolumes(
+            Collection<ReportDimension> groupBy,
+            ReportBucket bucket,
+            LocalDate from,
+            LocalDate to,
+            TransactionStatus transactionStatus) {
+        if (from != null && to != null && !from.isBefore(to))
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date range");
+        Set<ReportDimension> dimensions = dimensions(groupBy);
+
+        List<String> columns = new ArrayList<>();
+        StringBuilder joins = new StringBuilder();
+        if (dimensions.contains(ReportDimension.BANK)) {
+            columns.add("b.bank_uuid");
+            joins.append(" join bank b on b.bank_id = r.bank_id");
+        }
+        if (dimensions.contains(ReportDimension.CUSTOMER)) {
+            columns.add("c.customer_uuid");
+            joins.append(" join customer c on c.customer_id = r.customer_id");
+        }
+        if (dimensions.contains(ReportDimension.CURRENCY)) columns.add("r.currency");
+        if (dimensions.contains(ReportDimension.STATUS)) columns.add("r.status");
+        if (bucket != null) columns.add(period(bucket));
+
+        List<String> predicates = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            predicates.add("r.transaction_day >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            predicates.add("r.transaction_day < ?");
+            args.add(Date.valueOf(to));
+        }
+        if (transactionStatus != null) {
+            predicates.add("r.status = ?");
+            args.add(transactionStatus.name());
+        }
+
+        String groups = String.join(", ", columns);
+        StringBuilder sql = new StringBuilder("select ");
+        for (String column : columns) sql.append(column).append(", ");
+        sql.append(
+                        "sum(r.transaction_count), sum(r.source_amount), sum(r.target_amount) from"
+                                + " transaction_rollup r")
+                .append(joins);
+        if (!predicates.isEmpty()) sql.append(" where ").append(String.join(" and ", predicates));
+        if (!columns.isEmpty()) sql.append(" group by ").append(groups);
+        sql.append(" having sum(r.transaction_count) <> 0");
+        if (!columns.isEmpty()) sql.append(" order by ").append(groups);
+
+        return jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> {
+                    int column = 1;
+                    TransactionVolumeDTO.TransactionVolumeDTOBuilder volume =
+                            TransactionVolumeDTO.builder();
+                    if (dimensions.contains(ReportDimension.BANK))
+                        volume.bankUuid(rs.getObject(column++, UUID.class));
+                    if (dimensions.contains(ReportDimension.CUSTOMER))
+                        volume.customerUuid(rs.getObject(column++, UUID.class));
+                    if (dimensions.contains(ReportDimension.CURRENCY))
+                        volume.currency(rs.getString(column++));
+                    if (dimensions.contains(ReportDimension.STATUS))
+                        volume.transactionStatus(TransactionStatus.valueOf(rs.getString(column++)));
+                    if (bucket != null) volume.period(rs.getDate(column++).toLocalDate());
+                    return volume.transactionCount(rs.getLong(column++))
+                            .sourceAmount(rs.getBigDecimal(column++))
+                            .targetAmount(rs.getBigDecimal(column))
+                            .build();
+                },
+                args.toArray());
+    }
+
+    /**
+     * Customer count and balances per bank and currency. In the ledger and journal balance modes
+     * the customer table, and with it this report, trails the balances by up to one write-behind or
+     * snapshot interval.
+     */
+    public List<BalanceReportDTO> getBalances(Collection<ReportDimension> groupBy) {
+        Set<ReportDimension> dimensions = dimensions(groupBy);
+        for (ReportDimension dimension : dimensions) {
+            if (dimension != ReportDimension.BANK && dimension != ReportDimension.CURRENCY)
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST, "Balances cannot be grouped by " + dimension);
+        }
+
+        List<String> columns = new ArrayList<>();
+        if (dimensions.contains(ReportDimension.BANK)) columns.add("b.bank_uuid");
+        if (dimensions.contains(ReportDimension.CURRENCY)) columns.add("b.bank_currency");
+        String groups = String.join(", ", columns);
+        StringBuilder sql = new StringBuilder("select ");
+        for (String column : columns) sql.append(column).append(", ");
+        sql.append(
+                "count(*), sum(c.balance), sum(c.suspense_balance) from customer c join bank b on"
+                        + " b.bank_id = c.bank_id");
+        if (!columns.isEmpty())
+            sql.append(" group by ").append(groups).append(" order by ").append(groups);
+
+        return jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) -> {
+                    int column = 1;
+                    BalanceReportDTO.BalanceReportDTOBuilder balance = BalanceReportDTO.builder();
+                    if (dimensions.contains(ReportDimension.BANK))
+                        balance.bankUuid(rs.getObject(column++, UUID.class));
+                    if (dimensions.contains(ReportDimension.CURRENCY))
+                        balance.currency(rs.getString(column++));
+                    return balance.customerCount(rs.getLong(column++))
+                            .balance(rs.getBigDecimal(column++))
+                            .suspenseBalance(rs.getBigDecimal(column))
+                            .build();
+                });
+    }
+
+    private static Set<ReportDimension> dimensions(Collection<ReportDimension> groupBy) {
+        Set<ReportDimension> dimensions = EnumSet.noneOf(ReportDimension.class);
+        if (groupBy != null) dimensions.addAll(groupBy);
+        return dimensions;
+    }
+
+    private static String period(ReportBucket bucket) {
+        switch (bucket) {
+            case MONTH:
+                return "date_trunc('MONTH', r.transaction_day)";
+            case YEAR:
+                return "date_trunc('YEAR', r.transaction_day)";
+            default:
+                return "r.transaction_day";
+        }
+    }
+}
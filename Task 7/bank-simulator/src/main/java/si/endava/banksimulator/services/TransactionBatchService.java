@@ -0,0 +1,204 @@
+package si.endava.banksimulator.services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.dtos.BatchTransactionDTO;
+import si.endava.banksimulator.dtos.BatchTransactionResultDTO;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.repositories.CustomerIdentity;
+import si.endava.banksimulator.threads.StripedExecutor;
+
+/**
+ * Applies many transfers at once. Transfers are read in chunks of {@code
+ * banksimulator.transactions.batch-chunk-size}, so a batch is never held in memory as a whole.
+ * Within a chunk they are grouped by source customer and every group runs in one database
+ * transaction on the stripe of its source, so the source is loaded once and the transaction rows
+ * are flushed as a single JDBC batch. A group that loses a concurrent update of a balance is
+ * retried as a whole. External targets are validated before the group is handed to its stripe.
+ */
+@Service
+public class TransactionBatchService {
+
+    private final TransactionService transactionService;
+    private final CustomerService customerService;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrencyRetry concurrencyRetry;
+    private final CustomerIdentityCache customerIdentityCache;
+    private final StripedExecutor stripedExecutor;
+    private final int chunkSize;
+
+    Logger logger = LoggerFactory.getLogger(TransactionBatchService.class);
+
+    public TransactionBatchService(
+            TransactionService transactionService,
+            CustomerService customerService,
+            TransactionTemplate transactionTemplate,
+            ConcurrencyRetry concurrencyRetry,
+            CustomerIdentityCache customerIdentityCache,
+            StripedExecutor stripedExecutor,
+            @Value("${banksimulator.transactions.batch-chunk-size}") int chunkSize) {
+        this.transactionService = transactionService;
+        this.customerService = customerService;
+        this.transactionTemplate = transactionTemplate;
+        this.concurrencyRetry = concurrencyRetry;
+        this.customerIdentityCache = customerIdentityCache;
+        this.stripedExecutor = stripedExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Hands the results of every source customer to {@code results} once its group committed. A
+     * transaction that cannot be read ends the batch with a failed result at its index; the
+     * transactions before it are applied.
+     */
+    public void addNewTransactions(
+            Iterator<BatchTransactionDTO> transactions,
+            Consumer<List<BatchTransactionResultDTO>> results) {
+        int offset = 0;
+        boolean more = true;
+        while (more) {
+            List<BatchTransactionDTO> chunk = new ArrayList<>();
+            boolean unreadable = false;
+            try {
+                while (chunk.size() < chunkSize && transactions.hasNext())
+                    chunk.add(transactions.next());
+                more = chunk.size() == chunkSize;
+            } catch (RuntimeException e) {
+                logger.error("Error: " + e);
+                unreadable = true;
+                more = false;
+            }
+            addChunk(offset, chunk, results);
+            offset += chunk.size();
+            if (unreadable)
+                results.accept(
+                        Collections.singletonList(failed(offset, null, "Invalid transactions")));
+        }
+    }
+
+    private void addChunk(
+            int offset,
+            List<BatchTransactionDTO> chunk,
+            Consumer<List<BatchTransactionResultDTO>> results) {
+        Map<UUID, Map<Integer, BatchTransactionDTO>> groups = new LinkedHashMap<>();
+        List<BatchTransactionResultDTO> invalid = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchTransactionDTO transaction = chunk.get(i);
+            try {
+                validate(transaction);
+                groups.computeIfAbsent(transaction.getCustomerUuid(), uuid -> new LinkedHashMap<>())
+                        .put(offset + i, transaction);
+            } catch (ResponseStatusException e) {
+                invalid.add(failed(offset + i, transaction.getCustomerUuid(), e.getReason()));
+            }
+        }
+        if (!invalid.isEmpty()) results.accept(invalid);
+
+        groups.forEach((customerUuid, group) -> results.accept(addGroup(customerUuid, group)));
+    }
+
+    private List<BatchTransactionResultDTO> addGroup(
+            UUID customerUuid, Map<Integer, BatchTransactionDTO> group) {
+        try {
+            Optional<CustomerIdentity> source = customerIdentityCache.findByUuid(customerUuid);
+            List<Boolean> targetsValid = new ArrayList<>(group.size());
+            for (BatchTransactionDTO transaction : group.values()) {
+                targetsValid.add(
+                        transactionService.isValidExternalTarget(
+                                source.orElse(null), transaction.getEmail()));
+            }
+            return stripedExecutor.execute(
+                    source.map(CustomerIdentity::getId).orElse(0L),
+                    () ->
+                            concurrencyRetry.execute(
+                                    () ->
+                                            transactionTemplate.execute(
+                                                    status ->
+                                                            addGroupOnce(
+                                                                    customerUuid,
+                                                                    group,
+                                                                    targetsValid))));
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+            String error = e instanceof ElementNotFoundException ? e.getMessage() : e.toString();
+            return group.keySet().stream()
+                    .map(index -> failed(index, customerUuid, error))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private List<BatchTransactionResultDTO> addGroupOnce(
+            UUID customerUuid,
+            Map<Integer, BatchTransactionDTO> group,
+            List<Boolean> targetsValid) {
+        Customer source = customerService.findByUuid(customerUuid);
+        List<BatchTransactionResultDTO> groupResults = new ArrayList<>(group.size());
+        int i = 0;
+        for (Map.Entry<Integer, BatchTransactionDTO> transaction : group.entrySet()) {
+            groupResults.add(
+                    addTransaction(
+                            source,
+                            transaction.getKey(),
+                            transaction.getValue(),
+                            targetsValid.get(i++)));
+        }
+        return groupResults;
+    }
+
+    private BatchTransactionResultDTO addTransaction(
+            Customer source, int index, BatchTransactionDTO transaction, boolean targetValid) {
+        try {
+            Transaction saved =
+                    transactionService.addNewTransaction(
+                            source,
+                            transaction.getEmail(),
+                            transaction.getSourceAmount(),
+                            targetValid);
+            return BatchTransactionResultDTO.builder()
+                    .index(index)
+                    .customerUuid(source.getUuid())
+                    .transactionUuid(saved.getUuid())
+                    .transactionStatus(saved.getTransactionStatus())
+                    .build();
+        } catch (ElementNotFoundException e) {
+            return failed(index, source.getUuid(), e.getMessage());
+        } catch (ResponseStatusException e) {
+            return failed(index, source.getUuid(), e.getReason());
+        }
+    }
+
+    private static BatchTransactionResultDTO failed(int index, UUID customerUuid, String error) {
+        return BatchTransactionResultDTO.builder()
+                .index(index)
+                .customerUuid(customerUuid)
+                .error(error)
+                .build();
+    }
+
+    private void validate(BatchTransactionDTO transaction) {
+        if (transaction.getCustomerUuid() == null)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid customer uuid");
+        if (transaction.getEmail() == null || transaction.getEmail().isEmpty())
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid email");
+        if (transaction.getSourceAmount() == null
+                || transaction.getSourceAmount().compareTo(BigDecimal.ZERO) <= 0)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid source amount");
+    }
+}
@@ -2,26 +2,53 @@ package si.endava.banksimulator.services;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.balances.BalanceOperations;
 import si.endava.banksimulator.dtos.TransactionDTO;
+import si.endava.banksimulator.dtos.TransactionPageDTO;
+import si.endava.banksimulator.dtos.TransactionSummaryDTO;
 import si.endava.banksimulator.entities.Customer;
 import si.endava.banksimulator.entities.Transaction;
 import si.endava.banksimulator.enums.TransactionStatus;
-import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientInterface;
+import si.endava.banksimulator.kafka.KafkaTopics;
+import si.endava.banksimulator.kafka.events.NewPaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEvent;
+import si.endava.banksimulator.kafka.events.TransactionNotificationEvent;
+import si.endava.banksimulator.kafka.outbox.PaymentOutbox;
 import si.endava.banksimulator.mappers.CustomerMapper;
 import si.endava.banksimulator.mappers.TransactionMapper;
-import si.endava.banksimulator.repositories.CustomerRepository;
+import si.endava.banksimulator.reports.TransactionRollups;
+import si.endava.banksimulator.repositories.CustomerIdentity;
+import si.endava.banksimulator.repositories.TransactionCursor;
+import si.endava.banksimulator.repositories.TransactionFilter;
+import si.endava.banksimulator.repositories.TransactionParties;
 import si.endava.banksimulator.repositories.TransactionRepository;
+import si.endava.banksimulator.threads.StripedExecutor;
 
 @Service
 @RequiredArgsConstructor
@@ -32,14 +59,29 @@ public class TransactionService {
 
     private final CustomerService customerService;
 
-    private final CustomerRepository customerRepository;
+    private final BalanceOperations balanceOperations;
 
     private final CustomerMapper customerMapper;
     private final ContactService contactService;
 
-    private final PaymentNetworkFeignClientInterface paymentNetworkFeignClientInterface;
+    private final CustomerValidationCache customerValidationCache;
 
-    private final KafkaTemplate<String, String> kafkaTemp;
+    private final PaymentOutbox paymentOutbox;
+
+    private final TransactionRollups transactionRollups;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrencyRetry concurrencyRetry;
+
+    private final CustomerIdentityCache customerIdentityCache;
+    private final StripedExecutor stripedExecutor;
+
+    @Value("${banksimulator.transactions.page-size-max}")
+    private int pageSizeMax;
+
+    @Value("${banksimulator.transactions.stream-fetch-size}")
+    private int streamFetchSize;
 
     Logger logger = LoggerFactory.getLogger(TransactionService.class);
 
@@ -47,97 +89,469 @@ public class TransactionService {
     public Transaction internalTransaction(
             Customer source, String targetEmail, Transaction transaction) {
         Customer target = customerService.findByEmail(targetEmail);
-        source.setSuspenseBalance(
-                source.getSuspenseBalance().subtract(transaction.getSourceAmount()));
-        target.setBalance(target.getBalance().add(transaction.getTargetAmount()));
+        balanceOperations.transfer(
+                source, target, transaction.getSourceAmount(), transaction.getTargetAmount());
         transaction.setTransactionStatus(TransactionStatus.COMPLETED);
 
-        customerRepository.save(source);
-        customerRepository.save(target);
         transactionRepository.save(transaction);
+        transactionRollups.record(transaction, null);
 
         return transaction;
     }
 
+    /**
+     * Sends a transfer to the payment network through the outbox, or declines it and releases its
+     * reservation when {@code targetValid} is false. A transfer that fails to be stored fails the
+     * caller's database transaction and is stored as declined in one of its own once that one
+     * rolled back.
+     */
     public Transaction externalTransaction(
-            Customer source, String targetEmail, Transaction transaction) throws Exception {
+            Customer source, String targetEmail, Transaction transaction, boolean targetValid) {
+        if (!targetValid) {
+            logger.error("Error: Target customer invalid.");
+            balanceOperations.release(source, transaction.getSourceAmount());
+            transaction.setTransactionStatus(TransactionStatus.DECLINED);
+            transactionRepository.save(transaction);
+            transactionRollups.record(transaction, null);
+            return transaction;
+        }
 
+        transaction.setTransactionStatus(TransactionStatus.PENDING);
         try {
-            if (!validateTargetCustomer(targetEmail))
-                throw new Exception("Target customer invalid.");
-            transaction.setTransactionStatus(TransactionStatus.PENDING);
-            String dataToSend =
-                    source.getUuid().toString()
-                            + " "
-                            + targetEmail
-                            + " "
-                            + transaction.getSourceAmount().toString()
-                            + " "
-                            + transaction.getUuid().toString();
-            kafkaTemp.send("paymentNew", dataToSend);
-
-        } catch (Exception e) {
+            transactionTemplate.executeWithoutResult(
+                    status -> {
+                        transactionRepository.save(transaction);
+                        transactionRollups.record(transaction, null);
+                        paymentOutbox.append(
+                                KafkaTopics.PAYMENT_NEW,
+                                source.getUuid().toString(),
+                                new NewPaymentEvent(
+                                        source.getUuid(),
+                                        targetEmail,
+                                        transaction.getSourceAmount(),
+                                        transaction.getUuid()));
+                    });
+        } catch (RuntimeException e) {
             logger.error("Error: " + e);
-            transaction.setTransactionStatus(TransactionStatus.DECLINED);
-            throw new Exception("Error occurred while sending payment to network.", e);
-        } finally {
-            transactionRepository.save(transaction);
+            declineAfterRollback(transaction);
+            throw e;
         }
 
         return transaction;
     }
 
-    @KafkaListener(topics = "completeTransaction", groupId = "group")
-    public void completeTransactionFromTopic(String incomingTransactionDetails) {
-        String[] split = incomingTransactionDetails.split(" ");
-        UUID transactionUuid = UUID.fromString(split[0]);
-        String bankBIC = split[1];
+    /**
+     * Stores {@code transaction} as declined in a database transaction of its own after the current
+     * one rolled back, so the write neither joins a transaction that can only roll back nor waits
+     * for the locks it holds.
+     */
+    private void declineAfterRollback(Transaction transaction) {
+        Runnable decline =
+                () -> {
+                    TransactionTemplate ownTransaction =
+                            new TransactionTemplate(transactionTemplate.getTransactionManager());
+                    ownTransaction.setPropagationBehavior(
+                            TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                    transaction.setTransactionStatus(TransactionStatus.DECLINED);
+                    ownTransaction.executeWithoutResult(
+                            status -> {
+                                transactionRepository.save(transaction);
+                                transactionRollups.record(transaction, null);
+                            });
+                };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            decline.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status != STATUS_COMMITTED) decline.run();
+                    }
+                });
+    }
 
-        completeTransaction(transactionUuid, bankBIC);
+    @KafkaListener(
+            topics = KafkaTopics.COMPLETE_TRANSACTION,
+            groupId = "group",
+            containerFactory = "batchFactory")
+    public void completeTransactionsFromTopic(List<ConsumerRecord<String, PaymentEvent>> records) {
+        completeTransactions(notifications(records));
+    }
+
+    /**
+     * Completes a poll of transactions on the stripes of their targets. Every stripe completes its
+     * share in one database transaction: the transactions and their targets are loaded with one
+     * query each and every target is credited once with the sum of its transfers. Only pending
+     * transactions are credited, and they are marked credited in the same transaction, so a
+     * redelivered event credits nothing. The notifications go to the outbox in the same
+     * transaction, which is retried as a whole when it loses a concurrent update of a target.
+     */
+    public void completeTransactions(List<TransactionNotificationEvent> events) {
+        Map<UUID, TransactionParties> parties = findPartiesByUuid(events);
+        stripedExecutor.executeGrouped(
+                events,
+                event -> targetIdOf(parties.get(event.getTransactionUuid())),
+                group ->
+                        runOrRequeue(
+                                KafkaTopics.COMPLETE_TRANSACTION,
+                                group,
+                                () -> completeTransactionsOnce(group)));
+    }
+
+    private void completeTransactionsOnce(List<TransactionNotificationEvent> events) {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    Map<UUID, Transaction> transactions = findTransactionsByUuid(events);
+                    Map<String, Customer> targets =
+                            customerService.findByEmails(
+                                    transactions.values().stream()
+                                            .map(transaction -> transaction.getContact().getEmail())
+                                            .collect(Collectors.toSet()));
+
+                    Map<Customer, BigDecimal> credits = new IdentityHashMap<>();
+                    Map<Transaction, TransactionStatus> previousStatuses = new IdentityHashMap<>();
+                    List<ProducerRecord<String, PaymentEvent>> notifications = new ArrayList<>();
+                    for (TransactionNotificationEvent event : events) {
+                        Transaction toComplete = transactions.get(event.getTransactionUuid());
+                        if (toComplete == null || !isDue(toComplete, TransactionStatus.PENDING))
+                            continue;
+                        if (previousStatuses.containsKey(toComplete)) continue;
+                        Customer target = targets.get(toComplete.getContact().getEmail());
+                        if (target == null) {
+                            logger.error(
+                                    "Error: Customer with email "
+                                            + toComplete.getContact().getEmail()
+                                            + " not found.");
+                            continue;
+                        }
+                        credits.merge(target, toComplete.getTargetAmount(), BigDecimal::add);
+                        previousStatuses.put(toComplete, toComplete.getTransactionStatus());
+                        notifications.add(
+                                new ProducerRecord<>(
+                                        KafkaTopics.NOTIFICATION_FINALIZE_COMPLETED_TRANSACTION,
+                                        event.getTransactionUuid().toString(),
+                                        event));
+                    }
+                    credits.forEach(balanceOperations::credit);
+                    previousStatuses
+                            .keySet()
+                            .forEach(
+                                    transaction ->
+                                            transaction.setTransactionStatus(
+                                                    TransactionStatus.CREDITED));
+
+                    transactionRepository.saveAll(previousStatuses.keySet());
+                    transactionRollups.recordAll(previousStatuses);
+                    paymentOutbox.appendAll(notifications);
+                });
     }
 
     public void completeTransaction(UUID transactionUuid, String bankBIC) {
+        stripedExecutor.execute(
+                targetIdOf(findParties(transactionUuid)),
+                () -> {
+                    concurrencyRetry.run(
+                            () ->
+                                    transactionTemplate.executeWithoutResult(
+                                            status ->
+                                                    completeTransactionOnce(
+                                                            transactionUuid, bankBIC)));
+                    return null;
+                });
+    }
+
+    private void completeTransactionOnce(UUID transactionUuid, String bankBIC) {
         final Transaction toComplete = findTransactionByUuid(transactionUuid);
+        if (!isDue(toComplete, TransactionStatus.PENDING)) return;
         final Customer target = customerService.findByEmail(toComplete.getContact().getEmail());
-        target.setBalance(target.getBalance().add(toComplete.getTargetAmount()));
+        final TransactionStatus previous = toComplete.getTransactionStatus();
+        balanceOperations.credit(target, toComplete.getTargetAmount());
+        toComplete.setTransactionStatus(TransactionStatus.CREDITED);
 
-        customerRepository.save(target);
+        transactionRepository.save(toComplete);
+        transactionRollups.record(toComplete, previous);
 
-        String dataToSend = transactionUuid.toString() + " " + bankBIC;
-        kafkaTemp.send("notificationFinalizeCompletedTransaction", dataToSend);
+        paymentOutbox.append(
+                KafkaTopics.NOTIFICATION_FINALIZE_COMPLETED_TRANSACTION,
+                transactionUuid.toString(),
+                new TransactionNotificationEvent(transactionUuid, bankBIC));
     }
 
-    @KafkaListener(topics = "finalizeCompletedTransactionToBank", groupId = "group")
-    public void finalizeCompletedTransactionFromTopicForBank(String incomingTransactionDetails) {
-        String[] split = incomingTransactionDetails.split(" ");
-        UUID transactionUuid = UUID.fromString(split[0]);
-        String bankBIC = split[1];
+    @KafkaListener(
+            topics = KafkaTopics.FINALIZE_COMPLETED_TRANSACTION_TO_BANK,
+            groupId = "group",
+            containerFactory = "batchFactory")
+    public void finalizeCompletedTransactionsFromTopicForBank(
+            List<ConsumerRecord<String, PaymentEvent>> records) {
+        finalizeCompletedTransactions(notifications(records));
+    }
 
-        finalizeCompletedTransaction(transactionUuid, bankBIC);
+    /**
+     * Finalizes a poll of transactions on the stripes of their sources. Every stripe finalizes its
+     * share in one database transaction, settling every source customer once with the sum of its
+     * transfers, which is retried as a whole when it loses a concurrent update of a source or a
+     * transaction. Transactions already completed or declined are skipped, so a redelivered event
+     * settles nothing.
+     */
+    public void finalizeCompletedTransactions(List<TransactionNotificationEvent> events) {
+        Map<UUID, TransactionParties> parties = findPartiesByUuid(events);
+        stripedExecutor.executeGrouped(
+                events,
+                event -> sourceIdOf(parties.get(event.getTransactionUuid())),
+                group ->
+                        runOrRequeue(
+                                KafkaTopics.FINALIZE_COMPLETED_TRANSACTION_TO_BANK,
+                                group,
+                                () -> finalizeCompletedTransactionsOnce(group)));
+    }
+
+    private void finalizeCompletedTransactionsOnce(List<TransactionNotificationEvent> events) {
+        transactionTemplate.executeWithoutResult(
+                status -> {
+                    Map<UUID, Transaction> transactions = findTransactionsByUuid(events);
+
+                    Map<Customer, BigDecimal> settlements = new IdentityHashMap<>();
+                    Map<Transaction, TransactionStatus> previousStatuses = new IdentityHashMap<>();
+                    for (TransactionNotificationEvent event : events) {
+                        Transaction toFinalize = transactions.get(event.getTransactionUuid());
+                        if (toFinalize == null
+                                || !isDue(
+                                        toFinalize,
+                                        TransactionStatus.PENDING,
+                                        TransactionStatus.CREDITED)) continue;
+                        previousStatuses.put(toFinalize, toFinalize.getTransactionStatus());
+                        toFinalize.setTransactionStatus(TransactionStatus.COMPLETED);
+                        settlements.merge(
+                                toFinalize.getCustomer(),
+                                toFinalize.getSourceAmount(),
+                                BigDecimal::add);
+                    }
+                    settlements.forEach(balanceOperations::settle);
+
+                    transactionRepository.saveAll(transactions.values());
+                    transactionRollups.recordAll(previousStatuses);
+                });
     }
 
     public void finalizeCompletedTransaction(UUID transactionUuid, String bankBIC) {
+        stripedExecutor.execute(
+                sourceIdOf(findParties(transactionUuid)),
+                () -> {
+                    concurrencyRetry.run(
+                            () ->
+                                    transactionTemplate.executeWithoutResult(
+                                            status ->
+                                                    finalizeCompletedTransactionOnce(
+                                                            transactionUuid)));
+                    return null;
+                });
+    }
+
+    private void finalizeCompletedTransactionOnce(UUID transactionUuid) {
         final Transaction toFinalize = findTransactionByUuid(transactionUuid);
+        if (!isDue(toFinalize, TransactionStatus.PENDING, TransactionStatus.CREDITED)) return;
         final Customer source = toFinalize.getCustomer();
+        final TransactionStatus previous = toFinalize.getTransactionStatus();
         toFinalize.setTransactionStatus(TransactionStatus.COMPLETED);
-        source.setSuspenseBalance(
-                source.getSuspenseBalance().subtract(toFinalize.getSourceAmount()));
+        balanceOperations.settle(source, toFinalize.getSourceAmount());
 
         transactionRepository.save(toFinalize);
+        transactionRollups.record(toFinalize, previous);
+    }
+
+    /**
+     * Whether a transaction is in one of the {@code due} statuses; one past them was processed by
+     * an earlier delivery of its event and is skipped.
+     */
+    private boolean isDue(Transaction transaction, TransactionStatus... due) {
+        if (Arrays.asList(due).contains(transaction.getTransactionStatus())) return true;
+        logger.error(
+                "Error: Transaction with uuid "
+                        + transaction.getUuid()
+                        + " is already "
+                        + transaction.getTransactionStatus()
+                        + ", skipped.");
+        return false;
+    }
+
+    /**
+     * Runs the share of a poll of one stripe. The stripes commit separately, so failing the poll
+     * would redeliver the shares already committed along with the failed one; the events of a
+     * stripe that lost a concurrent update on every attempt go back to their topic instead, and
+     * those of a stripe that failed otherwise to its dead-letter topic.
+     */
+    private void runOrRequeue(
+            String topic, List<TransactionNotificationEvent> events, Runnable action) {
+        try {
+            concurrencyRetry.run(action);
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
+            String to =
+                    ConcurrencyRetry.isConcurrencyFailure(e)
+                            ? topic
+                            : KafkaTopics.deadLetter(topic);
+            List<ProducerRecord<String, PaymentEvent>> requeued = new ArrayList<>(events.size());
+            for (TransactionNotificationEvent event : events) {
+                requeued.add(
+                        new ProducerRecord<>(to, event.getTransactionUuid().toString(), event));
+            }
+            transactionTemplate.executeWithoutResult(status -> paymentOutbox.appendAll(requeued));
+        }
     }
 
-    private Boolean validateTargetCustomer(String targetEmail) {
-        if (!paymentNetworkFeignClientInterface.validateCustomer(targetEmail).getValid())
+    private Map<UUID, TransactionParties> findPartiesByUuid(
+            List<TransactionNotificationEvent> events) {
+        return transactionRepository
+                .findPartiesByUuidIn(
+                        events.stream()
+                                .map(TransactionNotificationEvent::getTransactionUuid)
+                                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(TransactionParties::getUuid, Function.identity()));
+    }
+
+    private TransactionParties findParties(UUID transactionUuid) {
+        List<TransactionParties> parties =
+                transactionRepository.findPartiesByUuidIn(Collections.singleton(transactionUuid));
+        return parties.isEmpty() ? null : parties.get(0);
+    }
+
+    /** The stripe key of the source of a transaction; unknown transactions share stripe key 0. */
+    private static long sourceIdOf(TransactionParties parties) {
+        return parties == null || parties.getCustomerId() == null ? 0L : parties.getCustomerId();
+    }
+
+    /** The stripe key of the target of a transaction; unknown targets share stripe key 0. */
+    private long targetIdOf(TransactionParties parties) {
+        if (parties == null || parties.getContactEmail() == null) return 0L;
+        return customerIdentityCache
+                .findByEmail(parties.getContactEmail())
+                .map(CustomerIdentity::getId)
+                .orElse(0L);
+    }
+
+    private Map<UUID, Transaction> findTransactionsByUuid(
+            List<TransactionNotificationEvent> events) {
+        Map<UUID, Transaction> transactions =
+                transactionRepository
+                        .findByUuidIn(
+                                events.stream()
+                                        .map(TransactionNotificationEvent::getTransactionUuid)
+                                        .collect(Collectors.toSet()))
+                        .stream()
+                        .collect(Collectors.toMap(Transaction::getUuid, Function.identity()));
+        for (TransactionNotificationEvent event : events) {
+            if (!transactions.containsKey(event.getTransactionUuid()))
+                logger.error(
+                        "Error: Transaction with uuid "
+                                + event.getTransactionUuid()
+                                + " not exists.");
+        }
+        return transactions;
+    }
+
+    private List<TransactionNotificationEvent> notifications(
+            List<ConsumerRecord<String, PaymentEvent>> records) {
+        List<TransactionNotificationEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, PaymentEvent> record : records) {
+            if (record.value() instanceof TransactionNotificationEvent)
+                events.add((TransactionNotificationEvent) record.value());
+            else
+                logger.error(
+                        "Error: Skipped record "
+                                + record.topic()
+                                + "-"
+                                + record.partition()
+                                + "@"
+                                + record.offset()
+                                + " without a transaction notification.");
+        }
+        return events;
+    }
+
+    /**
+     * Whether the payment network accepts transfers from {@code source} to {@code targetEmail}; a
+     * customer of the source's bank is not an external target. Transfers ask before they are handed
+     * to their stripe, so neither a stripe nor a database connection waits for the network. A
+     * failed call answers false, which declines the transfer.
+     */
+    public boolean isValidExternalTarget(CustomerIdentity source, String targetEmail) {
+        if (source == null) return false;
+        boolean internal =
+                customerIdentityCache
+                        .findByEmail(targetEmail)
+                        .map(
+                                identity ->
+                                        identity.getBankId() != null
+                                                && identity.getBankId().equals(source.getBankId()))
+                        .orElse(false);
+        if (internal) return false;
+        try {
+            return customerValidationCache.isValid(targetEmail);
+        } catch (RuntimeException e) {
+            logger.error("Error: " + e);
             return false;
-        else return true;
+        }
     }
 
     public List<TransactionDTO> getAllTransactions() {
-        return transactionRepository.findAll().stream()
+        return transactionRepository.findAllWithDetails().stream()
                 .map(transactionMapper::transactionToTransactionDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Transactions with their customer and contact flattened to uuid and email, read in a single
+     * statement. A {@code null} status lists all transactions.
+     */
+    public List<TransactionSummaryDTO> getTransactionSummaries(
+            TransactionStatus transactionStatus) {
+        if (transactionStatus == null) return transactionRepository.findAllSummaries();
+        return Optional.of(
+                        transactionRepository.findSummariesByTransactionStatus(transactionStatus))
+                .filter(list -> !list.isEmpty())
+                .orElseThrow(
+                        () ->
+                                new ElementNotFoundException(
+                                        "Transaction with status "
+                                                + transactionStatus
+                                                + " not found."));
+    }
+
+    public TransactionPageDTO getTransactionPage(
+            TransactionFilter filter, String cursor, int size) {
+        if (size < 1 || size > pageSizeMax)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid size");
+
+        List<Transaction> transactions =
+                transactionRepository.findPage(
+                        filter, cursor == null ? null : TransactionCursor.decode(cursor), size + 1);
+        String nextCursor = null;
+        if (transactions.size() > size) {
+            transactions = transactions.subList(0, size);
+            nextCursor = TransactionCursor.after(transactions.get(size - 1)).encode();
+        }
+        return new TransactionPageDTO(
+                transactions.stream()
+                        .map(transactionMapper::transactionToTransactionDTO)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
+
+    public void streamTransactions(TransactionFilter filter, Consumer<TransactionDTO> consumer) {
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        transactionRepository.forEach(
+                                filter,
+                                streamFetchSize,
+                                transaction ->
+                                        consumer.accept(
+                                                transactionMapper.transactionToTransactionDTO(
+                                                        transaction))));
+    }
+
     public Transaction findTransactionByUuid(UUID uuid) {
         return transactionRepository
                 .findTransactionByUuid(uuid)
@@ -171,10 +585,39 @@ public class TransactionService {
                                                 + " not found."));
     }
 
+    /**
+     * Loads the source and transfers in one database transaction on the stripe of the source, so
+     * transfers from the same customer queue up instead of racing for its row. The transaction is
+     * retried with the source loaded afresh when it still loses a concurrent update, as of a target
+     * credited on another stripe. An external target is validated before, on the calling thread.
+     */
     public Transaction addNewTransaction(
             UUID customerUuid, String targetEmail, BigDecimal sourceAmount) {
+        Optional<CustomerIdentity> source = customerIdentityCache.findByUuid(customerUuid);
+        boolean targetValid = isValidExternalTarget(source.orElse(null), targetEmail);
+        return stripedExecutor.execute(
+                source.map(CustomerIdentity::getId).orElse(0L),
+                () ->
+                        concurrencyRetry.execute(
+                                () ->
+                                        transactionTemplate.execute(
+                                                status ->
+                                                        addNewTransaction(
+                                                                customerService.findByUuid(
+                                                                        customerUuid),
+                                                                targetEmail,
+                                                                sourceAmount,
+                                                                targetValid))));
+    }
 
-        Customer source = customerService.findByUuid(customerUuid);
+    /**
+     * Transfers from a source loaded by the caller, in the caller's database transaction. Losing a
+     * concurrent update fails that transaction; retrying it is up to the caller. {@code
+     * targetValid} is the answer of {@link #isValidExternalTarget}, asked before that transaction
+     * opened.
+     */
+    public Transaction addNewTransaction(
+            Customer source, String targetEmail, BigDecimal sourceAmount, boolean targetValid) {
 
         Transaction newTransaction = new Transaction();
 
@@ -188,23 +631,14 @@ public class TransactionService {
         newTransaction.setDate(LocalDateTime.now());
         newTransaction.setUuid(UUID.randomUUID());
 
-        if (source.getBalance().compareTo(sourceAmount) < 0) {
+        if (!balanceOperations.reserve(source, sourceAmount)) {
             newTransaction.setTransactionStatus(TransactionStatus.DECLINED);
         } else {
-            source.setBalance(source.getBalance().subtract(sourceAmount));
-            source.setSuspenseBalance(source.getSuspenseBalance().add(sourceAmount));
-
             if (customerService.checkIfExistsCustomerByEmailAndBank(
                     targetEmail, source.getBank())) {
                 internalTransaction(source, targetEmail, newTransaction);
             } else {
-
-                try {
-                    externalTransaction(source, targetEmail, newTransaction);
-                } catch (Exception e) {
-                    source.setSuspenseBalance(source.getSuspenseBalance().subtract(sourceAmount));
-                    source.setBalance(source.getBalance().add(sourceAmount));
-                }
+                externalTransaction(source, targetEmail, newTransaction, targetValid);
             }
         }
 
@@ -221,9 +655,11 @@ public class TransactionService {
                                         new ElementNotFoundException(
                                                 "Transaction with uuid " + uuid + " not exists."));
 
+        TransactionStatus previous = existingTransaction.getTransactionStatus();
         existingTransaction.setTransactionStatus(transactionStatus);
 
         transactionRepository.save(existingTransaction);
+        transactionRollups.record(existingTransaction, previous);
 
         return transactionMapper.transactionToTransactionDTO(existingTransaction);
     }
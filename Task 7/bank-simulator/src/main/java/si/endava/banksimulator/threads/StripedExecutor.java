@@ -0,0 +1,144 @@
+package si.endava.banksimulator.threads;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes tasks by key: every key maps to one of {@code count} stripes, each a single thread
+ * working off its own queue in order, so tasks of the same key never run at the same time while
+ * tasks of different stripes run in parallel. {@code 0} stripes uses one per available core; since
+ * a task mostly waits for the database or the payment network, more stripes than cores pay off.
+ * Callers wait for their task, so a stripe queues at most one task per waiting caller; the depth of
+ * every queue is published as {@code banksimulator.stripes.queue-depth}, tagged with the stripe. A
+ * task must not wait for a task of another stripe, which could be waiting for it.
+ */
+@Component
+public class StripedExecutor {
+
+    private final ThreadPoolExecutor[] stripes;
+    private final ThreadLocal<Integer> currentStripe = new ThreadLocal<>();
+
+    public StripedExecutor(
+            MeterRegistry meterRegistry, @Value("${banksimulator.stripes.count}") int count) {
+        if (count <= 0) count = Runtime.getRuntime().availableProcessors();
+        stripes = new ThreadPoolExecutor[count];
+        for (int i = 0; i < stripes.length; i++) {
+            int stripe = i;
+            BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+            stripes[i] =
+                    new ThreadPoolExecutor(
+                            1,
+                            1,
+                            0,
+                            TimeUnit.MILLISECONDS,
+                            queue,
+                            task -> {
+                                Thread thread =
+                                        new Thread(
+                                                () -> {
+                                                    currentStripe.set(stripe);
+                                                    task.run();
+                                                },
+                                                "stripe-" + stripe);
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+            Gauge.builder("banksimulator.stripes.queue-depth", queue, BlockingQueue::size)
+                    .description("Tasks waiting for their stripe")
+                    .tag("stripe", String.valueOf(stripe))
+                    .register(meterRegistry);
+        }
+    }
+
+    public int count() {
+        return stripes.length;
+    }
+
+    public int stripeOf(long key) {
+        return (int) Math.floorMod(key, (long) stripes.length);
+    }
+
+    /**
+     * Runs {@code task} on the stripe of {@code key}, in the calling thread if it is that stripe.
+     */
+    public <T> T execute(long key, Supplier<T> task) {
+        int stripe = stripeOf(key);
+        Integer current = currentStripe.get();
+        if (current != null && current == stripe) return task.get();
+        return await(stripes[stripe].submit(task::get));
+    }
+
+    /**
+     * Runs {@code task} once per stripe with the items whose key maps to it, keeping their order,
+     * and waits for all of them; the group of the calling stripe runs in the calling thread. The
+     * first failure is thrown once every stripe is done, with the failures of the other stripes
+     * suppressed by it.
+     */
+    public <E> void executeGrouped(
+            Collection<E> items, ToLongFunction<E> key, Consumer<List<E>> task) {
+        Map<Integer, List<E>> groups = new LinkedHashMap<>();
+        for (E item : items) {
+            groups.computeIfAbsent(stripeOf(key.applyAsLong(item)), stripe -> new ArrayList<>())
+                    .add(item);
+        }
+
+        Integer current = currentStripe.get();
+        List<E> inline = current == null ? null : groups.remove(current);
+        List<Future<?>> futures = new ArrayList<>(groups.size() + 1);
+        groups.forEach(
+                (stripe, group) -> futures.add(stripes[stripe].submit(() -> task.accept(group))));
+        if (inline != null) {
+            FutureTask<Void> future = new FutureTask<>(() -> task.accept(inline), null);
+            future.run();
+            futures.add(future);
+        }
+
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                await(future);
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a stripe", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor stripe : stripes) stripe.shutdown();
+    }
+}
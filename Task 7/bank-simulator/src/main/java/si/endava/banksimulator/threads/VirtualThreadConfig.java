@@ -0,0 +1,40 @@
+package si.endava.banksimulator.threads;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * The {@code virtual} thread mode: Tomcat handles every request, and with it the Feign calls made
+ * while handling it, on a virtual thread of its own instead of its worker pool. The executor also
+ * replaces the application task executor, so streamed responses are written on virtual threads. The
+ * scheduled jobs, among them the outbox relay that sends to Kafka, run on virtual threads as well.
+ * The transfer stripes stay on platform threads: their database work waits on H2 row locks inside
+ * monitors, which would pin the carriers the request threads need. Startup fails on a JVM without
+ * virtual threads.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banksimulator.threads.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    @Bean
+    public SimpleAsyncTaskExecutor virtualRequestExecutor() {
+        return new SimpleAsyncTaskExecutor(VirtualThreads.factory("http-virtual-"));
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+            AsyncTaskExecutor virtualRequestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualRequestExecutor);
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadTaskSchedulerCustomizer() {
+        return taskScheduler ->
+                taskScheduler.setThreadFactory(VirtualThreads.factory("scheduling-virtual-"));
+    }
+}
@@ -0,0 +1,44 @@
+package si.endava.banksimulator.threads;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread factories, looked up reflectively so the application still compiles for and runs
+ * on Java 17, where only the {@code platform} thread mode is available.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /** Whether the running JVM creates virtual threads without preview features (Java 21+). */
+    public static boolean isSupported() {
+        try {
+            factory("probe-");
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /** A factory of virtual threads named {@code prefix0}, {@code prefix1} and so on. */
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder =
+                    builderType
+                            .getMethod("name", String.class, long.class)
+                            .invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException
+                | NoSuchMethodException
+                | IllegalAccessException
+                | InvocationTargetException e) {
+            throw new IllegalStateException(
+                    "Virtual threads need Java 21 or later, running on Java "
+                            + System.getProperty("java.version"),
+                    e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package si.endava.banksimulator.balances;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.entities.Customer;
+
+class BalanceLedgerTest {
+
+    private final BalanceLedger ledger = new BalanceLedger();
+
+    private static Customer customer(long id, String balance) {
+        return Customer.builder()
+                .id(id)
+                .balance(new BigDecimal(balance))
+                .suspenseBalance(BigDecimal.ZERO)
+                .build();
+    }
+
+    @Test
+    void ensureThatReserveDeclinesWhenBalanceIsInsufficient() {
+        Customer customer = customer(1, "10.00");
+
+        assertFalse(ledger.reserve(customer, 1001));
+        assertTrue(ledger.reserve(customer, 1000));
+        assertEquals(0, ledger.account(customer).snapshot().getBalance());
+        assertEquals(1000, ledger.account(customer).snapshot().getSuspenseBalance());
+    }
+
+    @Test
+    void ensureThatConcurrentReservesNeverOverdraw() throws Exception {
+        Customer customer = customer(2, "100.00");
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                if (ledger.reserve(customer, 7)) reserved.incrementAndGet();
+                            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        LedgerAccount.Snapshot snapshot = ledger.account(customer).snapshot();
+        assertEquals(10000 / 7, reserved.get());
+        assertEquals(10000, snapshot.getBalance() + snapshot.getSuspenseBalance());
+    }
+
+    @Test
+    void ensureThatDrainDirtyReturnsChangedAccountsOnce() {
+        Customer customer = customer(3, "5.00");
+        ledger.apply(customer, 150, 0);
+
+        Map<Long, LedgerAccount.Snapshot> drained = ledger.drainDirty(10);
+
+        assertEquals(650, drained.get(3L).getBalance());
+        assertFalse(ledger.hasDirty());
+        assertTrue(ledger.drainDirty(10).isEmpty());
+    }
+
+    @Test
+    void ensureThatHoldingAnAccountWaitsForTheWriteOfDrainedAccounts() throws Exception {
+        Customer customer = customer(4, "5.00");
+        ledger.apply(customer, 150, 0);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> written =
+                    executor.submit(
+                            () ->
+                                    ledger.drainDirty(
+                                            10,
+                                            drained -> {
+                                                writing.countDown();
+                                                return await(release);
+                                            }));
+            assertTrue(writing.await(10, TimeUnit.SECONDS));
+            Future<?> held = executor.submit(() -> ledger.hold(4L));
+
+            assertThrows(TimeoutException.class, () -> held.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertTrue(written.get(10, TimeUnit.SECONDS));
+            held.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThrows(ConcurrencyFailureException.class, () -> ledger.account(customer));
+    }
+
+    @Test
+    void ensureThatAHeldAccountIsNeitherDrainedNorReloaded() {
+        Customer customer = customer(5, "5.00");
+        ledger.apply(customer, 150, 0);
+
+        ledger.hold(5L);
+
+        assertTrue(ledger.drainDirty(10).isEmpty());
+        assertThrows(ConcurrencyFailureException.class, () -> ledger.reserve(customer, 100));
+        ledger.reseed(5L, new BigDecimal("20.00"), BigDecimal.ZERO);
+        assertEquals(2000, ledger.account(customer).snapshot().getBalance());
+        assertFalse(ledger.hasDirty());
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void ensureThatAmountsWithFractionalCentsAreRejected() {
+        assertThrows(
+                ResponseStatusException.class,
+                () -> BalanceLedger.toCents(new BigDecimal("1.005")));
+    }
+}
@@ -0,0 +1,127 @@
+package si.endava.banksimulator.balances;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.enums.PostingAccount;
+
+@ExtendWith(MockitoExtension.class)
+class JournalBalanceOperationsTest {
+
+    @Mock private PostingJournal journal;
+
+    @InjectMocks private JournalBalanceOperations journalBalanceOperations;
+
+    @Captor private ArgumentCaptor<PostingJournal.Posting> postings;
+
+    private final Customer source = customer(1L);
+    private final Customer target = customer(2L);
+
+    private static Customer customer(long id) {
+        return Customer.builder()
+                .id(id)
+                .balance(new BigDecimal("10.00"))
+                .suspenseBalance(BigDecimal.ZERO)
+                .build();
+    }
+
+    @Test
+    void ensureThatReserveDeclinesWithoutPostingWhenBalanceIsInsufficient() {
+        when(journal.balances(1L))
+                .thenReturn(new PostingJournal.Balances(new BigDecimal("10.00"), BigDecimal.ZERO));
+
+        assertFalse(journalBalanceOperations.reserve(source, new BigDecimal("10.01")));
+        verify(journal).open(1L, new BigDecimal("10.00"), BigDecimal.ZERO);
+        verify(journal, never()).post(any());
+    }
+
+    @Test
+    void ensureThatReserveMovesTheAmountIntoSuspense() {
+        when(journal.balances(1L))
+                .thenReturn(new PostingJournal.Balances(new BigDecimal("10.00"), BigDecimal.ZERO));
+
+        assertTrue(journalBalanceOperations.reserve(source, new BigDecimal("4.00")));
+
+        InOrder order = inOrder(journal);
+        order.verify(journal).lock(1L);
+        order.verify(journal).balances(1L);
+        order.verify(journal).post(postings.capture());
+        List<PostingJournal.Posting> legs = postings.getAllValues();
+        assertEquals(2, legs.size());
+        assertLeg(legs.get(0), 1L, PostingAccount.BALANCE, "-4.00");
+        assertLeg(legs.get(1), 1L, PostingAccount.SUSPENSE, "4.00");
+    }
+
+    @Test
+    void ensureThatTransferBooksTheExchangeDifference() {
+        journalBalanceOperations.transfer(
+                source, target, new BigDecimal("4.00"), new BigDecimal("3.50"));
+
+        verify(journal).post(postings.capture());
+        List<PostingJournal.Posting> legs = postings.getAllValues();
+        assertLeg(legs.get(0), 1L, PostingAccount.SUSPENSE, "-4.00");
+        assertLeg(legs.get(1), 2L, PostingAccount.BALANCE, "3.50");
+        assertLeg(legs.get(2), null, PostingAccount.EXCHANGE, "0.50");
+    }
+
+    @Test
+    void ensureThatAccountsAreOpenedOnceUntilForgotten() {
+        journalBalanceOperations.settle(source, BigDecimal.ONE);
+        journalBalanceOperations.settle(source, BigDecimal.ONE);
+        journalBalanceOperations.forget(source);
+        journalBalanceOperations.settle(source, BigDecimal.ONE);
+
+        verify(journal, times(2)).open(1L, new BigDecimal("10.00"), BigDecimal.ZERO);
+    }
+
+    @Test
+    void ensureThatAccountsOpenedInARolledBackTransactionAreOpenedAgain() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journalBalanceOperations.settle(source, BigDecimal.ONE);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(
+                            synchronization ->
+                                    synchronization.afterCompletion(
+                                            TransactionSynchronization.STATUS_ROLLED_BACK));
+            TransactionSynchronizationManager.clearSynchronization();
+
+            TransactionSynchronizationManager.initSynchronization();
+            journalBalanceOperations.settle(source, BigDecimal.ONE);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        journalBalanceOperations.settle(source, BigDecimal.ONE);
+
+        verify(journal, times(2)).open(1L, new BigDecimal("10.00"), BigDecimal.ZERO);
+    }
+
+    private static void assertLeg(
+            PostingJournal.Posting leg, Long customerId, PostingAccount account, String amount) {
+        assertEquals(customerId, leg.getCustomerId());
+        assertEquals(account, leg.getAccount());
+        assertEquals(new BigDecimal(amount), leg.getAmount());
+    }
+}
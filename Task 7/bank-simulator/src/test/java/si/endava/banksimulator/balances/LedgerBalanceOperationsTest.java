@@ -0,0 +1,125 @@
+package si.endava.banksimulator.balances;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import si.endava.banksimulator.entities.Customer;
+
+class LedgerBalanceOperationsTest {
+
+    private final LedgerBalanceOperations ledgerBalanceOperations = new LedgerBalanceOperations();
+
+    private final Customer source = customer(1L);
+    private final Customer target = customer(2L);
+
+    private static Customer customer(long id) {
+        return Customer.builder()
+                .id(id)
+                .balance(new BigDecimal("10.00"))
+                .suspenseBalance(BigDecimal.ZERO)
+                .build();
+    }
+
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void ensureThatChangesOfARolledBackTransactionAreReverted() {
+        assertTrue(ledgerBalanceOperations.reserve(source, new BigDecimal("4.00")));
+        ledgerBalanceOperations.transfer(
+                source, target, new BigDecimal("4.00"), new BigDecimal("3.50"));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertBalances(source, 1000, 0);
+        assertBalances(target, 1000, 0);
+    }
+
+    @Test
+    void ensureThatChangesOfACommittedTransactionAreKept() {
+        assertTrue(ledgerBalanceOperations.reserve(source, new BigDecimal("4.00")));
+        ledgerBalanceOperations.credit(target, new BigDecimal("2.00"));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertBalances(source, 600, 400);
+        assertBalances(target, 1200, 0);
+    }
+
+    @Test
+    void ensureThatChangesOutsideATransactionAreKept() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        ledgerBalanceOperations.credit(target, new BigDecimal("2.00"));
+
+        assertBalances(target, 1200, 0);
+    }
+
+    @Test
+    void ensureThatAnUpdateWithPendingChangesSeedsTheAccountFromTheCommittedRow() {
+        assertTrue(ledgerBalanceOperations.reserve(source, new BigDecimal("4.00")));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertTrue(ledgerBalanceOperations.ledger().hasDirty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        Customer updated = customer(1L);
+        updated.setBalance(new BigDecimal("50.00"));
+        ledgerBalanceOperations.beforeUpdate(updated);
+
+        assertTrue(ledgerBalanceOperations.ledger().drainDirty(10).isEmpty());
+        assertThrows(
+                ConcurrencyFailureException.class,
+                () -> ledgerBalanceOperations.reserve(source, new BigDecimal("1.00")));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertBalances(source, 5000, 0);
+        assertFalse(ledgerBalanceOperations.ledger().hasDirty());
+    }
+
+    @Test
+    void ensureThatARolledBackUpdateKeepsThePendingChanges() {
+        assertTrue(ledgerBalanceOperations.reserve(source, new BigDecimal("4.00")));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        Customer updated = customer(1L);
+        updated.setBalance(new BigDecimal("50.00"));
+        ledgerBalanceOperations.beforeUpdate(updated);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertBalances(source, 600, 400);
+        assertEquals(600, ledgerBalanceOperations.ledger().drainDirty(10).get(1L).getBalance());
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization :
+                TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void assertBalances(Customer customer, long balance, long suspenseBalance) {
+        LedgerAccount.Snapshot snapshot =
+                ledgerBalanceOperations.ledger().account(customer).snapshot();
+        assertEquals(balance, snapshot.getBalance());
+        assertEquals(suspenseBalance, snapshot.getSuspenseBalance());
+    }
+}
@@ -0,0 +1,242 @@
+package si.endava.banksimulator.balances;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static si.endava.banksimulator.balances.PostingJournal.posting;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.endava.banksimulator.enums.PostingAccount;
+
+@SpringBootTest
+@ActiveProfiles(profiles = "withoutEureka")
+class PostingJournalTest {
+
+    /** Far above the ids the sequences hand out while the other tests run. */
+    private static final long SOURCE = (1L << 62) + (1L << 40);
+
+    private static final long TARGET = SOURCE + 1;
+
+    @Autowired private PostingJournal journal;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void addCustomers() {
+        for (long id : new long[] {SOURCE, TARGET}) {
+            jdbcTemplate.update(
+                    "insert into customer (customer_id, customer_uuid, name, surname, email,"
+                        + " balance, suspense_balance, payment_network) values (?, ?, 'Journal',"
+                        + " 'Customer', ?, 100.00, 0.00, false)",
+                    id,
+                    UUID.randomUUID(),
+                    "journal." + id + "@gmail.com");
+        }
+        journal.open(SOURCE, new BigDecimal("100.00"), BigDecimal.ZERO);
+        journal.open(TARGET, new BigDecimal("100.00"), BigDecimal.ZERO);
+    }
+
+    @AfterEach
+    void removeCustomers() {
+        jdbcTemplate.update("delete from posting");
+        jdbcTemplate.update("delete from balance_snapshot");
+        jdbcTemplate.update("delete from customer where customer_id in (?, ?)", SOURCE, TARGET);
+    }
+
+    @Test
+    void ensureThatUnbalancedEntriesAreRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () ->
+                        journal.post(
+                                posting(SOURCE, PostingAccount.BALANCE, new BigDecimal("-1.00")),
+                                posting(SOURCE, PostingAccount.SUSPENSE, new BigDecimal("2.00"))));
+    }
+
+    @Test
+    void ensureThatOpeningTwiceKeepsTheFirstBalances() {
+        journal.open(SOURCE, new BigDecimal("5.00"), BigDecimal.ZERO);
+
+        assertAmount("100.00", journal.balances(SOURCE).getBalance());
+        assertNull(journal.balances(SOURCE + 2));
+    }
+
+    @Test
+    void ensureThatBalancesFollowSnapshotsAndLaterPostings() {
+        reserveAndTransfer("30.00");
+        assertBalances("70.00", "0.00", journal.balances(SOURCE));
+        assertBalances("130.00", "0.00", journal.balances(TARGET));
+
+        assertEquals(2, journal.snapshot());
+        assertAmount(
+                "70.00",
+                jdbcTemplate.queryForObject(
+                        "select balance from customer where customer_id = ?",
+                        BigDecimal.class,
+                        SOURCE));
+
+        reserveAndTransfer("20.00");
+        journal.post(
+                posting(SOURCE, PostingAccount.BALANCE, new BigDecimal("-5.00")),
+                posting(SOURCE, PostingAccount.SUSPENSE, new BigDecimal("5.00")));
+
+        assertBalances("45.00", "5.00", journal.balances(SOURCE));
+        assertBalances("150.00", "0.00", journal.balances(TARGET));
+        assertBalances("45.00", "5.00", journal.rebuild(SOURCE));
+        assertBalances("150.00", "0.00", journal.rebuild(TARGET));
+    }
+
+    @Test
+    void ensureThatSnapshotCoversPostingsCommittedBehindAnEarlierSnapshot() {
+        LocalDateTime posted = LocalDateTime.now();
+        reserveAndTransfer("30.00");
+        assertEquals(2, journal.snapshot());
+        assertEquals(0, journal.snapshot());
+
+        // an entry given a lower id and an earlier time, committed only after the snapshot
+        long postingId =
+                jdbcTemplate.queryForObject("select min(posting_id) from posting", Long.class);
+        UUID entryId = UUID.randomUUID();
+        jdbcTemplate.update(
+                "insert into posting (posting_id, entry_id, customer_id, account, amount,"
+                        + " posted_at) values (?, ?, ?, 'BALANCE', -10.00, ?), (?, ?, ?,"
+                        + " 'SUSPENSE', 10.00, ?)",
+                postingId - 2,
+                entryId,
+                SOURCE,
+                posted,
+                postingId - 1,
+                entryId,
+                SOURCE,
+                posted);
+        assertBalances("60.00", "10.00", journal.balances(SOURCE));
+
+        assertEquals(1, journal.snapshot());
+        assertBalances("60.00", "10.00", journal.balances(SOURCE));
+        assertBalances("60.00", "10.00", journal.rebuild(SOURCE));
+        assertBalances("60.00", "10.00", journal.balancesAsOf(SOURCE, LocalDateTime.now()));
+        assertAmount(
+                "60.00",
+                jdbcTemplate.queryForObject(
+                        "select balance from customer where customer_id = ?",
+                        BigDecimal.class,
+                        SOURCE));
+    }
+
+    @Test
+    void ensureThatBalancesAsOfReplayFromTheNearestSnapshot() throws InterruptedException {
+        LocalDateTime beforeOpening = LocalDateTime.now().minusHours(1);
+        reserveAndTransfer("30.00");
+        LocalDateTime afterFirst = later();
+        journal.snapshot();
+        reserveAndTransfer("20.00");
+        LocalDateTime afterSecond = later();
+        journal.post(
+                posting(SOURCE, PostingAccount.BALANCE, new BigDecimal("-5.00")),
+                posting(SOURCE, PostingAccount.SUSPENSE, new BigDecimal("5.00")));
+
+        assertBalances("70.00", "0.00", journal.balancesAsOf(SOURCE, afterFirst));
+        assertBalances("50.00", "0.00", journal.balancesAsOf(SOURCE, afterSecond));
+        assertBalances("150.00", "0.00", journal.balancesAsOf(TARGET, afterSecond));
+        assertBalances("45.00", "5.00", journal.balancesAsOf(SOURCE, later()));
+        assertNull(journal.balancesAsOf(SOURCE, beforeOpening));
+    }
+
+    @Test
+    void ensureThatALockedAccountIsReadOnlyOnceItsHolderCommitted() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> holder =
+                    executor.submit(
+                            () ->
+                                    transactionTemplate.executeWithoutResult(
+                                            status -> {
+                                                journal.lock(SOURCE);
+                                                journal.post(
+                                                        posting(
+                                                                SOURCE,
+                                                                PostingAccount.BALANCE,
+                                                                new BigDecimal("-60.00")),
+                                                        posting(
+                                                                SOURCE,
+                                                                PostingAccount.SUSPENSE,
+                                                                new BigDecimal("60.00")));
+                                                locked.countDown();
+                                                await(commit);
+                                            }));
+            await(locked);
+            Future<PostingJournal.Balances> waiting =
+                    executor.submit(
+                            () ->
+                                    transactionTemplate.execute(
+                                            status -> {
+                                                journal.lock(SOURCE);
+                                                return journal.balances(SOURCE);
+                                            }));
+
+            Thread.sleep(200);
+            assertFalse(waiting.isDone());
+            commit.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            assertBalances("40.00", "60.00", waiting.get(5, TimeUnit.SECONDS));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("Timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** A point in time after everything posted so far and before anything posted next. */
+    private static LocalDateTime later() throws InterruptedException {
+        Thread.sleep(10);
+        LocalDateTime now = LocalDateTime.now();
+        Thread.sleep(10);
+        return now;
+    }
+
+    private void reserveAndTransfer(String amount) {
+        BigDecimal value = new BigDecimal(amount);
+        journal.post(
+                posting(SOURCE, PostingAccount.BALANCE, value.negate()),
+                posting(SOURCE, PostingAccount.SUSPENSE, value));
+        journal.post(
+                posting(SOURCE, PostingAccount.SUSPENSE, value.negate()),
+                posting(TARGET, PostingAccount.BALANCE, value));
+    }
+
+    private static void assertBalances(
+            String balance, String suspenseBalance, PostingJournal.Balances balances) {
+        assertAmount(balance, balances.getBalance());
+        assertAmount(suspenseBalance, balances.getSuspenseBalance());
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), expected + " != " + actual);
+    }
+}
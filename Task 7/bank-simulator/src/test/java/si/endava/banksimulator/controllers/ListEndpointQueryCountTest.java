@@ -0,0 +1,174 @@
+package si.endava.banksimulator.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/**
+ * Counts the JDBC statements Hibernate prepares for every list endpoint, before and after adding
+ * rows that each reference a bank, customer and contact of their own. A list that resolves its
+ * associations row by row needs more statements for the larger table and fails.
+ */
+@SpringBootTest
+@ActiveProfiles(profiles = "withoutEureka")
+class ListEndpointQueryCountTest {
+
+    private static final long MAX_STATEMENTS = 1;
+    /** Far above the ids the sequences hand out while the other tests run. */
+    private static final long ID = 1L << 62;
+
+    private static final int ROWS = 20;
+
+    @Autowired private BankController bankController;
+    @Autowired private CustomerController customerController;
+    @Autowired private ContactController contactController;
+    @Autowired private TransactionController transactionController;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void removeRows() {
+        statistics.setStatisticsEnabled(false);
+        jdbcTemplate.update("delete from transaction where transaction_id >= ?", ID);
+        jdbcTemplate.update("delete from contact_list where contact_id >= ?", ID);
+        jdbcTemplate.update("delete from customer where customer_id >= ?", ID);
+        jdbcTemplate.update("delete from bank where bank_id >= ?", ID);
+    }
+
+    @Test
+    void ensureThatListEndpointsIssueAConstantNumberOfStatements() {
+        Map<String, Long> before = statementsPerEndpoint();
+        seed();
+        Map<String, Long> after = statementsPerEndpoint();
+
+        assertEquals(before, after);
+        after.forEach(
+                (endpoint, statements) ->
+                        assertTrue(
+                                statements <= MAX_STATEMENTS,
+                                endpoint + " prepared " + statements + " statements"));
+    }
+
+    private Map<String, Long> statementsPerEndpoint() {
+        Map<String, Long> statements = new LinkedHashMap<>();
+        statements.put("banks", count(() -> bankController.getAllBanks(null)));
+        statements.put("customers", count(() -> customerController.getAllCustomers(null)));
+        statements.put("contacts", count(() -> contactController.getAllContacts(null)));
+        statements.put("contacts by name", count(() -> contactController.getAllContacts("e")));
+        statements.put("transactions", count(() -> transactionController.getAllTransactions(null)));
+        statements.put(
+                "transactions by status",
+                count(() -> transactionController.getAllTransactions(TransactionStatus.PENDING)));
+        statements.put(
+                "expanded transactions",
+                count(() -> transactionController.getAllTransactionsExpanded(null)));
+        statements.put(
+                "expanded transactions by status",
+                count(
+                        () ->
+                                transactionController.getAllTransactionsExpanded(
+                                        TransactionStatus.PENDING)));
+        statements.put(
+                "transaction page",
+                count(
+                        () ->
+                                transactionController.getTransactionPage(
+                                        null, null, null, null, null, 1000)));
+        return statements;
+    }
+
+    private long count(Runnable call) {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed() {
+        List<Object[]> banks = new ArrayList<>();
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> contacts = new ArrayList<>();
+        List<Object[]> transactions = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            long id = ID + i;
+            banks.add(
+                    new Object[] {
+                        id, UUID.randomUUID(), "Query Bank " + i, "QRYB" + i, "SI", "EUR", true
+                    });
+            customers.add(
+                    new Object[] {
+                        id,
+                        UUID.randomUUID(),
+                        "Query",
+                        "Customer " + i,
+                        "query.customer." + i + "@gmail.com",
+                        BigDecimal.TEN,
+                        BigDecimal.ZERO,
+                        true,
+                        id
+                    });
+            contacts.add(
+                    new Object[] {
+                        id, UUID.randomUUID(), "Query Contact " + i, "query.contact." + i, id
+                    });
+            transactions.add(
+                    new Object[] {
+                        id,
+                        UUID.randomUUID(),
+                        BigDecimal.ONE,
+                        "EUR",
+                        BigDecimal.ONE,
+                        "EUR",
+                        BigDecimal.ONE,
+                        TransactionStatus.PENDING.name(),
+                        LocalDateTime.of(2022, 1, 1, 0, 0).plusMinutes(i),
+                        id,
+                        id
+                    });
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into bank (bank_id, bank_uuid, bank_name, bank_bic, bank_country,"
+                        + " bank_currency, payment_network) values (?, ?, ?, ?, ?, ?, ?)",
+                banks);
+        jdbcTemplate.batchUpdate(
+                "insert into customer (customer_id, customer_uuid, name, surname, email, balance,"
+                        + " suspense_balance, payment_network, bank_id) values (?, ?, ?, ?, ?, ?,"
+                        + " ?, ?, ?)",
+                customers);
+        jdbcTemplate.batchUpdate(
+                "insert into contact_list (contact_id, contact_uuid, name, email, customer_id)"
+                        + " values (?, ?, ?, ?, ?)",
+                contacts);
+        jdbcTemplate.batchUpdate(
+                "insert into transaction (transaction_id, transaction_uuid, source_amount,"
+                        + " source_currency, target_amount, target_currency, exchange_rate,"
+                        + " status, date, customer_id, contact_id) values (?, ?, ?, ?, ?, ?, ?, ?,"
+                        + " ?, ?, ?)",
+                transactions);
+    }
+}
@@ -0,0 +1,175 @@
+package si.endava.banksimulator.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.dtos.BalanceReportDTO;
+import si.endava.banksimulator.dtos.NewTransactionDTO;
+import si.endava.banksimulator.dtos.TransactionVolumeDTO;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.enums.ReportBucket;
+import si.endava.banksimulator.enums.ReportDimension;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+@SpringBootTest
+@ActiveProfiles(profiles = "withoutEureka")
+class ReportControllerTest {
+
+    @Autowired private ReportController reportController;
+    @Autowired private TransactionController transactionController;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private static final UUID customerUuid =
+            UUID.fromString("0e02ff72-960d-4615-b460-792f9ba81d17");
+
+    private static final NewTransactionDTO newTransactionDTO =
+            new NewTransactionDTO("max.irving@gmail.com", new BigDecimal("2.0"));
+
+    @Test
+    void ensureThatNewTransactionIsCountedUnderItsStatus() {
+        Map<TransactionStatus, TransactionVolumeDTO> before = byStatus();
+
+        Transaction transaction =
+                transactionController.addNewTransaction(customerUuid, newTransactionDTO).getBody();
+
+        TransactionVolumeDTO volume = byStatus().get(transaction.getTransactionStatus());
+        TransactionVolumeDTO previous = before.get(transaction.getTransactionStatus());
+        assertEquals(count(previous) + 1, volume.getTransactionCount());
+        assertEquals(
+                0,
+                amount(previous)
+                        .add(newTransactionDTO.getSourceAmount())
+                        .compareTo(volume.getSourceAmount()));
+    }
+
+    @Test
+    void ensureThatStatusUpdateMovesTransactionBetweenStatuses() {
+        Transaction transaction =
+                transactionController.addNewTransaction(customerUuid, newTransactionDTO).getBody();
+        TransactionStatus previous = transaction.getTransactionStatus();
+        TransactionStatus next =
+                previous == TransactionStatus.DECLINED
+                        ? TransactionStatus.COMPLETED
+                        : TransactionStatus.DECLINED;
+        Map<TransactionStatus, TransactionVolumeDTO> before = byStatus();
+
+        transactionController.updateTransactionStatus(transaction.getUuid(), next);
+
+        Map<TransactionStatus, TransactionVolumeDTO> after = byStatus();
+        assertEquals(count(before.get(previous)) - 1, count(after.get(previous)));
+        assertEquals(count(before.get(next)) + 1, count(after.get(next)));
+    }
+
+    @Test
+    void ensureThatRollupsMatchTransactionTable() {
+        Map<String, Long> expected = new HashMap<>();
+        jdbcTemplate.query(
+                "select c.customer_uuid, t.status, count(*) from transaction t join customer c on"
+                        + " c.customer_id = t.customer_id group by c.customer_uuid, t.status",
+                rs -> {
+                    expected.put(rs.getObject(1) + "/" + rs.getString(2), rs.getLong(3));
+                });
+
+        Map<String, Long> actual = new HashMap<>();
+        reportController
+                .getTransactionVolumes(
+                        Arrays.asList(ReportDimension.CUSTOMER, ReportDimension.STATUS),
+                        null,
+                        null,
+                        null,
+                        null)
+                .forEach(
+                        volume ->
+                                actual.put(
+                                        volume.getCustomerUuid()
+                                                + "/"
+                                                + volume.getTransactionStatus(),
+                                        volume.getTransactionCount()));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void ensureThatMonthBucketsStartOnFirstDay() {
+        List<TransactionVolumeDTO> volumes =
+                reportController.getTransactionVolumes(
+                        Collections.singletonList(ReportDimension.BANK),
+                        ReportBucket.MONTH,
+                        LocalDate.of(2000, 1, 1),
+                        null,
+                        null);
+
+        assertTrue(!volumes.isEmpty());
+        assertTrue(volumes.stream().allMatch(volume -> volume.getPeriod().getDayOfMonth() == 1));
+    }
+
+    @Test
+    void ensureThatBalancesCoverEveryCustomer() {
+        long customers =
+                jdbcTemplate.queryForObject(
+                        "select count(*) from customer where bank_id is not null", Long.class);
+
+        List<BalanceReportDTO> balances =
+                reportController.getBalances(Collections.singletonList(ReportDimension.BANK));
+
+        assertEquals(
+                customers, balances.stream().mapToLong(BalanceReportDTO::getCustomerCount).sum());
+    }
+
+    @Test
+    void ensureBalancesThrowsErrorResponseWhenGroupedByStatus() {
+        ResponseStatusException thrown =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () ->
+                                reportController.getBalances(
+                                        Collections.singletonList(ReportDimension.STATUS)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    void ensureTransactionVolumesThrowsErrorResponseWhenDateRangeIsEmpty() {
+        LocalDate day = LocalDate.of(2022, 1, 1);
+
+        ResponseStatusException thrown =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> reportController.getTransactionVolumes(null, null, day, day, null));
+
+        assertEquals("Invalid date range", thrown.getReason());
+    }
+
+    private Map<TransactionStatus, TransactionVolumeDTO> byStatus() {
+        Map<TransactionStatus, TransactionVolumeDTO> volumes = new HashMap<>();
+        reportController
+                .getTransactionVolumes(
+                        Collections.singletonList(ReportDimension.STATUS), null, null, null, null)
+                .forEach(volume -> volumes.put(volume.getTransactionStatus(), volume));
+        return volumes;
+    }
+
+    private static long count(TransactionVolumeDTO volume) {
+        return volume == null ? 0 : volume.getTransactionCount();
+    }
+
+    private static BigDecimal amount(TransactionVolumeDTO volume) {
+        return volume == null ? BigDecimal.ZERO : volume.getSourceAmount();
+    }
+}
@@ -5,16 +5,25 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import si.endava.banksimulator.dtos.NewTransactionDTO;
 import si.endava.banksimulator.dtos.TransactionDTO;
+import si.endava.banksimulator.dtos.TransactionPageDTO;
+import si.endava.banksimulator.dtos.TransactionSummaryDTO;
 import si.endava.banksimulator.entities.Transaction;
 import si.endava.banksimulator.enums.TransactionStatus;
 import si.endava.banksimulator.services.ElementNotFoundException;
@@ -43,12 +52,22 @@ class TransactionControllerTest {
     void ensureThatGetAllTransactionsByStatusWorks() {
         TransactionStatus transactionStatus = TransactionStatus.PENDING;
 
-        List<TransactionDTO> returnedTransactions =
+        List<TransactionSummaryDTO> returnedTransactions =
                 transactionController.getAllTransactions(transactionStatus);
 
         assertEquals(transactionStatus, returnedTransactions.get(0).getTransactionStatus());
     }
 
+    @Test
+    void ensureThatGetAllTransactionsExpandedByStatusWorks() {
+        TransactionStatus transactionStatus = TransactionStatus.PENDING;
+
+        List<TransactionDTO> returnedTransactions =
+                transactionController.getAllTransactionsExpanded(transactionStatus);
+
+        assertEquals(transactionStatus, returnedTransactions.get(0).getTransactionStatus());
+    }
+
     @Test
     void ensureThatGetTransactionByUuidWorks() {
         ResponseEntity<Transaction> transaction =
@@ -113,4 +132,73 @@ class TransactionControllerTest {
 
         assertTrue(thrown.getMessage().contains("Transaction with uuid " + uuid + " not exists."));
     }
+
+    @Test
+    void ensureThatAddNewTransactionsReturnsOneResultPerTransaction() throws IOException {
+        String body =
+                "{\"customerUuid\":\"0e02ff72-960d-4615-b460-792f9ba81d17\","
+                        + "\"email\":\"max.irving@gmail.com\",\"sourceAmount\":2.0}\n"
+                        + "{\"customerUuid\":\"0e02ff72-960d-4615-b460-792f9ba81d17\","
+                        + "\"email\":\"nobody@gmail.com\",\"sourceAmount\":2.0}\n"
+                        + "{\"customerUuid\":\"0e02ff72-960d-4615-b460-792f9ba81d17\","
+                        + "\"email\":\"max.irving@gmail.com\",\"sourceAmount\":0}\n";
+        int size = transactionController.getAllTransactions(null).size();
+
+        ResponseEntity<StreamingResponseBody> response =
+                transactionController.addNewTransactions(
+                        new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        String[] results = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+
+        assertEquals(3, results.length);
+        assertTrue(results[0].contains("Invalid source amount"));
+        assertTrue(results[1].contains("\"transactionStatus\""));
+        assertTrue(results[2].contains("Contact with email nobody@gmail.com not found."));
+        assertEquals(size + 1, transactionController.getAllTransactions(null).size());
+    }
+
+    @Test
+    void ensureThatTransactionPagesReturnEveryTransactionOnce() {
+        int size = transactionController.getAllTransactions(null).size();
+        Set<UUID> uuids = new HashSet<>();
+
+        TransactionPageDTO page =
+                transactionController.getTransactionPage(null, null, null, null, null, 2);
+        while (true) {
+            page.getTransactions().forEach(transaction -> uuids.add(transaction.getUuid()));
+            if (page.getNextCursor() == null) break;
+            page =
+                    transactionController.getTransactionPage(
+                            null, null, null, null, page.getNextCursor(), 2);
+        }
+
+        assertEquals(size, uuids.size());
+    }
+
+    @Test
+    void ensureThatTransactionPageIsFilteredByStatus() {
+        TransactionPageDTO page =
+                transactionController.getTransactionPage(
+                        TransactionStatus.PENDING, null, null, null, null, 100);
+
+        assertTrue(
+                page.getTransactions().stream()
+                        .allMatch(
+                                transaction ->
+                                        transaction.getTransactionStatus()
+                                                == TransactionStatus.PENDING));
+    }
+
+    @Test
+    void ensureThatStreamTransactionsWritesOneLinePerTransaction() throws IOException {
+        int size = transactionController.getAllTransactions(null).size();
+
+        ResponseEntity<StreamingResponseBody> response =
+                transactionController.streamTransactions(null, null, null, null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        assertEquals(size, outputStream.toString(StandardCharsets.UTF_8.name()).split("\n").length);
+    }
 }
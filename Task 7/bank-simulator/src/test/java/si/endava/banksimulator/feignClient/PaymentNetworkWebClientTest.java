@@ -0,0 +1,57 @@
+package si.endava.banksimulator.feignClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Sinks;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+
+class PaymentNetworkWebClientTest {
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    private final Sinks.One<ClientResponse> response = Sinks.one();
+
+    private final PaymentNetworkWebClient paymentNetworkWebClient =
+            new PaymentNetworkWebClient(
+                    WebClient.builder()
+                            .exchangeFunction(
+                                    request -> {
+                                        requests.add(request);
+                                        return response.asMono();
+                                    }),
+                    "http://payment-network");
+
+    @Test
+    void ensureThatCallsDoNotBlockTheCaller() throws Exception {
+        UUID uuid = UUID.fromString("d0bd56d8-5ca2-469c-b4f8-9bac5e3d5e1e");
+
+        CompletableFuture<List<PaymentNetworkCustomerDTO>> call =
+                paymentNetworkWebClient.getCustomersAfter(uuid, 10);
+
+        assertFalse(call.isDone());
+        assertEquals(HttpMethod.GET, requests.get(0).method());
+        assertEquals(
+                "http://payment-network/api/v1/customers/directory?after=" + uuid + "&limit=10",
+                requests.get(0).url().toString());
+        response.tryEmitValue(
+                ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("[]")
+                        .build());
+        assertEquals(0, call.get(1, TimeUnit.SECONDS).size());
+    }
+}
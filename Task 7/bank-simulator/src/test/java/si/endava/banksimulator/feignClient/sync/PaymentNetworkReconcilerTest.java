@@ -0,0 +1,238 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import si.endava.banksimulator.entities.Bank;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.feignClient.PaymentNetworkAsyncClient;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.mappers.CustomerMapper;
+import si.endava.banksimulator.repositories.CustomerRepository;
+import si.endava.banksimulator.services.PaymentNetworkSync;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentNetworkReconcilerTest {
+
+    @Mock private CustomerRepository customerRepository;
+
+    @Mock private CustomerMapper customerMapper;
+
+    @Mock private PaymentNetworkAsyncClient paymentNetworkAsyncClient;
+
+    @Mock private PaymentNetworkSyncQueue queue;
+
+    @Mock private PaymentNetworkSync paymentNetworkSync;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentNetworkReconciler reconciler;
+
+    private static final Bank bank = Bank.builder().bic("LJBASI2XXX").build();
+
+    private final List<Customer> local = new ArrayList<>();
+    private final List<PaymentNetworkCustomerDTO> network = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        reconciler =
+                new PaymentNetworkReconciler(
+                        customerRepository,
+                        customerMapper,
+                        paymentNetworkAsyncClient,
+                        queue,
+                        paymentNetworkSync,
+                        meterRegistry,
+                        2,
+                        2);
+        Mockito.lenient()
+                .when(customerRepository.findByUuidGreaterThanOrderByUuid(any(), any()))
+                .thenAnswer(
+                        invocation ->
+                                page(
+                                        local,
+                                        Customer::getUuid,
+                                        invocation.getArgument(0),
+                                        invocation.getArgument(1)));
+        Mockito.lenient()
+                .when(paymentNetworkAsyncClient.getCustomersAfter(any(), Mockito.anyInt()))
+                .thenAnswer(
+                        invocation ->
+                                CompletableFuture.completedFuture(
+                                        page(
+                                                network,
+                                                PaymentNetworkCustomerDTO::getUuid,
+                                                invocation.getArgument(0),
+                                                invocation.getArgument(1))));
+        Mockito.lenient()
+                .when(customerMapper.customerToPaymentNetworkCustomerDTO(any()))
+                .thenAnswer(invocation -> toNetwork(invocation.getArgument(0)));
+        Mockito.lenient().when(queue.pending(any())).thenReturn(Collections.emptySet());
+    }
+
+    private static <T> List<T> page(
+            List<T> side, Function<T, UUID> uuid, UUID after, Object limit) {
+        int size = limit instanceof Pageable ? ((Pageable) limit).getPageSize() : (Integer) limit;
+        return side.stream()
+                .filter(
+                        item ->
+                                PaymentNetworkReconciler.UUID_ORDER.compare(uuid.apply(item), after)
+                                        > 0)
+                .sorted(
+                        (a, b) ->
+                                PaymentNetworkReconciler.UUID_ORDER.compare(
+                                        uuid.apply(a), uuid.apply(b)))
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private static PaymentNetworkCustomerDTO toNetwork(Customer customer) {
+        return new PaymentNetworkCustomerDTO(
+                customer.getUuid(), customer.getEmail(), null, customer.getBank().getBic());
+    }
+
+    private Customer local(String uuid, boolean paymentNetwork) {
+        Customer customer =
+                Customer.builder()
+                        .uuid(UUID.fromString(uuid))
+                        .email(uuid + "@gmail.com")
+                        .paymentNetwork(paymentNetwork)
+                        .bank(bank)
+                        .build();
+        local.add(customer);
+        return customer;
+    }
+
+    private PaymentNetworkCustomerDTO network(String uuid, String email) {
+        PaymentNetworkCustomerDTO customer =
+                new PaymentNetworkCustomerDTO(UUID.fromString(uuid), email, null, "LJBASI2XXX");
+        network.add(customer);
+        return customer;
+    }
+
+    private static List<UUID> uuids(ArgumentCaptor<PaymentNetworkCustomerDTO> captor) {
+        return captor.getAllValues().stream()
+                .map(PaymentNetworkCustomerDTO::getUuid)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void ensureThatUuidOrderIsUnsigned() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+        assertTrue(PaymentNetworkReconciler.UUID_ORDER.compare(low, high) < 0);
+        assertTrue(low.compareTo(high) > 0);
+        assertTrue(low.toString().compareTo(high.toString()) < 0);
+    }
+
+    @Test
+    void ensureThatOnlyDifferencesAreQueued() {
+        String inSync = "00000000-0000-0000-0000-000000000001";
+        String missing = "10000000-0000-0000-0000-000000000000";
+        String leftNetwork = "7fffffff-ffff-ffff-ffff-ffffffffffff";
+        String changedEmail = "80000000-0000-0000-0000-000000000000";
+        String unknown = "c0000000-0000-0000-0000-000000000000";
+        String notOnNetwork = "ffffffff-ffff-ffff-ffff-fffffffffffe";
+        local(inSync, true);
+        network(inSync, inSync + "@gmail.com");
+        local(missing, true);
+        local(leftNetwork, false);
+        network(leftNetwork, leftNetwork + "@gmail.com");
+        local(changedEmail, true);
+        network(changedEmail, "old@gmail.com");
+        network(unknown, "unknown@gmail.com");
+        local(notOnNetwork, false);
+
+        PaymentNetworkReconciler.Reconciliation result = reconciler.reconcile();
+
+        ArgumentCaptor<PaymentNetworkCustomerDTO> registered =
+                ArgumentCaptor.forClass(PaymentNetworkCustomerDTO.class);
+        ArgumentCaptor<PaymentNetworkCustomerDTO> updated =
+                ArgumentCaptor.forClass(PaymentNetworkCustomerDTO.class);
+        ArgumentCaptor<PaymentNetworkCustomerDTO> unregistered =
+                ArgumentCaptor.forClass(PaymentNetworkCustomerDTO.class);
+        verify(paymentNetworkSync, times(1)).registerCustomer(registered.capture());
+        verify(paymentNetworkSync, times(1)).updateCustomer(updated.capture());
+        verify(paymentNetworkSync, times(2)).unregisterCustomer(unregistered.capture());
+        assertEquals(Collections.singletonList(UUID.fromString(missing)), uuids(registered));
+        assertEquals(Collections.singletonList(UUID.fromString(changedEmail)), uuids(updated));
+        assertEquals(
+                Arrays.asList(UUID.fromString(leftNetwork), UUID.fromString(unknown)),
+                uuids(unregistered));
+        assertEquals(changedEmail + "@gmail.com", updated.getValue().getEmail());
+        assertEquals(6, result.getCompared());
+        assertEquals(1, result.getRegistered());
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getUnregistered());
+    }
+
+    @Test
+    void ensureThatCustomersWithPendingChangesAreSkipped() {
+        String pending = "10000000-0000-0000-0000-000000000000";
+        local(pending, true);
+        Mockito.when(queue.pending(any()))
+                .thenReturn(Collections.singleton(UUID.fromString(pending)));
+
+        PaymentNetworkReconciler.Reconciliation result = reconciler.reconcile();
+
+        verify(paymentNetworkSync, never()).registerCustomer(any());
+        assertEquals(1, result.getSkipped());
+    }
+
+    @Test
+    void ensureThatBothSidesAreReadPageByPage() {
+        for (int i = 1; i <= 5; i++) {
+            String uuid = String.format("00000000-0000-0000-0000-%012d", i);
+            local(uuid, true);
+            network(uuid, uuid + "@gmail.com");
+        }
+
+        PaymentNetworkReconciler.Reconciliation result = reconciler.reconcile();
+
+        assertEquals(5, result.getCompared());
+        verify(customerRepository, times(3)).findByUuidGreaterThanOrderByUuid(any(), any());
+        verify(paymentNetworkAsyncClient, times(3)).getCustomersAfter(any(), Mockito.eq(2));
+        verify(paymentNetworkSync, never()).updateCustomer(any());
+    }
+
+    @Test
+    void ensureThatScheduledRunsResumeAfterTheWatermark() {
+        for (int i = 1; i <= 5; i++) {
+            String uuid = String.format("00000000-0000-0000-0000-%012d", i);
+            local(uuid, true);
+            network(uuid, uuid + "@gmail.com");
+        }
+        network("00000000-0000-0000-0000-000000000006", "unknown@gmail.com");
+
+        assertEquals(4, reconciler.reconcileNext().getCompared());
+        assertEquals(2, reconciler.reconcileNext().getCompared());
+        verify(paymentNetworkSync, times(1)).unregisterCustomer(any());
+        assertEquals(4, reconciler.reconcileNext().getCompared());
+        verify(customerRepository, times(1))
+                .findByUuidGreaterThanOrderByUuid(
+                        Mockito.eq(UUID.fromString("00000000-0000-0000-0000-000000000004")), any());
+    }
+}
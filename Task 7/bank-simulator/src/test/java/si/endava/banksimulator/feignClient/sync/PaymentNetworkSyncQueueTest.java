@@ -0,0 +1,229 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.endava.banksimulator.dtos.BankDTO;
+import si.endava.banksimulator.dtos.CustomerDTO;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.enums.SyncEntityType;
+import si.endava.banksimulator.enums.SyncOperation;
+import si.endava.banksimulator.services.CustomerService;
+
+// a database of its own: the relays of the other test contexts would send the changes queued here
+@SpringBootTest(
+        properties = {
+            "banksimulator.payment-network.sync.interval-ms=3600000",
+            "spring.datasource.url=jdbc:h2:mem:paymentnetworksync"
+        })
+@ActiveProfiles(profiles = "withoutEureka")
+class PaymentNetworkSyncQueueTest {
+
+    @Autowired private PaymentNetworkSyncQueue queue;
+
+    @Autowired private PaymentNetworkSyncRelay relay;
+
+    @Autowired private PaymentNetworkReconciler reconciler;
+
+    @Autowired private CustomerService customerService;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final UUID uuid = UUID.fromString("0b0e0c0d-0000-4000-8000-000000000001");
+
+    @AfterEach
+    void clearQueue() {
+        jdbcTemplate.update("delete from payment_network_sync");
+    }
+
+    private SyncRecord pending() {
+        List<SyncRecord> due = queue.due(10);
+        assertEquals(1, due.size());
+        return due.get(0);
+    }
+
+    @Test
+    void ensureThatChangesOfOneEntityAreCoalesced() {
+        queue.enqueue(uuid, SyncEntityType.CUSTOMER, SyncOperation.REGISTER, "{\"email\":\"a\"}");
+        queue.enqueue(uuid, SyncEntityType.CUSTOMER, SyncOperation.UPDATE, "{\"email\":\"b\"}");
+
+        SyncRecord record = pending();
+        assertEquals(SyncOperation.REGISTER, record.getOperation());
+        assertEquals("{\"email\":\"b\"}", record.getPayload());
+        assertEquals(2, record.getVersion());
+
+        queue.enqueue(uuid, SyncEntityType.CUSTOMER, SyncOperation.UNREGISTER, "{}");
+
+        assertTrue(queue.due(10).isEmpty());
+    }
+
+    @Test
+    void ensureThatUnregistrationAfterAFailedRegistrationIsSent() {
+        queue.enqueue(uuid, SyncEntityType.CUSTOMER, SyncOperation.REGISTER, "{}");
+        queue.postpone(Collections.singletonList(pending()), record -> LocalDateTime.now());
+
+        queue.enqueue(uuid, SyncEntityType.CUSTOMER, SyncOperation.UNREGISTER, "{}");
+
+        assertEquals(SyncOperation.UNREGISTER, pending().getOperation());
+    }
+
+    @Test
+    void ensureThatRemoveReturnsOperationsChangedMeanwhile() {
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.UPDATE, "{}");
+        SyncRecord sent = pending();
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.UPDATE, "{\"bic\":\"b\"}");
+
+        assertEquals(
+                Collections.singletonList(sent), queue.remove(Collections.singletonList(sent)));
+        assertEquals(2, pending().getVersion());
+    }
+
+    @Test
+    void ensureThatConcurrentFirstChangesAreCoalesced() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first =
+                    executor.submit(
+                            () ->
+                                    transactionTemplate.executeWithoutResult(
+                                            status -> {
+                                                queue.enqueue(
+                                                        uuid,
+                                                        SyncEntityType.CUSTOMER,
+                                                        SyncOperation.REGISTER,
+                                                        "{\"email\":\"a\"}");
+                                                inserted.countDown();
+                                                await(release);
+                                            }));
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+
+            // waits for the uncommitted insert of the first change, then merges into it
+            Thread releaser =
+                    new Thread(
+                            () -> {
+                                sleep(200);
+                                release.countDown();
+                            });
+            releaser.start();
+            queue.enqueue(uuid, SyncEntityType.CUSTOMER, SyncOperation.UPDATE, "{\"email\":\"b\"}");
+            first.get(10, TimeUnit.SECONDS);
+            releaser.join();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        SyncRecord record = pending();
+        assertEquals(SyncOperation.REGISTER, record.getOperation());
+        assertEquals("{\"email\":\"b\"}", record.getPayload());
+        assertEquals(2, record.getVersion());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void ensureThatChangesDuringSendAreKept() {
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.REGISTER, "{}");
+        SyncRecord sent = pending();
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.UPDATE, "{\"bic\":\"b\"}");
+
+        queue.remove(Collections.singletonList(sent));
+        queue.registered(Collections.singletonList(sent));
+
+        SyncRecord record = pending();
+        assertEquals(SyncOperation.UPDATE, record.getOperation());
+        assertEquals("{\"bic\":\"b\"}", record.getPayload());
+    }
+
+    @Test
+    void ensureThatPostponedChangesAreNotDue() {
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.UPDATE, "{}");
+
+        queue.postpone(
+                Collections.singletonList(pending()), record -> LocalDateTime.now().plusHours(1));
+
+        assertTrue(queue.due(10).isEmpty());
+        assertEquals(1, queue.backlog().getPending());
+    }
+
+    @Test
+    void ensureThatParkedChangesWaitForTheNextChange() {
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.UPDATE, "{");
+
+        queue.park(Collections.singletonList(pending()));
+
+        assertTrue(queue.due(10).isEmpty());
+        queue.enqueue(uuid, SyncEntityType.BANK, SyncOperation.UPDATE, "{}");
+        assertEquals("{}", pending().getPayload());
+    }
+
+    @Test
+    void ensureThatReconcilerFindsSeededCustomersInSync() {
+        PaymentNetworkReconciler.Reconciliation result = reconciler.reconcile();
+
+        assertTrue(result.getCompared() > 0);
+        assertEquals(0, result.getRegistered() + result.getUpdated() + result.getUnregistered());
+        assertTrue(queue.due(10).isEmpty());
+    }
+
+    @Test
+    void ensureThatRelaySendsCommittedCustomerChanges() {
+        CustomerDTO customerDTO =
+                CustomerDTO.builder()
+                        .name("Ana")
+                        .surname("Novak")
+                        .email("ana.novak.sync@gmail.com")
+                        .balance(BigDecimal.TEN)
+                        .suspenseBalance(BigDecimal.ZERO)
+                        .paymentNetwork(true)
+                        .bank(BankDTO.builder().bic("LJBASI2XXX").build())
+                        .build();
+        Customer customer = customerService.addNewCustomer(customerDTO);
+        try {
+            SyncRecord record = pending();
+            assertEquals(customer.getUuid(), record.getUuid());
+            assertEquals(SyncOperation.REGISTER, record.getOperation());
+
+            relay.sync();
+
+            assertTrue(queue.due(10).isEmpty());
+        } finally {
+            customerService.deleteCustomer(customer.getUuid());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package si.endava.banksimulator.feignClient.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import si.endava.banksimulator.enums.SyncEntityType;
+import si.endava.banksimulator.enums.SyncOperation;
+import si.endava.banksimulator.feignClient.PaymentNetworkAsyncClient;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkBankDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerOperationDTO;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkSyncResultDTO;
+import si.endava.banksimulator.services.CustomerValidationCache;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentNetworkSyncRelayTest {
+
+    @Mock private PaymentNetworkSyncQueue queue;
+
+    @Mock private PaymentNetworkAsyncClient paymentNetworkAsyncClient;
+
+    @Mock private CustomerValidationCache customerValidationCache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentNetworkSyncRelay relay;
+
+    private final UUID customerUuid = UUID.fromString("d0bd56d8-5ca2-469c-b4f8-9bac5e3d5e1e");
+    private final UUID bankUuid = UUID.fromString("7c955d37-90b5-41d1-ad1e-49757a0420ac");
+
+    @BeforeEach
+    void setUp() {
+        relay =
+                new PaymentNetworkSyncRelay(
+                        queue,
+                        paymentNetworkAsyncClient,
+                        customerValidationCache,
+                        objectMapper,
+                        meterRegistry,
+                        10,
+                        1000,
+                        1000,
+                        60_000);
+        Mockito.when(queue.backlog()).thenReturn(new PaymentNetworkSyncQueue.Backlog(0, null));
+    }
+
+    private SyncRecord customer(SyncOperation operation) throws Exception {
+        PaymentNetworkCustomerDTO customer =
+                PaymentNetworkCustomerDTO.builder()
+                        .email("max.irving@gmail.com")
+                        .bankBIC("LJBASI2X")
+                        .build();
+        return new SyncRecord(
+                customerUuid,
+                SyncEntityType.CUSTOMER,
+                operation,
+                objectMapper.writeValueAsString(customer),
+                3,
+                0);
+    }
+
+    private SyncRecord bank() throws Exception {
+        PaymentNetworkBankDTO bank =
+                PaymentNetworkBankDTO.builder().bankName("NLB").bic("LJBASI2X").build();
+        return new SyncRecord(
+                bankUuid,
+                SyncEntityType.BANK,
+                SyncOperation.UPDATE,
+                objectMapper.writeValueAsString(bank),
+                1,
+                0);
+    }
+
+    private static CompletableFuture<List<PaymentNetworkSyncResultDTO>> answer(
+            PaymentNetworkSyncResultDTO... results) {
+        return CompletableFuture.completedFuture(Arrays.asList(results));
+    }
+
+    @Test
+    void ensureThatSyncSendsOneBulkCallPerEntityType() throws Exception {
+        SyncRecord customer = customer(SyncOperation.REGISTER);
+        SyncRecord bank = bank();
+        Mockito.when(queue.due(10)).thenReturn(Arrays.asList(customer, bank));
+        Mockito.when(paymentNetworkAsyncClient.syncCustomers(any()))
+                .thenReturn(answer(new PaymentNetworkSyncResultDTO(customerUuid, true, null)));
+        Mockito.when(paymentNetworkAsyncClient.syncBanks(any()))
+                .thenReturn(answer(new PaymentNetworkSyncResultDTO(bankUuid, true, null)));
+
+        relay.sync();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentNetworkCustomerOperationDTO>> sent =
+                ArgumentCaptor.forClass(List.class);
+        verify(paymentNetworkAsyncClient, times(1)).syncCustomers(sent.capture());
+        assertEquals(SyncOperation.REGISTER, sent.getValue().get(0).getOperation());
+        assertEquals(customerUuid, sent.getValue().get(0).getCustomer().getUuid());
+        verify(queue, times(1)).remove(Collections.singletonList(customer));
+        verify(queue, times(1)).remove(Collections.singletonList(bank));
+        verify(queue, times(1)).registered(Collections.singletonList(customer));
+        verify(customerValidationCache, times(1)).invalidate("max.irving@gmail.com");
+        assertEquals(2, meterRegistry.counter("banksimulator.payment-network.sync.synced").count());
+    }
+
+    @Test
+    void ensureThatRegistrationsCancelledDuringSendAreUnregistered() throws Exception {
+        SyncRecord customer = customer(SyncOperation.REGISTER);
+        Mockito.when(queue.due(10)).thenReturn(Collections.singletonList(customer));
+        Mockito.when(paymentNetworkAsyncClient.syncCustomers(any()))
+                .thenReturn(answer(new PaymentNetworkSyncResultDTO(customerUuid, true, null)));
+        Mockito.when(queue.remove(Collections.singletonList(customer)))
+                .thenReturn(Collections.singletonList(customer));
+        Mockito.when(queue.pending(any())).thenReturn(Collections.emptySet());
+
+        relay.sync();
+
+        verify(queue, times(1))
+                .enqueue(
+                        customerUuid,
+                        SyncEntityType.CUSTOMER,
+                        SyncOperation.UNREGISTER,
+                        customer.getPayload());
+    }
+
+    @Test
+    void ensureThatRejectedOperationsAreDropped() throws Exception {
+        SyncRecord customer = customer(SyncOperation.REGISTER);
+        Mockito.when(queue.due(10)).thenReturn(Collections.singletonList(customer));
+        Mockito.when(paymentNetworkAsyncClient.syncCustomers(any()))
+                .thenReturn(
+                        answer(
+                                new PaymentNetworkSyncResultDTO(
+                                        customerUuid, false, "unknown bank")));
+
+        relay.sync();
+
+        verify(queue, times(1)).remove(Collections.singletonList(customer));
+        verify(queue, times(1)).registered(Collections.emptyList());
+        verify(customerValidationCache, never()).invalidate(any());
+        assertEquals(
+                1, meterRegistry.counter("banksimulator.payment-network.sync.rejected").count());
+    }
+
+    @Test
+    void ensureThatFailedCallsArePostponedWithBackoff() throws Exception {
+        SyncRecord customer = customer(SyncOperation.UNREGISTER);
+        Mockito.when(queue.due(10)).thenReturn(Collections.singletonList(customer));
+        CompletableFuture<List<PaymentNetworkSyncResultDTO>> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new IllegalStateException("payment network unavailable"));
+        Mockito.when(paymentNetworkAsyncClient.syncCustomers(any())).thenReturn(failure);
+
+        relay.sync();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Function<SyncRecord, LocalDateTime>> nextAttempt =
+                ArgumentCaptor.forClass(Function.class);
+        verify(queue, times(1))
+                .postpone(Mockito.eq(Collections.singletonList(customer)), nextAttempt.capture());
+        verify(queue, never()).remove(any());
+        assertTrue(nextAttempt.getValue().apply(customer).isAfter(LocalDateTime.now()));
+        assertEquals(1, meterRegistry.counter("banksimulator.payment-network.sync.failed").count());
+    }
+
+    @Test
+    void ensureThatUnreadableOperationsAreParkedWithoutHoldingUpTheBatch() throws Exception {
+        SyncRecord unreadable =
+                new SyncRecord(
+                        UUID.randomUUID(),
+                        SyncEntityType.CUSTOMER,
+                        SyncOperation.UPDATE,
+                        "{",
+                        1,
+                        0);
+        SyncRecord customer = customer(SyncOperation.UPDATE);
+        Mockito.when(queue.due(10)).thenReturn(Arrays.asList(unreadable, customer));
+        Mockito.when(paymentNetworkAsyncClient.syncCustomers(any()))
+                .thenReturn(answer(new PaymentNetworkSyncResultDTO(customerUuid, true, null)));
+
+        relay.sync();
+
+        verify(queue, times(1)).park(Collections.singletonList(unreadable));
+        verify(queue, times(1)).remove(Collections.singletonList(customer));
+        assertEquals(1, meterRegistry.counter("banksimulator.payment-network.sync.parked").count());
+    }
+
+    @Test
+    void ensureThatUnansweredOperationsArePostponed() throws Exception {
+        SyncRecord customer = customer(SyncOperation.UPDATE);
+        Mockito.when(queue.due(10)).thenReturn(Collections.singletonList(customer));
+        Mockito.when(paymentNetworkAsyncClient.syncCustomers(any())).thenReturn(answer());
+
+        relay.sync();
+
+        verify(queue, times(1)).remove(Collections.emptyList());
+        verify(queue, times(1)).postpone(Mockito.eq(Collections.singletonList(customer)), any());
+    }
+}
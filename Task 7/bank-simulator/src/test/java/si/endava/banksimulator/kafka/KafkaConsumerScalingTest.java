@@ -0,0 +1,189 @@
+package si.endava.banksimulator.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.test.condition.EmbeddedKafkaCondition;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import si.endava.banksimulator.kafka.events.NewPaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEventSerializer;
+
+/**
+ * Sends the same keyed payment requests to a topic consumed by 1 and to one consumed by {@value
+ * #CONSUMERS} consumers of the batch listener factory. Every poll sleeps for {@value #POLL_COST_MS}
+ * ms in place of the database transaction the real listener commits, so throughput is bound by the
+ * number of consumers rather than by the cores of the build machine.
+ */
+@EmbeddedKafka(
+        partitions = KafkaConsumerScalingTest.CONSUMERS,
+        topics = {KafkaConsumerScalingTest.SINGLE_TOPIC, KafkaConsumerScalingTest.SCALED_TOPIC})
+class KafkaConsumerScalingTest {
+
+    static final int CONSUMERS = 4;
+    static final String SINGLE_TOPIC = "paymentNew-single";
+    static final String SCALED_TOPIC = "paymentNew-scaled";
+
+    private static final int CUSTOMERS = 400;
+    private static final int PAYMENTS_PER_CUSTOMER = 10;
+    private static final int RECORDS = CUSTOMERS * PAYMENTS_PER_CUSTOMER;
+    private static final int MAX_POLL_RECORDS = 50;
+    private static final long POLL_COST_MS = 20;
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerScalingTest.class);
+
+    private static final AtomicInteger groups = new AtomicInteger();
+
+    private static final UUID[] customers = new UUID[CUSTOMERS];
+
+    private static KafkaTemplate<String, PaymentEvent> template;
+
+    @BeforeAll
+    static void setUp() {
+        Map<String, Object> props =
+                KafkaTestUtils.producerProps(EmbeddedKafkaCondition.getBroker());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PaymentEventSerializer.class);
+        template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+
+        for (int i = 0; i < CUSTOMERS; i++) customers[i] = UUID.randomUUID();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        template.destroy();
+    }
+
+    private static void producePayments(String topic) {
+        for (int sequence = 0; sequence < PAYMENTS_PER_CUSTOMER; sequence++) {
+            for (UUID customer : customers) {
+                template.send(
+                        topic,
+                        customer.toString(),
+                        new NewPaymentEvent(
+                                customer,
+                                "max.irving@gmail.com",
+                                BigDecimal.valueOf(sequence),
+                                UUID.randomUUID()));
+            }
+        }
+        template.flush();
+    }
+
+    @Test
+    void ensureThatThroughputScalesWithConsumersAndPerCustomerOrderHolds() throws Exception {
+        double single = consume(SINGLE_TOPIC, 1);
+        double scaled = consume(SCALED_TOPIC, CONSUMERS);
+
+        logger.info(
+                "Consumed {} records: {} records/s with 1 consumer, {} records/s with {}",
+                RECORDS,
+                (long) single,
+                (long) scaled,
+                CONSUMERS);
+        assertTrue(scaled > 2 * single, "expected at least twice the throughput");
+    }
+
+    private double consume(String topic, int concurrency) throws Exception {
+        KafkaConsumerConfig config = new KafkaConsumerConfig();
+        ReflectionTestUtils.setField(
+                config,
+                "bootstrapServers",
+                EmbeddedKafkaCondition.getBroker().getBrokersAsString());
+        ReflectionTestUtils.setField(config, "autoStartup", true);
+        ReflectionTestUtils.setField(config, "batchMaxPollRecords", MAX_POLL_RECORDS);
+        ReflectionTestUtils.setField(config, "concurrency", concurrency);
+
+        Map<String, Object> props = config.consumerConfig();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "scaling-" + groups.incrementAndGet());
+        ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> factory =
+                (ConcurrentKafkaListenerContainerFactory<String, PaymentEvent>)
+                        config.batchFactory(new DefaultKafkaConsumerFactory<>(props));
+
+        CountDownLatch consumed = new CountDownLatch(RECORDS);
+        Map<String, BigDecimal> lastSequence = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicLong first = new AtomicLong();
+        ConcurrentMessageListenerContainer<String, PaymentEvent> container =
+                factory.createContainer(topic);
+        container.setupMessageListener(
+                (BatchMessageListener<String, PaymentEvent>)
+                        records -> {
+                            first.compareAndSet(0, System.nanoTime());
+                            checkOrder(records, lastSequence, outOfOrder);
+                            sleep(POLL_COST_MS);
+                            records.forEach(record -> consumed.countDown());
+                        });
+
+        container.start();
+        try {
+            awaitBalancedAssignment(container, concurrency);
+            producePayments(topic);
+            assertTrue(consumed.await(60, TimeUnit.SECONDS), "records were not consumed");
+        } finally {
+            container.stop();
+        }
+        long elapsed = System.nanoTime() - first.get();
+
+        assertEquals(0, outOfOrder.get());
+        assertEquals(CUSTOMERS, lastSequence.size());
+        return RECORDS / (elapsed / 1e9);
+    }
+
+    /** Waits until the group has settled with every consumer owning its share of the partitions. */
+    private static void awaitBalancedAssignment(
+            ConcurrentMessageListenerContainer<String, PaymentEvent> container, int concurrency)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!container.getAssignmentsByClientId().values().stream()
+                .allMatch(partitions -> partitions.size() == CONSUMERS / concurrency)) {
+            assertTrue(System.currentTimeMillis() < deadline, "partitions were not assigned");
+            Thread.sleep(50);
+        }
+    }
+
+    private static void checkOrder(
+            List<ConsumerRecord<String, PaymentEvent>> records,
+            Map<String, BigDecimal> lastSequence,
+            AtomicInteger outOfOrder) {
+        for (ConsumerRecord<String, PaymentEvent> record : records) {
+            BigDecimal sequence = ((NewPaymentEvent) record.value()).getAmount();
+            BigDecimal previous = lastSequence.put(record.key(), sequence);
+            if (previous != null && previous.compareTo(sequence) >= 0) outOfOrder.incrementAndGet();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package si.endava.banksimulator.kafka.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import si.endava.banksimulator.kafka.KafkaTopics;
+
+class PaymentEventCodecTest {
+
+    private static final UUID sourceUuid = UUID.fromString("0e02ff72-960d-4615-b460-792f9ba81d17");
+    private static final UUID transactionUuid =
+            UUID.fromString("ba639cd9-33f2-4163-94a4-e1bf785e44ec");
+
+    @Test
+    void ensureThatNewPaymentEventSurvivesRoundTrip() {
+        NewPaymentEvent event =
+                new NewPaymentEvent(
+                        sourceUuid,
+                        "max irving@gmail.com",
+                        new BigDecimal("12.345"),
+                        transactionUuid);
+
+        NewPaymentEvent decoded =
+                (NewPaymentEvent)
+                        PaymentEventCodec.decode(
+                                KafkaTopics.PAYMENT_NEW, PaymentEventCodec.encode(event));
+
+        assertEquals(sourceUuid, decoded.getSourceCustomerUuid());
+        assertEquals("max irving@gmail.com", decoded.getTargetEmail());
+        assertEquals(new BigDecimal("12.345"), decoded.getAmount());
+        assertEquals(transactionUuid, decoded.getTransactionUuid());
+    }
+
+    @Test
+    void ensureThatTransactionNotificationEventSurvivesRoundTrip() {
+        TransactionNotificationEvent event =
+                new TransactionNotificationEvent(transactionUuid, "LJBASI2X");
+
+        TransactionNotificationEvent decoded =
+                (TransactionNotificationEvent)
+                        PaymentEventCodec.decode(
+                                KafkaTopics.COMPLETE_TRANSACTION, PaymentEventCodec.encode(event));
+
+        assertEquals(transactionUuid, decoded.getTransactionUuid());
+        assertEquals("LJBASI2X", decoded.getBankBIC());
+    }
+
+    @Test
+    void ensureThatLegacyTextEventsAreDecoded() {
+        byte[] text =
+                (sourceUuid + " max.irving@gmail.com 2.0 " + transactionUuid)
+                        .getBytes(StandardCharsets.UTF_8);
+
+        NewPaymentEvent decoded =
+                (NewPaymentEvent) PaymentEventCodec.decode(KafkaTopics.PAYMENT_NEW, text);
+
+        assertEquals(new BigDecimal("2.0"), decoded.getAmount());
+        assertEquals(transactionUuid, decoded.getTransactionUuid());
+    }
+
+    @Test
+    void ensureThatEventsLongerThanTheOutboxPayloadAreRejected() {
+        String targetEmail = "a".repeat(PaymentEventCodec.MAX_SIZE) + "@gmail.com";
+
+        assertThrows(
+                SerializationException.class,
+                () ->
+                        PaymentEventCodec.encode(
+                                new NewPaymentEvent(
+                                        sourceUuid, targetEmail, BigDecimal.ONE, transactionUuid)));
+    }
+
+    @Test
+    void ensureThatUnsupportedVersionIsRejected() {
+        byte[] data =
+                PaymentEventCodec.encode(new TransactionNotificationEvent(transactionUuid, "BIC"));
+        data[1] = 2;
+
+        assertThrows(
+                SerializationException.class,
+                () -> PaymentEventCodec.decode(KafkaTopics.COMPLETE_TRANSACTION, data));
+    }
+}
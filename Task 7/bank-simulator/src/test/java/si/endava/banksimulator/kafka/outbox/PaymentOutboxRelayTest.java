@@ -0,0 +1,120 @@
+package si.endava.banksimulator.kafka.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import si.endava.banksimulator.kafka.KafkaTopics;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentOutboxRelayTest {
+
+    @Mock private PaymentOutbox outbox;
+
+    @Mock private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PaymentOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new PaymentOutboxRelay(outbox, kafkaTemplate, meterRegistry, 2, 1000);
+    }
+
+    private static OutboxRecord record(long id) {
+        return record(id, "key-" + id);
+    }
+
+    private static OutboxRecord record(long id, String key) {
+        return new OutboxRecord(
+                id, KafkaTopics.PAYMENT_NEW, key, new byte[] {1}, LocalDateTime.now());
+    }
+
+    private static SettableListenableFuture<SendResult<String, byte[]>> acknowledged() {
+        SettableListenableFuture<SendResult<String, byte[]>> future =
+                new SettableListenableFuture<>();
+        future.set(null);
+        return future;
+    }
+
+    private static SettableListenableFuture<SendResult<String, byte[]>> rejected() {
+        SettableListenableFuture<SendResult<String, byte[]>> future =
+                new SettableListenableFuture<>();
+        future.setException(new IllegalStateException("broker unavailable"));
+        return future;
+    }
+
+    @Test
+    void ensureThatRelayDrainsOutboxInBatches() {
+        Mockito.when(outbox.next(2))
+                .thenReturn(Arrays.asList(record(1), record(2)))
+                .thenReturn(Collections.singletonList(record(3)));
+        Mockito.when(kafkaTemplate.send(any(String.class), any(String.class), any(byte[].class)))
+                .thenAnswer(invocation -> acknowledged());
+        Mockito.when(outbox.backlog()).thenReturn(new PaymentOutbox.Backlog(0, null));
+
+        relay.relay();
+
+        verify(outbox, times(1)).delete(Arrays.asList(1L, 2L));
+        verify(outbox, times(1)).delete(Collections.singletonList(3L));
+        assertEquals(3, meterRegistry.counter("banksimulator.outbox.relayed").count());
+    }
+
+    @Test
+    void ensureThatRelayKeepsUnacknowledgedEvents() {
+        Mockito.when(outbox.next(2)).thenReturn(Arrays.asList(record(1), record(2)));
+        Mockito.when(kafkaTemplate.send(any(String.class), any(String.class), any(byte[].class)))
+                .thenAnswer(invocation -> rejected());
+        Mockito.when(outbox.backlog())
+                .thenReturn(new PaymentOutbox.Backlog(1, LocalDateTime.now().minusSeconds(5)));
+
+        relay.relay();
+
+        verify(outbox, times(1)).next(2);
+        verify(outbox, times(1)).delete(Collections.emptyList());
+        assertEquals(2, meterRegistry.counter("banksimulator.outbox.failed").count());
+        assertEquals(1, meterRegistry.get("banksimulator.outbox.pending").gauge().value());
+        assertEquals(
+                5,
+                meterRegistry.get("banksimulator.outbox.lag").timeGauge().value(TimeUnit.SECONDS),
+                1);
+    }
+
+    @Test
+    void ensureThatEventsAfterAnUnacknowledgedOneOfTheirKeyAreKept() {
+        relay = new PaymentOutboxRelay(outbox, kafkaTemplate, meterRegistry, 4, 1000);
+        Mockito.when(outbox.next(4))
+                .thenReturn(
+                        Arrays.asList(
+                                record(1, "a"), record(2, "b"), record(3, "a"), record(4, "b")));
+        Mockito.when(kafkaTemplate.send(any(String.class), any(String.class), any(byte[].class)))
+                .thenAnswer(invocation -> acknowledged())
+                .thenAnswer(invocation -> rejected())
+                .thenAnswer(invocation -> acknowledged())
+                .thenAnswer(invocation -> acknowledged());
+        Mockito.when(outbox.backlog()).thenReturn(new PaymentOutbox.Backlog(2, null));
+
+        relay.relay();
+
+        verify(outbox, times(1)).next(4);
+        verify(outbox, times(1)).delete(Arrays.asList(1L, 3L));
+        assertEquals(1, meterRegistry.counter("banksimulator.outbox.failed").count());
+    }
+}
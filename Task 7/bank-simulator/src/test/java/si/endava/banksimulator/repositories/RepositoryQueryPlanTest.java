@@ -0,0 +1,225 @@
+package si.endava.banksimulator.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.endava.banksimulator.entities.Bank;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/**
+ * Runs every query method of the repositories, collects the SQL it sent to H2 and asserts that the
+ * {@code EXPLAIN} plan of each statement reads the entity tables through an index.
+ */
+@SpringBootTest
+@ActiveProfiles(profiles = "withoutEureka")
+class RepositoryQueryPlanTest {
+
+    /**
+     * Substring searches with a leading wildcard, which no B-tree index can serve, and unfiltered
+     * listings, which read every row anyway.
+     */
+    private static final Set<String> SCANNING =
+            new HashSet<>(
+                    Arrays.asList(
+                            "BankRepository.findByBankNameContaining",
+                            "ContactRepository.findByNameContaining",
+                            "CustomerRepository.findAllWithBank",
+                            "ContactRepository.findAllWithCustomer",
+                            "TransactionRepository.findAllWithDetails",
+                            "TransactionRepository.findAllSummaries"));
+
+    private static final Pattern ENTITY_TABLES =
+            Pattern.compile("\\b(bank|customer|contact_list|transaction)\\b");
+
+    private static final UUID bankUuid = UUID.fromString("15de7ff4-f10c-4330-9fc2-7803879566f7");
+    private static final UUID customerUuid =
+            UUID.fromString("0e02ff72-960d-4615-b460-792f9ba81d17");
+    private static final UUID contactUuid = UUID.fromString("d79235b3-c24a-440d-a6f7-008e99c2f629");
+    private static final UUID transactionUuid =
+            UUID.fromString("80eb1f63-f086-4625-a8c6-6bfd509d2204");
+    private static final String email = "janez.novak@gmail.com";
+
+    @Autowired private BankRepository bankRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private ContactRepository contactRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    private final Set<String> covered = new HashSet<>();
+
+    @Test
+    void ensureThatBankRepositoryQueriesUseIndexes() {
+        assertIndexed(
+                "BankRepository.findBankByUuid", () -> bankRepository.findBankByUuid(bankUuid));
+        assertIndexed(
+                "BankRepository.findBankByBic", () -> bankRepository.findBankByBic("LJBASI2XXX"));
+        assertIndexed(
+                "BankRepository.existsBankByBic",
+                () -> bankRepository.existsBankByBic("LJBASI2XXX"));
+        assertCovered(BankRepository.class);
+    }
+
+    @Test
+    void ensureThatCustomerRepositoryQueriesUseIndexes() {
+        Bank bank = bankRepository.findBankByUuid(bankUuid).get();
+        assertIndexed(
+                "CustomerRepository.findCustomerByUuid",
+                () -> customerRepository.findCustomerByUuid(customerUuid));
+        assertIndexed(
+                "CustomerRepository.existsCustomerByEmail",
+                () -> customerRepository.existsCustomerByEmail(email));
+        assertIndexed(
+                "CustomerRepository.findByEmail", () -> customerRepository.findByEmail(email));
+        assertIndexed(
+                "CustomerRepository.findByEmailIn",
+                () -> customerRepository.findByEmailIn(Arrays.asList(email, "john.doe@gmail.com")));
+        assertIndexed(
+                "CustomerRepository.existsCustomerByEmailAndBank",
+                () -> customerRepository.existsCustomerByEmailAndBank(email, bank));
+        assertIndexed(
+                "CustomerRepository.findIdentityByEmail",
+                () -> customerRepository.findIdentityByEmail(email));
+        assertIndexed(
+                "CustomerRepository.findIdentityByUuid",
+                () -> customerRepository.findIdentityByUuid(customerUuid));
+        assertIndexed(
+                "CustomerRepository.findByUuidGreaterThanOrderByUuid",
+                () ->
+                        customerRepository.findByUuidGreaterThanOrderByUuid(
+                                customerUuid, PageRequest.of(0, 10)));
+        assertIndexed(
+                "CustomerRepository.findByPaymentNetworkTrueAndUuidGreaterThanOrderByUuid",
+                () ->
+                        customerRepository.findByPaymentNetworkTrueAndUuidGreaterThanOrderByUuid(
+                                customerUuid, PageRequest.of(0, 10)));
+        assertCovered(CustomerRepository.class);
+    }
+
+    @Test
+    void ensureThatContactRepositoryQueriesUseIndexes() {
+        assertIndexed(
+                "ContactRepository.findContactByUuid",
+                () -> contactRepository.findContactByUuid(contactUuid));
+        assertIndexed(
+                "ContactRepository.findByCustomerIdAndEmail",
+                () -> contactRepository.findByCustomerIdAndEmail(2L, "max.irving@gmail.com"));
+        assertIndexed(
+                "ContactRepository.findByCustomerId", () -> contactRepository.findByCustomerId(2L));
+        assertCovered(ContactRepository.class);
+    }
+
+    @Test
+    void ensureThatTransactionRepositoryQueriesUseIndexes() {
+        TransactionFilter byCustomer =
+                TransactionFilter.builder().customerUuid(customerUuid).build();
+        assertIndexed(
+                "TransactionRepository.findTransactionByUuid",
+                () -> transactionRepository.findTransactionByUuid(transactionUuid));
+        assertIndexed(
+                "TransactionRepository.findByTransactionStatus",
+                () -> transactionRepository.findByTransactionStatus(TransactionStatus.PENDING));
+        assertIndexed(
+                "TransactionRepository.findSummariesByTransactionStatus",
+                () ->
+                        transactionRepository.findSummariesByTransactionStatus(
+                                TransactionStatus.PENDING));
+        assertIndexed(
+                "TransactionRepository.findByUuidIn",
+                () -> transactionRepository.findByUuidIn(Arrays.asList(transactionUuid, bankUuid)));
+        assertIndexed(
+                "TransactionRepository.findPartiesByUuidIn",
+                () ->
+                        transactionRepository.findPartiesByUuidIn(
+                                Arrays.asList(transactionUuid, bankUuid)));
+        assertIndexed(
+                "TransactionRepository.findPage",
+                () ->
+                        transactionRepository.findPage(
+                                byCustomer,
+                                new TransactionCursor(LocalDateTime.of(2020, 1, 1, 0, 0), 1L),
+                                10));
+        assertIndexed(
+                "TransactionRepository.forEach",
+                () ->
+                        transactionTemplate.executeWithoutResult(
+                                status -> transactionRepository.forEach(byCustomer, 10, t -> {})));
+        assertCovered(TransactionRepository.class, TransactionRepositoryCustom.class);
+    }
+
+    private void assertIndexed(String method, Runnable call) {
+        List<String> statements = statements(call);
+        assertFalse(statements.isEmpty(), method + " sent no query");
+        for (String sql : statements) {
+            String plan = plan(sql);
+            assertFalse(plan.contains("tableScan"), method + " scans a table:\n" + plan);
+        }
+        covered.add(method);
+    }
+
+    private void assertCovered(Class<?>... repositories) {
+        String name = repositories[0].getSimpleName();
+        Set<String> declared =
+                Arrays.stream(repositories)
+                        .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods()))
+                        .map(Method::getName)
+                        .map(method -> name + "." + method)
+                        .filter(method -> !SCANNING.contains(method))
+                        .collect(Collectors.toSet());
+        assertEquals(declared, covered);
+    }
+
+    /** The entity table queries {@code call} executed, with their parameters as {@code ?}. */
+    private List<String> statements(Runnable call) {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+        call.run();
+        List<String> executed =
+                jdbcTemplate.queryForList(
+                        "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS",
+                        String.class);
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+
+        List<String> statements = new ArrayList<>();
+        for (String sql : executed) {
+            String lower = sql.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("select")
+                    && !lower.contains("information_schema")
+                    && ENTITY_TABLES.matcher(lower).find()) statements.add(sql);
+        }
+        return statements;
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.execute(
+                "EXPLAIN " + sql,
+                (PreparedStatement statement) -> {
+                    int parameters = statement.getParameterMetaData().getParameterCount();
+                    for (int i = 1; i <= parameters; i++) statement.setObject(i, null);
+                    try (ResultSet plan = statement.executeQuery()) {
+                        plan.next();
+                        return plan.getString(1);
+                    }
+                });
+    }
+}
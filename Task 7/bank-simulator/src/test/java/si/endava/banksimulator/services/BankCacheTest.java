@@ -0,0 +1,107 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import si.endava.banksimulator.entities.Bank;
+import si.endava.banksimulator.repositories.BankRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BankCacheTest {
+
+    @Mock private BankRepository bankRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BankCache bankCache;
+
+    private static final Bank bank =
+            Bank.builder()
+                    .uuid(UUID.fromString("7c955d37-90b5-41d1-ad1e-49757a0420ac"))
+                    .bankName("Sparkasse")
+                    .bic("KSPKSI22XXX")
+                    .country("SI")
+                    .currency("EUR")
+                    .build();
+
+    @BeforeEach
+    void setUp() {
+        bankCache = new BankCache(bankRepository, meterRegistry, 100, 60_000);
+    }
+
+    @Test
+    void ensureThatRepeatedLookupsAreServedFromCache() {
+        Mockito.when(bankRepository.findBankByBic(bank.getBic())).thenReturn(Optional.of(bank));
+
+        assertSame(bank, bankCache.findByBic(bank.getBic()).get());
+        assertSame(bank, bankCache.findByBic(bank.getBic()).get());
+        assertSame(bank, bankCache.findByUuid(bank.getUuid()).get());
+
+        verify(bankRepository, times(1)).findBankByBic(bank.getBic());
+        verify(bankRepository, never()).findBankByUuid(bank.getUuid());
+        assertEquals(
+                2.0,
+                meterRegistry
+                                .get("cache.gets")
+                                .tag("cache", "banksByBic")
+                                .tag("result", "hit")
+                                .functionCounter()
+                                .count()
+                        + meterRegistry
+                                .get("cache.gets")
+                                .tag("cache", "banksByUuid")
+                                .tag("result", "hit")
+                                .functionCounter()
+                                .count());
+    }
+
+    @Test
+    void ensureThatEvictForcesReload() {
+        Mockito.when(bankRepository.findBankByUuid(bank.getUuid())).thenReturn(Optional.of(bank));
+
+        bankCache.findByUuid(bank.getUuid());
+        bankCache.evict(bank.getUuid(), bank.getBic());
+        bankCache.findByUuid(bank.getUuid());
+
+        verify(bankRepository, times(2)).findBankByUuid(bank.getUuid());
+    }
+
+    @Test
+    void ensureThatEvictDropsOldBic() {
+        Mockito.when(bankRepository.findBankByBic(bank.getBic())).thenReturn(Optional.of(bank));
+
+        bankCache.findByBic(bank.getBic());
+        bankCache.evict(bank.getUuid(), bank.getBic(), "KIDOSI2XXX");
+        Mockito.when(bankRepository.findBankByBic(bank.getBic())).thenReturn(Optional.empty());
+
+        assertFalse(bankCache.findByBic(bank.getBic()).isPresent());
+    }
+
+    @Test
+    void ensureThatMissingBanksAreNotCached() {
+        String bic = "LJBASI2XXX";
+        Mockito.when(bankRepository.findBankByBic(bic))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(bank));
+
+        assertFalse(bankCache.findByBic(bic).isPresent());
+        assertTrue(bankCache.findByBic(bic).isPresent());
+
+        verify(bankRepository, times(2)).findBankByBic(bic);
+    }
+}
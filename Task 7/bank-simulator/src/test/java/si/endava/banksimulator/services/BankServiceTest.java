@@ -21,8 +21,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 import si.endava.banksimulator.dtos.BankDTO;
 import si.endava.banksimulator.entities.Bank;
-import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientMock;
 import si.endava.banksimulator.mappers.BankMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
 import si.endava.banksimulator.repositories.BankRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,7 +34,11 @@ class BankServiceTest {
 
     @InjectMocks private BankService bankService;
 
-    @Mock private PaymentNetworkFeignClientMock paymentNetworkFeignClientMock;
+    @Mock private PaymentNetworkSync paymentNetworkSync;
+
+    @Mock private BankCache bankCache;
+
+    @Mock private TransactionRollups transactionRollups;
 
     private static final Bank newBank =
             Bank.builder()
@@ -62,11 +66,11 @@ class BankServiceTest {
     @Test
     void ensureFindBankByBicWorks() {
         String bic = "LJBASI2XXX";
-        Mockito.when(bankRepository.findBankByBic(bic)).thenReturn(Optional.of(new Bank()));
+        Mockito.when(bankCache.findByBic(bic)).thenReturn(Optional.of(new Bank()));
 
         bankService.findByBic(bic);
 
-        verify(bankRepository, times(1)).findBankByBic(bic);
+        verify(bankCache, times(1)).findByBic(bic);
     }
 
     @Test
@@ -146,6 +150,7 @@ class BankServiceTest {
         bankService.deleteBank(uuid);
 
         verify(bankRepository, times(1)).deleteById(bank.getId());
+        verify(bankCache, times(1)).evict(bank.getUuid(), bank.getBic());
     }
 
     @Test
@@ -180,6 +185,8 @@ class BankServiceTest {
         assertNotNull(updatedBank);
         assertNotEquals(returnedBank.getBic(), updatedBank.getBic());
         assertEquals(updateBankDTO.getBic(), updatedBank.getBic());
+        verify(bankCache, times(1))
+                .evict(returnedBank.getUuid(), returnedBank.getBic(), newBank.getBic());
     }
 
     @Test
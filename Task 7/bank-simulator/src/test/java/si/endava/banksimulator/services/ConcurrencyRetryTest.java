@@ -0,0 +1,68 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import si.endava.banksimulator.entities.Customer;
+
+class ConcurrencyRetryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyRetry retry = new ConcurrencyRetry(meterRegistry, 3, 1, 2);
+
+    @Test
+    void ensureThatActionIsRepeatedUntilItWins() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result =
+                retry.execute(
+                        () -> {
+                            if (attempts.incrementAndGet() < 3)
+                                throw new ObjectOptimisticLockingFailureException(
+                                        Customer.class, 1L);
+                            return "done";
+                        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, meterRegistry.counter("banksimulator.retry.retried").count());
+    }
+
+    @Test
+    void ensureThatLastConflictIsThrownAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(
+                CannotAcquireLockException.class,
+                () ->
+                        retry.run(
+                                () -> {
+                                    attempts.incrementAndGet();
+                                    throw new CannotAcquireLockException("Timeout on lock");
+                                }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, meterRegistry.counter("banksimulator.retry.exhausted").count());
+    }
+
+    @Test
+    void ensureThatOtherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(
+                ElementNotFoundException.class,
+                () ->
+                        retry.run(
+                                () -> {
+                                    attempts.incrementAndGet();
+                                    throw new ElementNotFoundException("Customer not found.");
+                                }));
+
+        assertEquals(1, attempts.get());
+    }
+}
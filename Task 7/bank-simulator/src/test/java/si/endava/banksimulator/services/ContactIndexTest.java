@@ -0,0 +1,74 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import si.endava.banksimulator.entities.Contact;
+import si.endava.banksimulator.repositories.ContactRepository;
+
+@ExtendWith(MockitoExtension.class)
+class ContactIndexTest {
+
+    @Mock private ContactRepository contactRepository;
+
+    private static final long customerId = 7L;
+
+    private static final Contact bobby =
+            Contact.builder().name("Bobby").email("bobby@gmail.com").build();
+    private static final Contact kai =
+            Contact.builder().name("Kai").email("kai.havertz@gmail.com").build();
+
+    private ContactIndex contactIndex(boolean enabled) {
+        return new ContactIndex(contactRepository, new SimpleMeterRegistry(), enabled, 100);
+    }
+
+    @Test
+    void ensureThatDisabledIndexQueriesByCustomerIdAndEmail() {
+        ContactIndex contactIndex = contactIndex(false);
+        Mockito.when(contactRepository.findByCustomerIdAndEmail(customerId, bobby.getEmail()))
+                .thenReturn(Optional.of(bobby));
+
+        assertSame(bobby, contactIndex.find(customerId, bobby.getEmail()).get());
+
+        verify(contactRepository, never()).findByCustomerId(customerId);
+    }
+
+    @Test
+    void ensureThatEnabledIndexLoadsCustomerContactsOnce() {
+        ContactIndex contactIndex = contactIndex(true);
+        Mockito.when(contactRepository.findByCustomerId(customerId))
+                .thenReturn(Arrays.asList(bobby, kai));
+
+        assertSame(bobby, contactIndex.find(customerId, bobby.getEmail()).get());
+        assertSame(kai, contactIndex.find(customerId, kai.getEmail()).get());
+        assertFalse(contactIndex.find(customerId, "unknown@gmail.com").isPresent());
+
+        verify(contactRepository, times(1)).findByCustomerId(customerId);
+    }
+
+    @Test
+    void ensureThatEvictReloadsCustomerContacts() {
+        ContactIndex contactIndex = contactIndex(true);
+        Mockito.when(contactRepository.findByCustomerId(customerId))
+                .thenReturn(Collections.singletonList(bobby))
+                .thenReturn(Arrays.asList(bobby, kai));
+
+        assertFalse(contactIndex.find(customerId, kai.getEmail()).isPresent());
+        contactIndex.evict(customerId);
+
+        assertSame(kai, contactIndex.find(customerId, kai.getEmail()).get());
+        verify(contactRepository, times(2)).findByCustomerId(customerId);
+    }
+}
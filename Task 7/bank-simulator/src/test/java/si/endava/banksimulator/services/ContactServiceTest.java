@@ -22,6 +22,7 @@ import si.endava.banksimulator.dtos.CustomerDTO;
 import si.endava.banksimulator.entities.Contact;
 import si.endava.banksimulator.entities.Customer;
 import si.endava.banksimulator.mappers.ContactMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
 import si.endava.banksimulator.repositories.ContactRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +36,10 @@ class ContactServiceTest {
 
     @Mock private CustomerService customerService;
 
+    @Mock private ContactIndex contactIndex;
+
+    @Mock private TransactionRollups transactionRollups;
+
     private static final Contact newContact =
             Contact.builder().name("Bobby").email("bobby@gmail.com").build();
 
@@ -49,7 +54,7 @@ class ContactServiceTest {
     void ensureThatGetAllContactsWorks() {
         contactService.getAllContacts();
 
-        verify(contactRepository, times(1)).findAll();
+        verify(contactRepository, times(1)).findAllWithCustomer();
     }
 
     @Test
@@ -84,12 +89,11 @@ class ContactServiceTest {
         String email = "janez.novak@gmail.com";
         Customer customer = new Customer();
         Contact contact = new Contact();
-        Mockito.when(contactRepository.findByCustomerUuidAndEmail(customer.getUuid(), email))
-                .thenReturn(Optional.of(contact));
+        Mockito.when(contactIndex.find(customer.getId(), email)).thenReturn(Optional.of(contact));
 
         contactService.findByCustomerAndEmail(customer, email);
 
-        verify(contactRepository, times(1)).findByCustomerUuidAndEmail(customer.getUuid(), email);
+        verify(contactIndex, times(1)).find(customer.getId(), email);
     }
 
     @Test
@@ -124,12 +128,13 @@ class ContactServiceTest {
     @Test
     void ensureThatDeleteContactDeletesContactFromRepository() {
         UUID uuid = UUID.fromString("d79235b3-c24a-440d-a6f7-008e99c2f629");
-        Contact contact = new Contact();
+        Contact contact = Contact.builder().customer(new Customer()).build();
         Mockito.when(contactRepository.findContactByUuid(uuid)).thenReturn(Optional.of(contact));
 
         contactService.deleteContact(uuid);
 
         verify(contactRepository, times(1)).deleteById(contact.getId());
+        verify(contactIndex, times(1)).evict(contact.getCustomer().getId());
     }
 
     @Test
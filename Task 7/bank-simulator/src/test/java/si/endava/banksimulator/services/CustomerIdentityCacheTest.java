@@ -0,0 +1,130 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import si.endava.banksimulator.repositories.CustomerIdentity;
+import si.endava.banksimulator.repositories.CustomerRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerIdentityCacheTest {
+
+    @Mock private CustomerRepository customerRepository;
+
+    private CustomerIdentityCache customerIdentityCache;
+
+    private static final CustomerIdentity identity =
+            new CustomerIdentity(
+                    7L,
+                    UUID.fromString("d0bd56d8-5ca2-469c-b4f8-9bac5e3d5e1e"),
+                    "jonas.kimmich@gmail.com",
+                    1L);
+
+    @BeforeEach
+    void setUp() {
+        customerIdentityCache =
+                new CustomerIdentityCache(
+                        customerRepository, new SimpleMeterRegistry(), 100, 60_000);
+    }
+
+    @Test
+    void ensureThatRepeatedLookupsAreServedFromCache() {
+        Mockito.when(customerRepository.findIdentityByEmail(identity.getEmail()))
+                .thenReturn(Optional.of(identity));
+
+        assertSame(identity, customerIdentityCache.findByEmail(identity.getEmail()).get());
+        assertSame(identity, customerIdentityCache.findByEmail(identity.getEmail()).get());
+        assertSame(identity, customerIdentityCache.findByUuid(identity.getUuid()).get());
+
+        verify(customerRepository, times(1)).findIdentityByEmail(identity.getEmail());
+        verify(customerRepository, never()).findIdentityByUuid(identity.getUuid());
+    }
+
+    @Test
+    void ensureThatUnknownEmailsAreCachedUntilEvicted() {
+        String email = "unknown@gmail.com";
+        Mockito.when(customerRepository.findIdentityByEmail(email)).thenReturn(Optional.empty());
+
+        assertFalse(customerIdentityCache.findByEmail(email).isPresent());
+        assertFalse(customerIdentityCache.findByEmail(email).isPresent());
+        verify(customerRepository, times(1)).findIdentityByEmail(email);
+
+        customerIdentityCache.evict(null, email);
+        customerIdentityCache.findByEmail(email);
+        verify(customerRepository, times(2)).findIdentityByEmail(email);
+    }
+
+    @Test
+    void ensureThatEvictDropsUuidAndOldEmail() {
+        Mockito.when(customerRepository.findIdentityByUuid(identity.getUuid()))
+                .thenReturn(Optional.of(identity));
+
+        customerIdentityCache.findByUuid(identity.getUuid());
+        customerIdentityCache.evict(identity.getUuid(), identity.getEmail(), "new@gmail.com");
+        Mockito.when(customerRepository.findIdentityByUuid(identity.getUuid()))
+                .thenReturn(Optional.empty());
+
+        assertFalse(customerIdentityCache.findByUuid(identity.getUuid()).isPresent());
+        assertFalse(customerIdentityCache.findByEmail(identity.getEmail()).isPresent());
+    }
+
+    @Test
+    void ensureThatMissingUuidsAreNotCached() {
+        UUID uuid = UUID.fromString("00000000-0000-0000-0000-000000000000");
+        Mockito.when(customerRepository.findIdentityByUuid(uuid))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(identity));
+
+        assertFalse(customerIdentityCache.findByUuid(uuid).isPresent());
+        assertTrue(customerIdentityCache.findByUuid(uuid).isPresent());
+    }
+
+    @Test
+    void ensureThatLookupsLoadingByEmailAndByUuidAtOnceBothComplete() throws Exception {
+        CountDownLatch loading = new CountDownLatch(2);
+        Mockito.when(customerRepository.findIdentityByEmail(identity.getEmail()))
+                .thenAnswer(
+                        invocation -> {
+                            loading.countDown();
+                            loading.await(5, TimeUnit.SECONDS);
+                            return Optional.of(identity);
+                        });
+        Mockito.when(customerRepository.findIdentityByUuid(identity.getUuid()))
+                .thenAnswer(
+                        invocation -> {
+                            loading.countDown();
+                            loading.await(5, TimeUnit.SECONDS);
+                            return Optional.of(identity);
+                        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<CustomerIdentity>> byEmail =
+                    executor.submit(() -> customerIdentityCache.findByEmail(identity.getEmail()));
+            Future<Optional<CustomerIdentity>> byUuid =
+                    executor.submit(() -> customerIdentityCache.findByUuid(identity.getUuid()));
+
+            assertSame(identity, byEmail.get(5, TimeUnit.SECONDS).get());
+            assertSame(identity, byUuid.get(5, TimeUnit.SECONDS).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package si.endava.banksimulator.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
@@ -18,13 +21,18 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.balances.BalanceOperations;
+import si.endava.banksimulator.balances.PostingJournal;
 import si.endava.banksimulator.dtos.BankDTO;
+import si.endava.banksimulator.dtos.CustomerBalanceDTO;
 import si.endava.banksimulator.dtos.CustomerDTO;
 import si.endava.banksimulator.entities.Bank;
 import si.endava.banksimulator.entities.Customer;
-import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientMock;
 import si.endava.banksimulator.mappers.CustomerMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
+import si.endava.banksimulator.repositories.CustomerIdentity;
 import si.endava.banksimulator.repositories.CustomerRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,7 +46,19 @@ class CustomerServiceTest {
 
     @Mock private BankService bankService;
 
-    @Mock private PaymentNetworkFeignClientMock paymentNetworkFeignClientMock;
+    @Mock private BalanceOperations balanceOperations;
+
+    @Mock private PaymentNetworkSync paymentNetworkSync;
+
+    @Mock private CustomerValidationCache customerValidationCache;
+
+    @Mock private CustomerIdentityCache customerIdentityCache;
+
+    @Mock private ContactIndex contactIndex;
+
+    @Mock private TransactionRollups transactionRollups;
+
+    @Mock private PostingJournal postingJournal;
 
     private static final Customer newCustomer =
             Customer.builder()
@@ -66,7 +86,7 @@ class CustomerServiceTest {
     void ensureThatGetAllCustomersWorks() {
         customerService.getAllCustomers();
 
-        verify(customerRepository, times(1)).findAll();
+        verify(customerRepository, times(1)).findAllWithBank();
     }
 
     @Test
@@ -96,15 +116,76 @@ class CustomerServiceTest {
                         .contains(String.format("Customer with uuid %s not exists.", uuid)));
     }
 
+    @Test
+    void ensureThatGetBalanceAsOfReplaysTheJournal() {
+        ReflectionTestUtils.setField(customerService, "balancesMode", "journal");
+        UUID uuid = UUID.fromString("d0bd56d8-5ca2-469c-b4f8-9bac5e3d5e1e");
+        LocalDateTime asOf = LocalDateTime.of(2022, 6, 30, 23, 59, 59);
+        Mockito.when(customerRepository.findCustomerByUuid(uuid))
+                .thenReturn(Optional.of(new Customer()));
+        Mockito.when(postingJournal.balancesAsOf(any(Long.class), any()))
+                .thenReturn(new PostingJournal.Balances(new BigDecimal("70.00"), BigDecimal.ZERO));
+
+        CustomerBalanceDTO balance = customerService.getBalanceAsOf(uuid, asOf);
+
+        assertEquals(uuid, balance.getCustomerUuid());
+        assertEquals(asOf, balance.getAsOf());
+        assertEquals(new BigDecimal("70.00"), balance.getBalance());
+    }
+
+    @Test
+    void ensureThatGetBalanceAsOfThrowsErrorResponseWithoutHistory() {
+        ReflectionTestUtils.setField(customerService, "balancesMode", "journal");
+        UUID uuid = UUID.fromString("d0bd56d8-5ca2-469c-b4f8-9bac5e3d5e1e");
+        Mockito.when(customerRepository.findCustomerByUuid(uuid))
+                .thenReturn(Optional.of(new Customer()));
+
+        ElementNotFoundException thrown =
+                assertThrows(
+                        ElementNotFoundException.class,
+                        () -> customerService.getBalanceAsOf(uuid, null));
+
+        assertTrue(thrown.getMessage().contains("has no balance history"));
+    }
+
+    @Test
+    void ensureThatGetBalanceAsOfIsNotImplementedOutsideTheJournalMode() {
+        ReflectionTestUtils.setField(customerService, "balancesMode", "entity");
+        UUID uuid = UUID.fromString("d0bd56d8-5ca2-469c-b4f8-9bac5e3d5e1e");
+
+        ResponseStatusException thrown =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> customerService.getBalanceAsOf(uuid, null));
+
+        assertEquals(HttpStatus.NOT_IMPLEMENTED, thrown.getStatus());
+        Mockito.verifyZeroInteractions(postingJournal);
+    }
+
     @Test
     void ensureThatFindCustomerByEmailWorks() {
         String email = "john.doe@gmail.com";
         Customer customer = new Customer();
-        Mockito.when(customerRepository.findByEmail(email)).thenReturn(Optional.of(customer));
+        Mockito.when(customerIdentityCache.findByEmail(email))
+                .thenReturn(Optional.of(new CustomerIdentity(7L, UUID.randomUUID(), email, 1L)));
+        Mockito.when(customerRepository.findById(7L)).thenReturn(Optional.of(customer));
 
         customerService.findByEmail(email);
 
-        verify(customerRepository, times(1)).findByEmail(email);
+        verify(customerRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void ensureThatCheckIfExistsCustomerByEmailAndBankComparesCachedBank() {
+        String email = "john.doe@gmail.com";
+        Bank bank = new Bank();
+        Mockito.when(customerIdentityCache.findByEmail(email))
+                .thenReturn(
+                        Optional.of(
+                                new CustomerIdentity(7L, UUID.randomUUID(), email, bank.getId())));
+
+        assertTrue(customerService.checkIfExistsCustomerByEmailAndBank(email, bank));
+        assertFalse(customerService.checkIfExistsCustomerByEmailAndBank("unknown@gmail.com", bank));
     }
 
     @Test
@@ -191,6 +272,8 @@ class CustomerServiceTest {
         customerService.deleteCustomer(uuid);
 
         verify(customerRepository, times(1)).deleteById(customer.getId());
+        verify(customerIdentityCache, times(1)).evict(customer.getUuid(), customer.getEmail());
+        verify(paymentNetworkSync, times(1)).unregisterCustomer(any());
     }
 
     @Test
@@ -0,0 +1,147 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientMock;
+import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerValidationDTO;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerValidationCacheTest {
+
+    @Mock private PaymentNetworkFeignClientMock paymentNetworkFeignClientMock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private CustomerValidationCache customerValidationCache;
+
+    private static final String valid = "max.irving@gmail.com";
+    private static final String invalid = "unknown@gmail.com";
+
+    @BeforeEach
+    void setUp() {
+        customerValidationCache =
+                new CustomerValidationCache(
+                        paymentNetworkFeignClientMock,
+                        meterRegistry,
+                        100,
+                        60_000,
+                        5_000,
+                        nanos::get);
+    }
+
+    private static PaymentNetworkCustomerValidationDTO answer(String email, boolean valid) {
+        return new PaymentNetworkCustomerValidationDTO(email, valid);
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    void ensureThatValidationIsCached() {
+        Mockito.when(paymentNetworkFeignClientMock.validateCustomer(valid))
+                .thenReturn(answer(valid, true));
+
+        assertTrue(customerValidationCache.isValid(valid));
+        assertTrue(customerValidationCache.isValid(valid));
+
+        verify(paymentNetworkFeignClientMock, times(1)).validateCustomer(valid);
+        assertEquals(
+                1, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(
+                1, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void ensureThatInvalidAnswersExpireBeforeValidOnes() {
+        Mockito.when(paymentNetworkFeignClientMock.validateCustomer(valid))
+                .thenReturn(answer(valid, true));
+        Mockito.doReturn(answer(invalid, false))
+                .when(paymentNetworkFeignClientMock)
+                .validateCustomer(invalid);
+
+        customerValidationCache.isValid(valid);
+        assertFalse(customerValidationCache.isValid(invalid));
+        advanceMillis(10_000);
+        customerValidationCache.isValid(valid);
+        customerValidationCache.isValid(invalid);
+
+        verify(paymentNetworkFeignClientMock, times(1)).validateCustomer(valid);
+        verify(paymentNetworkFeignClientMock, times(2)).validateCustomer(invalid);
+    }
+
+    @Test
+    void ensureThatInvalidateForcesNewLookup() {
+        Mockito.when(paymentNetworkFeignClientMock.validateCustomer(invalid))
+                .thenReturn(answer(invalid, false))
+                .thenReturn(answer(invalid, true));
+
+        assertFalse(customerValidationCache.isValid(invalid));
+        customerValidationCache.invalidate(invalid);
+
+        assertTrue(customerValidationCache.isValid(invalid));
+    }
+
+    @Test
+    void ensureThatFailedLookupsAreNotCached() {
+        Mockito.when(paymentNetworkFeignClientMock.validateCustomer(valid))
+                .thenThrow(new IllegalStateException("payment network unavailable"))
+                .thenReturn(answer(valid, true));
+
+        assertThrows(IllegalStateException.class, () -> customerValidationCache.isValid(valid));
+
+        assertTrue(customerValidationCache.isValid(valid));
+    }
+
+    @Test
+    void ensureThatConcurrentLookupsShareOneCall() throws Exception {
+        CountDownLatch called = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(paymentNetworkFeignClientMock.validateCustomer(valid))
+                .thenAnswer(
+                        invocation -> {
+                            called.countDown();
+                            release.await(5, TimeUnit.SECONDS);
+                            return answer(valid, true);
+                        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> customerValidationCache.isValid(valid)));
+            }
+            assertTrue(called.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Boolean> lookup : lookups) assertTrue(lookup.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(paymentNetworkFeignClientMock, times(1)).validateCustomer(valid);
+    }
+}
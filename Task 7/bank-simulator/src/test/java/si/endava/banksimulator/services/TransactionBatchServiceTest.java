@@ -0,0 +1,278 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import si.endava.banksimulator.dtos.BatchTransactionDTO;
+import si.endava.banksimulator.dtos.BatchTransactionResultDTO;
+import si.endava.banksimulator.entities.Customer;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.enums.TransactionStatus;
+import si.endava.banksimulator.threads.StripedExecutor;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock private TransactionService transactionService;
+
+    @Mock private CustomerService customerService;
+
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ConcurrencyRetry concurrencyRetry =
+            new ConcurrencyRetry(new SimpleMeterRegistry(), 3, 0, 0);
+
+    @Mock private CustomerIdentityCache customerIdentityCache;
+
+    @Spy
+    private StripedExecutor stripedExecutor = new StripedExecutor(new SimpleMeterRegistry(), 1);
+
+    private TransactionBatchService transactionBatchService;
+
+    private static final UUID firstUuid = UUID.fromString("0e02ff72-960d-4615-b460-792f9ba81d17");
+    private static final UUID secondUuid = UUID.fromString("46e4b6ff-4a27-4dc8-93b0-14a5ab9b1a4c");
+
+    private static final Customer first = Customer.builder().uuid(firstUuid).build();
+    private static final Customer second = Customer.builder().uuid(secondUuid).build();
+
+    @BeforeEach
+    void setUp() {
+        transactionBatchService = batchService(100);
+    }
+
+    private TransactionBatchService batchService(int chunkSize) {
+        return new TransactionBatchService(
+                transactionService,
+                customerService,
+                transactionTemplate,
+                concurrencyRetry,
+                customerIdentityCache,
+                stripedExecutor,
+                chunkSize);
+    }
+
+    private void runCallbacks() {
+        Mockito.when(transactionTemplate.execute(any()))
+                .thenAnswer(
+                        invocation ->
+                                invocation
+                                        .<TransactionCallback<?>>getArgument(0)
+                                        .doInTransaction(null));
+    }
+
+    private static BatchTransactionDTO transfer(UUID customerUuid, String email, String amount) {
+        return new BatchTransactionDTO(customerUuid, email, new BigDecimal(amount));
+    }
+
+    private static Transaction completed() {
+        return Transaction.builder()
+                .uuid(UUID.randomUUID())
+                .transactionStatus(TransactionStatus.COMPLETED)
+                .build();
+    }
+
+    @Test
+    void ensureThatTransactionsAreGroupedBySourceCustomer() {
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid)).thenReturn(first);
+        Mockito.doReturn(second).when(customerService).findByUuid(secondUuid);
+        Mockito.when(
+                        transactionService.addNewTransaction(
+                                any(Customer.class), any(), any(), Mockito.anyBoolean()))
+                .thenAnswer(invocation -> completed());
+        List<BatchTransactionDTO> transactions =
+                Arrays.asList(
+                        transfer(firstUuid, "a@test.si", "1.00"),
+                        transfer(secondUuid, "b@test.si", "2.00"),
+                        transfer(firstUuid, "c@test.si", "3.00"));
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(transactions.iterator(), results::add);
+
+        assertEquals(2, results.size());
+        assertEquals(0, results.get(0).get(0).getIndex());
+        assertEquals(2, results.get(0).get(1).getIndex());
+        assertEquals(1, results.get(1).get(0).getIndex());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(customerService, times(1)).findByUuid(firstUuid);
+    }
+
+    @Test
+    void ensureThatFailedTransactionDoesNotFailItsGroup() {
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid)).thenReturn(first);
+        Mockito.when(
+                        transactionService.addNewTransaction(
+                                first, "a@test.si", new BigDecimal("1.00"), false))
+                .thenThrow(new ElementNotFoundException("Contact with email a@test.si not found."));
+        Mockito.doReturn(completed())
+                .when(transactionService)
+                .addNewTransaction(first, "b@test.si", new BigDecimal("2.00"), false);
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(
+                Arrays.asList(
+                                transfer(firstUuid, "a@test.si", "1.00"),
+                                transfer(firstUuid, "b@test.si", "2.00"))
+                        .iterator(),
+                results::add);
+
+        assertEquals(
+                "Error: Contact with email a@test.si not found.", results.get(0).get(0).getError());
+        assertEquals(TransactionStatus.COMPLETED, results.get(0).get(1).getTransactionStatus());
+    }
+
+    @Test
+    void ensureThatTargetsAreValidatedBeforeTheGroupTransactionOpens() {
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid)).thenReturn(first);
+        Mockito.when(transactionService.isValidExternalTarget(any(), Mockito.eq("a@test.si")))
+                .thenReturn(true);
+        Mockito.when(
+                        transactionService.addNewTransaction(
+                                first, "a@test.si", new BigDecimal("1.00"), true))
+                .thenReturn(completed());
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(
+                Arrays.asList(transfer(firstUuid, "a@test.si", "1.00")).iterator(), results::add);
+
+        assertEquals(TransactionStatus.COMPLETED, results.get(0).get(0).getTransactionStatus());
+        InOrder inOrder = Mockito.inOrder(transactionService, transactionTemplate);
+        inOrder.verify(transactionService).isValidExternalTarget(any(), Mockito.eq("a@test.si"));
+        inOrder.verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void ensureThatGroupLosingAConcurrentUpdateIsRetriedWithAFreshSource() {
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid)).thenReturn(first);
+        Mockito.when(
+                        transactionService.addNewTransaction(
+                                any(Customer.class), any(), any(), Mockito.anyBoolean()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, 1L))
+                .thenAnswer(invocation -> completed());
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(
+                Arrays.asList(transfer(firstUuid, "a@test.si", "1.00")).iterator(), results::add);
+
+        assertEquals(TransactionStatus.COMPLETED, results.get(0).get(0).getTransactionStatus());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(customerService, times(2)).findByUuid(firstUuid);
+    }
+
+    @Test
+    void ensureThatUnknownSourceCustomerFailsWholeGroup() {
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid))
+                .thenThrow(new ElementNotFoundException("Customer with uuid not exists."));
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(
+                Arrays.asList(
+                                transfer(firstUuid, "a@test.si", "1.00"),
+                                transfer(firstUuid, "b@test.si", "2.00"))
+                        .iterator(),
+                results::add);
+
+        assertEquals(2, results.get(0).size());
+        assertEquals("Error: Customer with uuid not exists.", results.get(0).get(1).getError());
+        assertNull(results.get(0).get(1).getTransactionStatus());
+    }
+
+    @Test
+    void ensureThatInvalidTransactionsAreRejectedBeforeProcessing() {
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(
+                Arrays.asList(transfer(firstUuid, "a@test.si", "-1.00"), transfer(null, "", "1"))
+                        .iterator(),
+                results::add);
+
+        assertEquals("Invalid source amount", results.get(0).get(0).getError());
+        assertEquals("Invalid customer uuid", results.get(0).get(1).getError());
+        verify(transactionTemplate, times(0)).execute(any());
+    }
+
+    @Test
+    void ensureThatTransactionsAreGroupedWithinChunks() {
+        transactionBatchService = batchService(2);
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid)).thenReturn(first);
+        Mockito.when(
+                        transactionService.addNewTransaction(
+                                any(Customer.class), any(), any(), Mockito.anyBoolean()))
+                .thenAnswer(invocation -> completed());
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(
+                Arrays.asList(
+                                transfer(firstUuid, "a@test.si", "1.00"),
+                                transfer(firstUuid, "b@test.si", "2.00"),
+                                transfer(firstUuid, "c@test.si", "3.00"))
+                        .iterator(),
+                results::add);
+
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(0).size());
+        assertEquals(2, results.get(1).get(0).getIndex());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void ensureThatAnUnreadableTransactionEndsTheBatch() {
+        runCallbacks();
+        Mockito.when(customerService.findByUuid(firstUuid)).thenReturn(first);
+        Mockito.when(
+                        transactionService.addNewTransaction(
+                                any(Customer.class), any(), any(), Mockito.anyBoolean()))
+                .thenAnswer(invocation -> completed());
+        Iterator<BatchTransactionDTO> transactions =
+                new Iterator<>() {
+                    private boolean read;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public BatchTransactionDTO next() {
+                        if (read) throw new IllegalStateException("Unexpected character");
+                        read = true;
+                        return transfer(firstUuid, "a@test.si", "1.00");
+                    }
+                };
+        List<List<BatchTransactionResultDTO>> results = new ArrayList<>();
+
+        transactionBatchService.addNewTransactions(transactions, results::add);
+
+        assertEquals(2, results.size());
+        assertEquals(TransactionStatus.COMPLETED, results.get(0).get(0).getTransactionStatus());
+        assertEquals(1, results.get(1).get(0).getIndex());
+        assertEquals("Invalid transactions", results.get(1).get(0).getError());
+    }
+}
@@ -1,34 +1,62 @@
 package si.endava.banksimulator.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import si.endava.banksimulator.balances.BalanceOperations;
 import si.endava.banksimulator.dtos.BankDTO;
 import si.endava.banksimulator.dtos.CustomerDTO;
 import si.endava.banksimulator.dtos.NewTransactionDTO;
+import si.endava.banksimulator.dtos.TransactionPageDTO;
 import si.endava.banksimulator.entities.Bank;
 import si.endava.banksimulator.entities.Contact;
 import si.endava.banksimulator.entities.Customer;
 import si.endava.banksimulator.entities.Transaction;
 import si.endava.banksimulator.enums.TransactionStatus;
-import si.endava.banksimulator.feignClient.PaymentNetworkFeignClientMock;
-import si.endava.banksimulator.feignClient.samples.PaymentNetworkCustomerDTO;
+import si.endava.banksimulator.kafka.KafkaTopics;
+import si.endava.banksimulator.kafka.events.NewPaymentEvent;
+import si.endava.banksimulator.kafka.events.PaymentEvent;
+import si.endava.banksimulator.kafka.events.TransactionNotificationEvent;
+import si.endava.banksimulator.kafka.outbox.PaymentOutbox;
 import si.endava.banksimulator.mappers.CustomerMapper;
 import si.endava.banksimulator.mappers.TransactionMapper;
+import si.endava.banksimulator.reports.TransactionRollups;
+import si.endava.banksimulator.repositories.CustomerIdentity;
+import si.endava.banksimulator.repositories.TransactionCursor;
+import si.endava.banksimulator.repositories.TransactionFilter;
 import si.endava.banksimulator.repositories.TransactionRepository;
+import si.endava.banksimulator.threads.StripedExecutor;
 
 @ExtendWith(MockitoExtension.class)
 class TransactionServiceTest {
@@ -45,7 +73,24 @@ class TransactionServiceTest {
 
     @Mock private ContactService contactService;
 
-    @Mock private PaymentNetworkFeignClientMock paymentNetworkFeignClientMock;
+    @Mock private CustomerValidationCache customerValidationCache;
+
+    @Mock private BalanceOperations balanceOperations;
+
+    @Mock private PaymentOutbox paymentOutbox;
+
+    @Mock private TransactionRollups transactionRollups;
+
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ConcurrencyRetry concurrencyRetry =
+            new ConcurrencyRetry(new SimpleMeterRegistry(), 3, 0, 0);
+
+    @Mock private CustomerIdentityCache customerIdentityCache;
+
+    @Spy
+    private StripedExecutor stripedExecutor = new StripedExecutor(new SimpleMeterRegistry(), 1);
 
     private static final Customer newCustomer =
             Customer.builder()
@@ -63,7 +108,7 @@ class TransactionServiceTest {
     void ensureThatGetAllTransactionsWorks() {
         transactionService.getAllTransactions();
 
-        verify(transactionRepository, times(1)).findAll();
+        verify(transactionRepository, times(1)).findAllWithDetails();
     }
 
     @Test
@@ -77,6 +122,28 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).findByTransactionStatus(transactionStatus);
     }
 
+    @Test
+    void ensureThatGetTransactionSummariesWithoutStatusListsAll() {
+        transactionService.getTransactionSummaries(null);
+
+        verify(transactionRepository, times(1)).findAllSummaries();
+        verify(transactionRepository, never()).findAllWithDetails();
+    }
+
+    @Test
+    void ensureGetTransactionSummariesThrowsErrorResponseWhenTransactionWithStatusNotFound() {
+        TransactionStatus transactionStatus = TransactionStatus.DECLINED;
+
+        ElementNotFoundException thrown =
+                assertThrows(
+                        ElementNotFoundException.class,
+                        () -> transactionService.getTransactionSummaries(transactionStatus));
+
+        assertTrue(
+                thrown.getMessage()
+                        .contains("Transaction with status " + transactionStatus + " not found."));
+    }
+
     @Test
     void ensureGetTransactionByStatusThrowsErrorResponseWhenTransactionWithStatusNotFound() {
         TransactionStatus transactionStatus = TransactionStatus.DECLINED;
@@ -93,16 +160,18 @@ class TransactionServiceTest {
 
     @Test
     void ensureThatAddNewInternalTransactionSavesTransactionInRepository() {
+        runCallbacks();
         final NewTransactionDTO newTransactionDTO =
                 new NewTransactionDTO("max.irving@gmail.com", BigDecimal.valueOf(1000));
         Mockito.when(customerService.findByUuid(newCustomer.getUuid())).thenReturn(newCustomer);
-        Mockito.when(customerService.findByEmailDTO(newTransactionDTO.getEmail()))
-                .thenReturn(target);
-        Mockito.when(customerMapper.customerDTOToCustomer(target)).thenReturn(newCustomer);
+        Mockito.when(customerService.findByEmail(newTransactionDTO.getEmail()))
+                .thenReturn(newCustomer);
         Mockito.when(
                         contactService.findByCustomerAndEmail(
                                 newCustomer, newTransactionDTO.getEmail()))
                 .thenReturn(newContact);
+        Mockito.when(balanceOperations.reserve(newCustomer, newTransactionDTO.getSourceAmount()))
+                .thenReturn(true);
         Mockito.when(
                         customerService.checkIfExistsCustomerByEmailAndBank(
                                 newTransactionDTO.getEmail(), newCustomer.getBank()))
@@ -120,24 +189,20 @@ class TransactionServiceTest {
 
     @Test
     void ensureThatAddNewExternalTransactionSavesTransactionInRepository() {
+        runCallbacks();
         final NewTransactionDTO newTransactionDTO =
                 new NewTransactionDTO("max.irving@gmail.com", BigDecimal.valueOf(1000));
-        List<PaymentNetworkCustomerDTO> list = new ArrayList<>();
-        final PaymentNetworkCustomerDTO paymentNetworkCustomerDTO =
-                PaymentNetworkCustomerDTO.builder().build();
-        list.add(paymentNetworkCustomerDTO);
         Mockito.when(customerService.findByUuid(newCustomer.getUuid())).thenReturn(newCustomer);
-        Mockito.when(customerService.findByEmail(any())).thenReturn(newCustomer);
         Mockito.when(
                         contactService.findByCustomerAndEmail(
                                 newCustomer, newTransactionDTO.getEmail()))
                 .thenReturn(newContact);
+        Mockito.when(balanceOperations.reserve(newCustomer, newTransactionDTO.getSourceAmount()))
+                .thenReturn(true);
         Mockito.when(
                         customerService.checkIfExistsCustomerByEmailAndBank(
                                 newTransactionDTO.getEmail(), newCustomer.getBank()))
                 .thenReturn(false);
-        Mockito.when(paymentNetworkFeignClientMock.getAllCustomers(newTransactionDTO.getEmail()))
-                .thenReturn(list);
 
         transactionService.addNewTransaction(
                 newCustomer.getUuid(),
@@ -151,6 +216,7 @@ class TransactionServiceTest {
 
     @Test
     void ensureThatAddNewTransactionSetsTransactionStatusDeclineWhenNotEnoughBalance() {
+        runCallbacks();
         final NewTransactionDTO newTransactionDTO =
                 new NewTransactionDTO("max.irving@gmail.com", BigDecimal.valueOf(5000));
         Mockito.when(customerService.findByUuid(newCustomer.getUuid())).thenReturn(newCustomer);
@@ -178,6 +244,144 @@ class TransactionServiceTest {
         verify(transactionRepository, times(1)).save(transactionArgumentCaptor.capture());
     }
 
+    @Test
+    void ensureThatAddNewExternalTransactionAppendsPaymentToOutbox() {
+        runCallbacks();
+        Customer source =
+                Customer.builder()
+                        .uuid(UUID.randomUUID())
+                        .balance(new BigDecimal("100"))
+                        .suspenseBalance(BigDecimal.ZERO)
+                        .bank(Bank.builder().currency("EUR").build())
+                        .build();
+        Mockito.when(contactService.findByCustomerAndEmail(source, "max.irving@gmail.com"))
+                .thenReturn(newContact);
+        Mockito.when(balanceOperations.reserve(source, BigDecimal.TEN)).thenReturn(true);
+        Mockito.when(
+                        customerService.checkIfExistsCustomerByEmailAndBank(
+                                "max.irving@gmail.com", source.getBank()))
+                .thenReturn(false);
+
+        Transaction transaction =
+                transactionService.addNewTransaction(
+                        source, "max.irving@gmail.com", BigDecimal.TEN, true);
+
+        assertEquals(TransactionStatus.PENDING, transaction.getTransactionStatus());
+        verify(transactionRepository, times(1)).save(transaction);
+        verify(paymentOutbox, times(1))
+                .append(
+                        Mockito.eq(KafkaTopics.PAYMENT_NEW),
+                        Mockito.eq(source.getUuid().toString()),
+                        any(NewPaymentEvent.class));
+    }
+
+    @Test
+    void ensureThatAddNewTransactionValidatesTheTargetBeforeItsTransactionOpens() {
+        runCallbacks();
+        UUID uuid = UUID.randomUUID();
+        Customer source =
+                Customer.builder()
+                        .uuid(uuid)
+                        .bank(Bank.builder().id(1L).currency("EUR").build())
+                        .build();
+        Mockito.when(customerIdentityCache.findByUuid(uuid))
+                .thenReturn(Optional.of(new CustomerIdentity(1L, uuid, "source@test.si", 1L)));
+        Mockito.when(customerIdentityCache.findByEmail("max.irving@gmail.com"))
+                .thenReturn(Optional.empty());
+        Mockito.when(customerValidationCache.isValid("max.irving@gmail.com")).thenReturn(true);
+        Mockito.when(customerService.findByUuid(uuid)).thenReturn(source);
+        Mockito.when(contactService.findByCustomerAndEmail(source, "max.irving@gmail.com"))
+                .thenReturn(newContact);
+        Mockito.when(balanceOperations.reserve(source, BigDecimal.TEN)).thenReturn(true);
+        Mockito.when(
+                        customerService.checkIfExistsCustomerByEmailAndBank(
+                                "max.irving@gmail.com", source.getBank()))
+                .thenReturn(false);
+
+        Transaction transaction =
+                transactionService.addNewTransaction(uuid, "max.irving@gmail.com", BigDecimal.TEN);
+
+        assertEquals(TransactionStatus.PENDING, transaction.getTransactionStatus());
+        InOrder inOrder = Mockito.inOrder(customerValidationCache, transactionTemplate);
+        inOrder.verify(customerValidationCache).isValid("max.irving@gmail.com");
+        inOrder.verify(transactionTemplate).execute(any());
+    }
+
+    @Test
+    void ensureThatCustomersOfTheSourceBankAreNotValidatedWithTheNetwork() {
+        UUID uuid = UUID.randomUUID();
+        Mockito.when(customerIdentityCache.findByEmail("max.irving@gmail.com"))
+                .thenReturn(
+                        Optional.of(
+                                new CustomerIdentity(
+                                        2L, UUID.randomUUID(), "max.irving@gmail.com", 1L)));
+
+        assertFalse(
+                transactionService.isValidExternalTarget(
+                        new CustomerIdentity(1L, uuid, "source@test.si", 1L),
+                        "max.irving@gmail.com"));
+        Mockito.verifyZeroInteractions(customerValidationCache);
+    }
+
+    @Test
+    void ensureThatAFailedValidationCallCountsAsAnInvalidTarget() {
+        Mockito.when(customerIdentityCache.findByEmail("max.irving@gmail.com"))
+                .thenReturn(Optional.empty());
+        Mockito.when(customerValidationCache.isValid("max.irving@gmail.com"))
+                .thenThrow(new IllegalStateException("payment network unavailable"));
+
+        assertFalse(
+                transactionService.isValidExternalTarget(
+                        new CustomerIdentity(1L, UUID.randomUUID(), "source@test.si", 1L),
+                        "max.irving@gmail.com"));
+    }
+
+    @Test
+    void ensureThatAnExternalTransactionFailingToBeStoredIsDeclinedOnceItsTransactionRolledBack() {
+        runCallbacks();
+        PlatformTransactionManager transactionManager =
+                Mockito.mock(PlatformTransactionManager.class);
+        Mockito.when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+        Customer source = Customer.builder().uuid(UUID.randomUUID()).build();
+        Transaction transaction =
+                Transaction.builder()
+                        .uuid(UUID.randomUUID())
+                        .customer(source)
+                        .sourceAmount(BigDecimal.TEN)
+                        .build();
+        Mockito.doThrow(new IllegalStateException("outbox unavailable"))
+                .when(paymentOutbox)
+                .append(any(), any(), any());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(
+                    IllegalStateException.class,
+                    () ->
+                            transactionService.externalTransaction(
+                                    source, "max.irving@gmail.com", transaction, true));
+            verify(transactionRepository, times(1)).save(transaction);
+            Mockito.verifyZeroInteractions(transactionManager);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(
+                            synchronization ->
+                                    synchronization.afterCompletion(
+                                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(TransactionStatus.DECLINED, transaction.getTransactionStatus());
+        verify(transactionRepository, times(2)).save(transaction);
+        ArgumentCaptor<TransactionDefinition> definition =
+                ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW,
+                definition.getValue().getPropagationBehavior());
+    }
+
     @Test
     void ensureThatUpdateTransactionWorks() {
         UUID uuid = UUID.fromString("ba639cd9-33f2-4163-94a4-e1bf785e44ec");
@@ -205,4 +409,224 @@ class TransactionServiceTest {
                 thrown.getMessage()
                         .contains("Error: Transaction with uuid " + uuid + " not exists."));
     }
+
+    @Test
+    void ensureThatTransactionPageReturnsCursorOfLastTransactionWhenMoreExist() {
+        ReflectionTestUtils.setField(transactionService, "pageSizeMax", 1000);
+        TransactionFilter filter = TransactionFilter.builder().build();
+        Transaction first = Transaction.builder().date(LocalDateTime.of(2022, 7, 1, 0, 0)).build();
+        Transaction second = Transaction.builder().date(LocalDateTime.of(2022, 7, 2, 0, 0)).build();
+        Mockito.when(transactionRepository.findPage(filter, null, 2))
+                .thenReturn(new ArrayList<>(Arrays.asList(first, second)));
+
+        TransactionPageDTO page = transactionService.getTransactionPage(filter, null, 1);
+
+        assertEquals(1, page.getTransactions().size());
+        assertEquals(first.getDate(), TransactionCursor.decode(page.getNextCursor()).getDate());
+    }
+
+    @Test
+    void ensureThatLastTransactionPageHasNoCursor() {
+        ReflectionTestUtils.setField(transactionService, "pageSizeMax", 1000);
+        TransactionFilter filter = TransactionFilter.builder().build();
+        Mockito.when(transactionRepository.findPage(filter, null, 11))
+                .thenReturn(Arrays.asList(new Transaction()));
+
+        TransactionPageDTO page = transactionService.getTransactionPage(filter, null, 10);
+
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void ensureThatTransactionPageThrowsErrorResponseWhenSizeIsInvalid() {
+        ReflectionTestUtils.setField(transactionService, "pageSizeMax", 1000);
+        TransactionFilter filter = TransactionFilter.builder().build();
+
+        ResponseStatusException thrown =
+                assertThrows(
+                        ResponseStatusException.class,
+                        () -> transactionService.getTransactionPage(filter, null, 1001));
+
+        assertEquals("Invalid size", thrown.getReason());
+    }
+
+    private void runCallbacks() {
+        Mockito.lenient()
+                .doAnswer(
+                        invocation -> {
+                            invocation.<Consumer<Object>>getArgument(0).accept(null);
+                            return null;
+                        })
+                .when(transactionTemplate)
+                .executeWithoutResult(any());
+        Mockito.lenient()
+                .when(transactionTemplate.execute(any()))
+                .thenAnswer(
+                        invocation ->
+                                invocation
+                                        .<TransactionCallback<?>>getArgument(0)
+                                        .doInTransaction(null));
+    }
+
+    private static Transaction pending(Customer source, String targetEmail, String amount) {
+        return Transaction.builder()
+                .uuid(UUID.randomUUID())
+                .customer(source)
+                .contact(Contact.builder().email(targetEmail).build())
+                .sourceAmount(new BigDecimal(amount))
+                .targetAmount(new BigDecimal(amount))
+                .transactionStatus(TransactionStatus.PENDING)
+                .build();
+    }
+
+    private static TransactionNotificationEvent notification(Transaction transaction) {
+        return new TransactionNotificationEvent(transaction.getUuid(), "LJBASI2X");
+    }
+
+    @Test
+    void ensureThatCompleteTransactionsCreditsEveryTargetOnce() {
+        runCallbacks();
+        Customer target = Customer.builder().email("max.irving@gmail.com").build();
+        Transaction first = pending(newCustomer, target.getEmail(), "10.00");
+        Transaction second = pending(newCustomer, target.getEmail(), "20.00");
+        Mockito.when(transactionRepository.findByUuidIn(any()))
+                .thenReturn(Arrays.asList(first, second));
+        Mockito.when(customerService.findByEmails(any()))
+                .thenReturn(Collections.singletonMap(target.getEmail(), target));
+
+        transactionService.completeTransactions(
+                Arrays.asList(notification(first), notification(second)));
+
+        verify(transactionRepository, times(1)).findByUuidIn(any());
+        verify(balanceOperations, times(1)).credit(target, new BigDecimal("30.00"));
+        ArgumentCaptor<List<ProducerRecord<String, PaymentEvent>>> notifications =
+                ArgumentCaptor.forClass(List.class);
+        verify(paymentOutbox, times(1)).appendAll(notifications.capture());
+        assertEquals(2, notifications.getValue().size());
+        assertEquals(
+                KafkaTopics.NOTIFICATION_FINALIZE_COMPLETED_TRANSACTION,
+                notifications.getValue().get(0).topic());
+        assertEquals(first.getUuid().toString(), notifications.getValue().get(0).key());
+        assertEquals(TransactionStatus.CREDITED, first.getTransactionStatus());
+        assertEquals(TransactionStatus.CREDITED, second.getTransactionStatus());
+    }
+
+    @Test
+    void ensureThatCompleteTransactionsSkipsTransactionsCreditedBefore() {
+        runCallbacks();
+        Customer target = Customer.builder().email("max.irving@gmail.com").build();
+        Transaction transaction = pending(newCustomer, target.getEmail(), "10.00");
+        transaction.setTransactionStatus(TransactionStatus.CREDITED);
+        Mockito.when(transactionRepository.findByUuidIn(any()))
+                .thenReturn(Collections.singletonList(transaction));
+        Mockito.when(customerService.findByEmails(any()))
+                .thenReturn(Collections.singletonMap(target.getEmail(), target));
+
+        transactionService.completeTransactions(
+                Collections.singletonList(notification(transaction)));
+
+        verify(balanceOperations, never()).credit(any(), any());
+        verify(paymentOutbox, times(1)).appendAll(Collections.emptyList());
+        assertEquals(TransactionStatus.CREDITED, transaction.getTransactionStatus());
+    }
+
+    @Test
+    void ensureThatCompleteTransactionsSkipsUnknownTransactions() {
+        runCallbacks();
+        Mockito.when(transactionRepository.findByUuidIn(any())).thenReturn(new ArrayList<>());
+        Mockito.when(customerService.findByEmails(any())).thenReturn(new HashMap<>());
+
+        transactionService.completeTransactions(
+                Collections.singletonList(
+                        new TransactionNotificationEvent(UUID.randomUUID(), "LJBASI2X")));
+
+        verify(balanceOperations, never()).credit(any(), any());
+        verify(paymentOutbox, times(1)).appendAll(Collections.emptyList());
+    }
+
+    @Test
+    void ensureThatCompleteTransactionsRequeuesEventsLosingEveryAttempt() {
+        runCallbacks();
+        Customer target = Customer.builder().email("max.irving@gmail.com").build();
+        Transaction transaction = pending(newCustomer, target.getEmail(), "10.00");
+        Mockito.when(transactionRepository.findByUuidIn(any()))
+                .thenReturn(Collections.singletonList(transaction));
+        Mockito.when(customerService.findByEmails(any()))
+                .thenReturn(Collections.singletonMap(target.getEmail(), target));
+        Mockito.doThrow(new ObjectOptimisticLockingFailureException(Customer.class, 1L))
+                .when(balanceOperations)
+                .credit(any(), any());
+
+        transactionService.completeTransactions(
+                Collections.singletonList(notification(transaction)));
+
+        verify(balanceOperations, times(3)).credit(target, new BigDecimal("10.00"));
+        ArgumentCaptor<List<ProducerRecord<String, PaymentEvent>>> requeued =
+                ArgumentCaptor.forClass(List.class);
+        verify(paymentOutbox, times(1)).appendAll(requeued.capture());
+        assertEquals(1, requeued.getValue().size());
+        assertEquals(KafkaTopics.COMPLETE_TRANSACTION, requeued.getValue().get(0).topic());
+        assertEquals(transaction.getUuid().toString(), requeued.getValue().get(0).key());
+        assertEquals(TransactionStatus.PENDING, transaction.getTransactionStatus());
+    }
+
+    @Test
+    void ensureThatCompleteTransactionsDeadLettersEventsFailingOtherwise() {
+        runCallbacks();
+        Customer target = Customer.builder().email("max.irving@gmail.com").build();
+        Transaction transaction = pending(newCustomer, target.getEmail(), "10.00");
+        Mockito.when(transactionRepository.findByUuidIn(any()))
+                .thenReturn(Collections.singletonList(transaction));
+        Mockito.when(customerService.findByEmails(any()))
+                .thenReturn(Collections.singletonMap(target.getEmail(), target));
+        Mockito.doThrow(new IllegalStateException("Balance not loaded"))
+                .when(balanceOperations)
+                .credit(any(), any());
+
+        transactionService.completeTransactions(
+                Collections.singletonList(notification(transaction)));
+
+        verify(balanceOperations, times(1)).credit(target, new BigDecimal("10.00"));
+        ArgumentCaptor<List<ProducerRecord<String, PaymentEvent>>> deadLettered =
+                ArgumentCaptor.forClass(List.class);
+        verify(paymentOutbox, times(1)).appendAll(deadLettered.capture());
+        assertEquals(1, deadLettered.getValue().size());
+        assertEquals(
+                KafkaTopics.deadLetter(KafkaTopics.COMPLETE_TRANSACTION),
+                deadLettered.getValue().get(0).topic());
+    }
+
+    @Test
+    void ensureThatFinalizeCompletedTransactionsSettlesEverySourceOnce() {
+        runCallbacks();
+        Transaction first = pending(newCustomer, "max.irving@gmail.com", "10.00");
+        Transaction second = pending(newCustomer, "max.irving@gmail.com", "5.50");
+        Mockito.when(transactionRepository.findByUuidIn(any()))
+                .thenReturn(Arrays.asList(first, second));
+
+        transactionService.finalizeCompletedTransactions(
+                Arrays.asList(notification(first), notification(second)));
+
+        verify(balanceOperations, times(1)).settle(newCustomer, new BigDecimal("15.50"));
+        verify(transactionRepository, times(1)).saveAll(any());
+        assertEquals(TransactionStatus.COMPLETED, first.getTransactionStatus());
+        assertEquals(TransactionStatus.COMPLETED, second.getTransactionStatus());
+    }
+
+    @Test
+    void ensureThatFinalizeCompletedTransactionsSkipsTransactionsFinalizedBefore() {
+        runCallbacks();
+        Transaction completed = pending(newCustomer, "max.irving@gmail.com", "10.00");
+        completed.setTransactionStatus(TransactionStatus.COMPLETED);
+        Transaction credited = pending(newCustomer, "max.irving@gmail.com", "5.50");
+        credited.setTransactionStatus(TransactionStatus.CREDITED);
+        Mockito.when(transactionRepository.findByUuidIn(any()))
+                .thenReturn(Arrays.asList(completed, credited));
+
+        transactionService.finalizeCompletedTransactions(
+                Arrays.asList(notification(completed), notification(credited)));
+
+        verify(balanceOperations, times(1)).settle(newCustomer, new BigDecimal("5.50"));
+        assertEquals(TransactionStatus.COMPLETED, credited.getTransactionStatus());
+    }
 }
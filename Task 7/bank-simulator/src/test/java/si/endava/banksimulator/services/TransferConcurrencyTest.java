@@ -0,0 +1,210 @@
+package si.endava.banksimulator.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import si.endava.banksimulator.entities.Transaction;
+import si.endava.banksimulator.enums.TransactionStatus;
+
+/**
+ * Fires thousands of internal transfers from many threads between a few customers, so transfers
+ * keep racing each other for balances, and checks that no update was lost: the money in the bank is
+ * conserved and every balance matches the completed transfers in and out of it. A transfer may
+ * still lose every attempt of {@link ConcurrencyRetry}, but then it must leave no trace.
+ */
+@SpringBootTest
+@ActiveProfiles(profiles = "withoutEureka")
+class TransferConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferConcurrencyTest.class);
+
+    /** Far above the ids the sequences hand out while the other tests run. */
+    private static final long ID = (1L << 62) + (1L << 42);
+
+    private static final int CUSTOMERS = 20;
+    private static final int TRANSFERS = 2000;
+    private static final int THREADS = 16;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired private TransactionService transactionService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final List<UUID> uuids = new ArrayList<>();
+
+    @BeforeEach
+    void addCustomers() {
+        jdbcTemplate.update(
+                "insert into bank (bank_id, bank_uuid, bank_name, bank_bic, bank_country,"
+                        + " bank_currency, payment_network) values (?, ?, 'Stress Bank',"
+                        + " 'STRSSI2X', 'SI', 'EUR', false)",
+                ID,
+                UUID.randomUUID());
+        List<Object[]> customers = new ArrayList<>();
+        List<Object[]> contacts = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            uuids.add(UUID.randomUUID());
+            customers.add(
+                    new Object[] {
+                        ID + i,
+                        uuids.get(i),
+                        "Stress",
+                        "Customer " + i,
+                        email(i),
+                        OPENING_BALANCE,
+                        ID
+                    });
+            for (int j = 0; j < CUSTOMERS; j++) {
+                if (i == j) continue;
+                contacts.add(
+                        new Object[] {
+                            ID + i * CUSTOMERS + j,
+                            UUID.randomUUID(),
+                            "Stress " + j,
+                            email(j),
+                            ID + i
+                        });
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "insert into customer (customer_id, customer_uuid, name, surname, email, balance,"
+                        + " suspense_balance, payment_network, bank_id) values (?, ?, ?, ?, ?, ?,"
+                        + " 0, false, ?)",
+                customers);
+        jdbcTemplate.batchUpdate(
+                "insert into contact_list (contact_id, contact_uuid, name, email, customer_id)"
+                        + " values (?, ?, ?, ?, ?)",
+                contacts);
+    }
+
+    @AfterEach
+    void removeCustomers() {
+        long last = ID + CUSTOMERS * CUSTOMERS;
+        jdbcTemplate.update("delete from transaction where customer_id between ? and ?", ID, last);
+        jdbcTemplate.update(
+                "delete from transaction_rollup where customer_id between ? and ?", ID, last);
+        jdbcTemplate.update("delete from contact_list where contact_id between ? and ?", ID, last);
+        jdbcTemplate.update("delete from customer where customer_id between ? and ?", ID, last);
+        jdbcTemplate.update("delete from bank where bank_id = ?", ID);
+    }
+
+    @Test
+    void ensureThatConcurrentTransfersConserveBalances() throws Exception {
+        double retriedBefore = meterRegistry.counter("banksimulator.retry.retried").count();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger declined = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> transfers = new ArrayList<>(TRANSFERS);
+        long start = System.nanoTime();
+        for (int i = 0; i < TRANSFERS; i++) {
+            transfers.add(
+                    executor.submit(
+                            () -> {
+                                ThreadLocalRandom random = ThreadLocalRandom.current();
+                                int source = random.nextInt(CUSTOMERS);
+                                int target =
+                                        (source + 1 + random.nextInt(CUSTOMERS - 1)) % CUSTOMERS;
+                                try {
+                                    Transaction transaction =
+                                            transactionService.addNewTransaction(
+                                                    uuids.get(source),
+                                                    email(target),
+                                                    BigDecimal.valueOf(random.nextInt(1, 100)));
+                                    if (transaction.getTransactionStatus()
+                                            == TransactionStatus.COMPLETED)
+                                        completed.incrementAndGet();
+                                    else declined.incrementAndGet();
+                                } catch (RuntimeException e) {
+                                    if (!ConcurrencyRetry.isConcurrencyFailure(e)) throw e;
+                                    failed.incrementAndGet();
+                                }
+                            }));
+        }
+        for (Future<?> transfer : transfers) transfer.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        logger.info(
+                "{} transfers on {} threads in {} s: {} transfers/s, {} completed, {} declined, {}"
+                        + " failed, {} retries",
+                TRANSFERS,
+                THREADS,
+                String.format("%.1f", seconds),
+                Math.round(TRANSFERS / seconds),
+                completed.get(),
+                declined.get(),
+                failed.get(),
+                Math.round(
+                        meterRegistry.counter("banksimulator.retry.retried").count()
+                                - retriedBefore));
+
+        assertEquals(
+                completed.get(),
+                jdbcTemplate.queryForObject(
+                        "select count(*) from transaction where customer_id between ? and ?",
+                        Integer.class,
+                        ID,
+                        ID + CUSTOMERS));
+        assertEquals(
+                0,
+                OPENING_BALANCE
+                        .multiply(BigDecimal.valueOf(CUSTOMERS))
+                        .compareTo(
+                                jdbcTemplate.queryForObject(
+                                        "select sum(balance + suspense_balance) from customer"
+                                                + " where bank_id = ?",
+                                        BigDecimal.class,
+                                        ID)));
+        for (int i = 0; i < CUSTOMERS; i++) {
+            BigDecimal expected =
+                    OPENING_BALANCE
+                            .subtract(
+                                    jdbcTemplate.queryForObject(
+                                            "select coalesce(sum(source_amount), 0) from"
+                                                    + " transaction where customer_id = ? and"
+                                                    + " status = 'COMPLETED'",
+                                            BigDecimal.class,
+                                            ID + i))
+                            .add(
+                                    jdbcTemplate.queryForObject(
+                                            "select coalesce(sum(t.target_amount), 0) from"
+                                                    + " transaction t join contact_list c on"
+                                                    + " c.contact_id = t.contact_id where c.email ="
+                                                    + " ? and t.status = 'COMPLETED'",
+                                            BigDecimal.class,
+                                            email(i)));
+            BigDecimal balance =
+                    jdbcTemplate.queryForObject(
+                            "select balance from customer where customer_id = ?",
+                            BigDecimal.class,
+                            ID + i);
+            assertEquals(0, expected.compareTo(balance), email(i) + ": " + balance);
+        }
+    }
+
+    private static String email(int customer) {
+        return "stress.customer." + customer + "@gmail.com";
+    }
+}
@@ -0,0 +1,194 @@
+package si.endava.banksimulator.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StripedExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StripedExecutor stripedExecutor = new StripedExecutor(meterRegistry, 4);
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        callers.shutdownNow();
+        stripedExecutor.shutdown();
+    }
+
+    @Test
+    void ensureThatTasksOfTheSameKeyNeverOverlap() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(
+                    callers.submit(
+                            () ->
+                                    stripedExecutor.execute(
+                                            7L,
+                                            () -> {
+                                                if (running.incrementAndGet() > 1)
+                                                    overlaps.incrementAndGet();
+                                                Thread.yield();
+                                                return running.decrementAndGet();
+                                            })));
+        }
+        for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void ensureThatTasksOfDifferentStripesRunInParallel() throws Exception {
+        assertNotEquals(stripedExecutor.stripeOf(1L), stripedExecutor.stripeOf(2L));
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable meet =
+                () -> {
+                    bothRunning.countDown();
+                    try {
+                        assertTrue(bothRunning.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                };
+
+        Future<?> first = callers.submit(() -> stripedExecutor.execute(1L, () -> run(meet)));
+        Future<?> second = callers.submit(() -> stripedExecutor.execute(2L, () -> run(meet)));
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void ensureThatNegativeKeysMapToAStripe() {
+        assertEquals(3, stripedExecutor.stripeOf(-1L));
+        assertEquals(1, stripedExecutor.stripeOf(Long.MIN_VALUE + 1));
+    }
+
+    @Test
+    void ensureThatFailuresReachTheCaller() {
+        IllegalArgumentException failure = new IllegalArgumentException("failed");
+
+        IllegalArgumentException thrown =
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () ->
+                                stripedExecutor.execute(
+                                        1L,
+                                        () -> {
+                                            throw failure;
+                                        }));
+
+        assertSame(failure, thrown);
+    }
+
+    @Test
+    void ensureThatTasksOnTheirOwnStripeRunInline() {
+        String thread =
+                stripedExecutor.execute(
+                        5L,
+                        () -> stripedExecutor.execute(9L, () -> Thread.currentThread().getName()));
+
+        assertEquals("stripe-1", thread);
+    }
+
+    @Test
+    void ensureThatGroupedItemsRunOncePerStripeInOrder() {
+        Map<String, List<Long>> groups = new ConcurrentHashMap<>();
+
+        stripedExecutor.executeGrouped(
+                Arrays.asList(1L, 5L, 2L, 9L, 6L),
+                Long::longValue,
+                group -> groups.put(Thread.currentThread().getName(), group));
+
+        assertEquals(2, groups.size());
+        assertEquals(Arrays.asList(1L, 5L, 9L), groups.get("stripe-1"));
+        assertEquals(Arrays.asList(2L, 6L), groups.get("stripe-2"));
+    }
+
+    @Test
+    void ensureThatGroupedFailuresAreThrownOnceEveryStripeIsDone() {
+        AtomicInteger done = new AtomicInteger();
+
+        IllegalStateException thrown =
+                assertThrows(
+                        IllegalStateException.class,
+                        () ->
+                                stripedExecutor.executeGrouped(
+                                        Arrays.asList(1L, 2L, 3L),
+                                        Long::longValue,
+                                        group -> {
+                                            if (group.get(0) != 2L)
+                                                throw new IllegalStateException("stripe " + group);
+                                            done.incrementAndGet();
+                                        }));
+
+        assertEquals(1, done.get());
+        assertEquals(1, thrown.getSuppressed().length);
+    }
+
+    @Test
+    void ensureThatQueueDepthIsPublishedPerStripe() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        callers.submit(
+                () ->
+                        stripedExecutor.execute(
+                                3L,
+                                () -> {
+                                    started.countDown();
+                                    return run(() -> await(release));
+                                }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        callers.submit(() -> stripedExecutor.execute(3L, () -> null));
+        callers.submit(() -> stripedExecutor.execute(7L, () -> null));
+
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (queueDepth("3") < 2 && System.nanoTime() < deadline) Thread.yield();
+            assertEquals(2, queueDepth("3"));
+            assertEquals(0, queueDepth("0"));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(4, meterRegistry.find("banksimulator.stripes.queue-depth").gauges().size());
+    }
+
+    private double queueDepth(String stripe) {
+        return meterRegistry
+                .get("banksimulator.stripes.queue-depth")
+                .tag("stripe", stripe)
+                .gauge()
+                .value();
+    }
+
+    private static Object run(Runnable runnable) {
+        runnable.run();
+        return null;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package si.endava.banksimulator.threads;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "banksimulator.threads.mode=virtual")
+@ActiveProfiles(profiles = "withoutEureka")
+@EnabledIf("si.endava.banksimulator.threads.VirtualThreads#isSupported")
+class VirtualThreadConfigTest {
+
+    @Autowired private ServletWebServerApplicationContext context;
+
+    @Test
+    void ensureThatTomcatHandlesRequestsOnVirtualThreads() throws Exception {
+        Executor executor =
+                ((TomcatWebServer) context.getWebServer())
+                        .getTomcat()
+                        .getConnector()
+                        .getProtocolHandler()
+                        .getExecutor();
+        CompletableFuture<Thread> thread = new CompletableFuture<>();
+
+        executor.execute(() -> thread.complete(Thread.currentThread()));
+
+        assertTrue(
+                (Boolean)
+                        Thread.class
+                                .getMethod("isVirtual")
+                                .invoke(thread.get(10, TimeUnit.SECONDS)));
+    }
+}
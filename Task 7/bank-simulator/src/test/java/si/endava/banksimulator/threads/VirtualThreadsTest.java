@@ -0,0 +1,32 @@
+package si.endava.banksimulator.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ThreadFactory;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadsTest {
+
+    private static final boolean JAVA_21 = Runtime.version().feature() >= 21;
+
+    @Test
+    void ensureThatSupportFollowsTheRuntimeVersion() {
+        assertEquals(JAVA_21, VirtualThreads.isSupported());
+    }
+
+    @Test
+    void ensureThatFactoryCreatesNamedVirtualThreadsOrFailsOnOlderRuntimes() throws Exception {
+        if (!JAVA_21) {
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.factory("test-"));
+            return;
+        }
+
+        ThreadFactory factory = VirtualThreads.factory("test-");
+        Thread thread = factory.newThread(() -> {});
+
+        assertEquals("test-0", thread.getName());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+}